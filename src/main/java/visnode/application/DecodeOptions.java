@@ -0,0 +1,161 @@
+package visnode.application;
+
+import java.awt.Rectangle;
+import java.util.Objects;
+
+/**
+ * Options for decoding input files
+ * <p>
+ * Allows decoding only part of a file ({@link #region(Rectangle)}) or
+ * decoding it at a lower resolution ({@link #subsampling(int)} and
+ * {@link #maxSize(int)}), skipping the source pixels that are not needed
+ * by the consumer. Files with multiple frames, like multi-frame DICOMs, can
+ * be decoded at any frame ({@link #frame(int)}).
+ */
+public class DecodeOptions {
+
+    /** Full decode */
+    private static final DecodeOptions FULL = new DecodeOptions(1, 0, null, 0);
+    /** Source subsampling */
+    private final int subsampling;
+    /** Maximum size of the decoded image */
+    private final int maxSize;
+    /** Source region */
+    private final Rectangle region;
+    /** Frame */
+    private final int frame;
+
+    private DecodeOptions(int subsampling, int maxSize, Rectangle region, int frame) {
+        this.subsampling = subsampling;
+        this.maxSize = maxSize;
+        this.region = region;
+        this.frame = frame;
+    }
+
+    /**
+     * Returns the options for decoding the full image
+     *
+     * @return DecodeOptions
+     */
+    public static DecodeOptions full() {
+        return FULL;
+    }
+
+    /**
+     * Returns options that decode every n-th pixel in both directions
+     *
+     * @param subsampling
+     * @return DecodeOptions
+     */
+    public DecodeOptions subsampling(int subsampling) {
+        if (subsampling < 1) {
+            throw new IllegalArgumentException("Subsampling must be at least 1");
+        }
+        return new DecodeOptions(subsampling, maxSize, region, frame);
+    }
+
+    /**
+     * Returns options that subsample the image so that its largest side is not
+     * smaller than, and as close as possible to, the size
+     *
+     * @param maxSize
+     * @return DecodeOptions
+     */
+    public DecodeOptions maxSize(int maxSize) {
+        return new DecodeOptions(subsampling, maxSize, region, frame);
+    }
+
+    /**
+     * Returns options that decode only a region of the image
+     *
+     * @param region
+     * @return DecodeOptions
+     */
+    public DecodeOptions region(Rectangle region) {
+        return new DecodeOptions(subsampling, maxSize, region == null ? null : new Rectangle(region), frame);
+    }
+
+    /**
+     * Returns options that decode a frame of the file, starting at 0
+     *
+     * @param frame
+     * @return DecodeOptions
+     */
+    public DecodeOptions frame(int frame) {
+        if (frame < 0) {
+            throw new IllegalArgumentException("Frame must be at least 0");
+        }
+        return new DecodeOptions(subsampling, maxSize, region, frame);
+    }
+
+    /**
+     * Returns the subsampling to use for an image with the given size
+     *
+     * @param width
+     * @param height
+     * @return int
+     */
+    public int getSubsampling(int width, int height) {
+        if (maxSize <= 0) {
+            return subsampling;
+        }
+        if (region != null) {
+            width = Math.min(width, region.width);
+            height = Math.min(height, region.height);
+        }
+        return Math.max(subsampling, Math.max(width, height) / maxSize);
+    }
+
+    /**
+     * Returns the source region, or null if the whole image should be decoded
+     *
+     * @return Rectangle
+     */
+    public Rectangle getRegion() {
+        return region == null ? null : new Rectangle(region);
+    }
+
+    /**
+     * Returns the frame to decode
+     *
+     * @return int
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Returns true if these options decode the full image
+     *
+     * @return boolean
+     */
+    public boolean isFull() {
+        return subsampling == 1 && maxSize <= 0 && region == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 41 * hash + this.subsampling;
+        hash = 41 * hash + this.maxSize;
+        hash = 41 * hash + Objects.hashCode(this.region);
+        hash = 41 * hash + this.frame;
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final DecodeOptions other = (DecodeOptions) obj;
+        return this.subsampling == other.subsampling
+                && this.maxSize == other.maxSize
+                && this.frame == other.frame
+                && Objects.equals(this.region, other.region);
+    }
+
+}
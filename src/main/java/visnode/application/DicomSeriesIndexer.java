@@ -0,0 +1,273 @@
+package visnode.application;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Class responsible for ordering the slices of a DICOM series
+ * <p>
+ * Only the header of each file is read, through a memory-mapped window over
+ * the start of the file, so indexing a series does not decode nor map any
+ * pixel data. Slices are ordered by their slice location, then by their
+ * instance number and then by their file name. Files with multiple frames
+ * give one slice per frame, in frame order.
+ */
+public class DicomSeriesIndexer {
+
+    /** Maximum number of bytes of the header that are mapped */
+    private static final int HEADER_WINDOW = 256 * 1024;
+    /** Offset of the "DICM" magic number */
+    private static final int PREAMBLE_SIZE = 128;
+    /** Undefined length */
+    private static final long UNDEFINED_LENGTH = 0xFFFFFFFFL;
+    /** Group of the item and delimitation tags */
+    private static final int GROUP_ITEM = 0xFFFE;
+    /** Item tag */
+    private static final int ITEM = 0xE000;
+    /** Sequence delimitation tag */
+    private static final int SEQUENCE_DELIMITATION = 0xE0DD;
+    /** Pixel data tag */
+    private static final int PIXEL_DATA = 0x7FE00010;
+    /** Instance number tag */
+    private static final int INSTANCE_NUMBER = 0x00200013;
+    /** Slice location tag */
+    private static final int SLICE_LOCATION = 0x00201041;
+    /** Number of frames tag */
+    private static final int NUMBER_OF_FRAMES = 0x00280008;
+    /** Explicit VRs with a 32 bits length */
+    private static final List<String> LONG_VRS = Arrays.asList(
+            "OB", "OD", "OF", "OL", "OV", "OW", "SQ", "SV", "UC", "UN", "UR", "UT", "UV"
+    );
+
+    /**
+     * Indexes the slices of a series
+     *
+     * @param files
+     * @return {@code Slice[]}
+     */
+    public Slice[] index(File[] files) {
+        List<Slice> slices = new ArrayList<>();
+        for (File file : files) {
+            Slice slice = readSlice(file);
+            for (int frame = 0; frame < slice.frames; frame++) {
+                slices.add(frame == 0 ? slice : new Slice(slice, frame));
+            }
+        }
+        slices.sort(Comparator.
+                comparing((Slice slice) -> slice.location, Comparator.nullsLast(Comparator.naturalOrder())).
+                thenComparing((Slice slice) -> slice.instance, Comparator.nullsLast(Comparator.naturalOrder())).
+                thenComparing((Slice slice) -> slice.file.getName()));
+        return slices.toArray(new Slice[slices.size()]);
+    }
+
+    /**
+     * Reads the slice header. If the header can't be read, the slice is
+     * ordered by its name only
+     *
+     * @param file
+     * @return Slice
+     */
+    private Slice readSlice(File file) {
+        Slice slice = new Slice(file);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), HEADER_WINDOW));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            readHeader(buffer, slice);
+        } catch (IOException | RuntimeException e) {
+            // Malformed or unsupported headers are ordered by name
+        }
+        return slice;
+    }
+
+    /**
+     * Reads the top level elements of the header, up to the pixel data
+     *
+     * @param buffer
+     * @param slice
+     */
+    private void readHeader(ByteBuffer buffer, Slice slice) {
+        if (hasMagicNumber(buffer)) {
+            buffer.position(PREAMBLE_SIZE + 4);
+        }
+        Deque<Long> sequences = new ArrayDeque<>();
+        while (buffer.remaining() >= 8) {
+            while (!sequences.isEmpty() && sequences.peek() != UNDEFINED_LENGTH && buffer.position() >= sequences.peek()) {
+                sequences.pop();
+            }
+            int group = buffer.getShort() & 0xFFFF;
+            int element = buffer.getShort() & 0xFFFF;
+            int tag = (group << 16) | element;
+            if (tag == PIXEL_DATA && sequences.isEmpty()) {
+                return;
+            }
+            if (group == GROUP_ITEM) {
+                long length = buffer.getInt() & 0xFFFFFFFFL;
+                if (element == SEQUENCE_DELIMITATION && !sequences.isEmpty()) {
+                    sequences.pop();
+                }
+                if (element != ITEM && length != UNDEFINED_LENGTH) {
+                    skip(buffer, length);
+                }
+                continue;
+            }
+            String vr = null;
+            long length;
+            if (isExplicitVR(buffer, group)) {
+                vr = new String(new byte[]{buffer.get(), buffer.get()}, StandardCharsets.US_ASCII);
+                if (LONG_VRS.contains(vr)) {
+                    buffer.getShort();
+                    length = buffer.getInt() & 0xFFFFFFFFL;
+                } else {
+                    length = buffer.getShort() & 0xFFFF;
+                }
+            } else {
+                length = buffer.getInt() & 0xFFFFFFFFL;
+            }
+            if ("SQ".equals(vr) || length == UNDEFINED_LENGTH) {
+                sequences.push(length == UNDEFINED_LENGTH ? UNDEFINED_LENGTH : buffer.position() + length);
+                continue;
+            }
+            if (sequences.isEmpty() && (tag == INSTANCE_NUMBER || tag == SLICE_LOCATION || tag == NUMBER_OF_FRAMES)) {
+                Double value = readNumber(buffer, (int) length);
+                if (tag == INSTANCE_NUMBER) {
+                    slice.instance = value;
+                } else if (tag == SLICE_LOCATION) {
+                    slice.location = value;
+                } else if (value != null && value >= 1) {
+                    slice.frames = value.intValue();
+                }
+                continue;
+            }
+            skip(buffer, length);
+        }
+    }
+
+    /**
+     * Returns true if the buffer starts with the DICOM preamble
+     *
+     * @param buffer
+     * @return boolean
+     */
+    private boolean hasMagicNumber(ByteBuffer buffer) {
+        return buffer.limit() >= PREAMBLE_SIZE + 4
+                && buffer.get(PREAMBLE_SIZE) == 'D'
+                && buffer.get(PREAMBLE_SIZE + 1) == 'I'
+                && buffer.get(PREAMBLE_SIZE + 2) == 'C'
+                && buffer.get(PREAMBLE_SIZE + 3) == 'M';
+    }
+
+    /**
+     * Returns true if the element at the current position has an explicit VR
+     *
+     * @param buffer
+     * @param group
+     * @return boolean
+     */
+    private boolean isExplicitVR(ByteBuffer buffer, int group) {
+        if (group == 0x0002) {
+            return true;
+        }
+        int position = buffer.position();
+        return Character.isUpperCase(buffer.get(position)) && Character.isUpperCase(buffer.get(position + 1));
+    }
+
+    /**
+     * Reads a numeric string value (IS or DS)
+     *
+     * @param buffer
+     * @param length
+     * @return Double
+     */
+    private Double readNumber(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        String value = new String(bytes, StandardCharsets.US_ASCII).trim();
+        int separator = value.indexOf('\\');
+        if (separator >= 0) {
+            value = value.substring(0, separator);
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Skips bytes in the buffer
+     *
+     * @param buffer
+     * @param length
+     */
+    private void skip(ByteBuffer buffer, long length) {
+        buffer.position((int) Math.min(buffer.limit(), buffer.position() + length));
+    }
+
+    /**
+     * Indexed slice, a frame of a file
+     */
+    public static class Slice {
+
+        /** File */
+        private final File file;
+        /** Frame of the file */
+        private final int frame;
+        /** Number of frames of the file */
+        private int frames;
+        /** Instance number */
+        private Double instance;
+        /** Slice location */
+        private Double location;
+
+        public Slice(File file) {
+            this.file = file;
+            this.frame = 0;
+            this.frames = 1;
+        }
+
+        /**
+         * Creates another frame of the file of a slice
+         *
+         * @param slice
+         * @param frame
+         */
+        private Slice(Slice slice, int frame) {
+            this.file = slice.file;
+            this.frame = frame;
+            this.frames = slice.frames;
+            this.instance = slice.instance;
+            this.location = slice.location;
+        }
+
+        /**
+         * Returns the file
+         *
+         * @return File
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Returns the frame of the file, starting at 0
+         *
+         * @return int
+         */
+        public int getFrame() {
+            return frame;
+        }
+
+    }
+
+}
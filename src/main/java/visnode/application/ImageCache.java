@@ -0,0 +1,310 @@
+package visnode.application;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.paim.commons.Image;
+
+/**
+ * Cache of decoded images
+ * <p>
+ * The entries are kept in least-recently-used order and weighted by the
+ * amount of memory the decoded pixels take. Entries are held by soft
+ * references, so the garbage collector can reclaim them before an
+ * {@code OutOfMemoryError} even if the weight limit was not reached.
+ * <p>
+ * The cache keeps its own copy of each image and returns a new copy on each
+ * hit, so the callers may modify the images they put or get. Copying the
+ * pixels is much cheaper than decoding them again.
+ */
+public class ImageCache {
+
+    /** Fraction of the maximum heap used as the default weight limit */
+    private static final int DEFAULT_HEAP_FRACTION = 4;
+    /** Singleton instance */
+    private static ImageCache instance;
+    /** Entries, in access order */
+    private final LinkedHashMap<Key, SoftReference<Image>> entries;
+    /** Weight of each entry */
+    private final Map<Key, Long> weights;
+    /** Maximum weight, in bytes */
+    private long maxWeight;
+    /** Current weight, in bytes */
+    private long weight;
+    /** Number of hits */
+    private long hits;
+    /** Number of misses */
+    private long misses;
+
+    /**
+     * Creates a new image cache
+     *
+     * @param maxWeight
+     */
+    public ImageCache(long maxWeight) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.weights = new LinkedHashMap<>();
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the singleton instance
+     *
+     * @return ImageCache
+     */
+    public static synchronized ImageCache get() {
+        if (instance == null) {
+            instance = new ImageCache(Runtime.getRuntime().maxMemory() / DEFAULT_HEAP_FRACTION);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a copy of the cached image for the file, or null if there is
+     * none
+     *
+     * @param file
+     * @return Image
+     * @throws IOException
+     */
+    public Image get(File file) throws IOException {
+        return get(file, DecodeOptions.full());
+    }
+
+    /**
+     * Returns a copy of the cached image for the file decoded with the
+     * options, or null if there is none
+     *
+     * @param file
+     * @param options
+     * @return Image
+     * @throws IOException
+     */
+    public synchronized Image get(File file, DecodeOptions options) throws IOException {
+        Key key = new Key(file, options);
+        SoftReference<Image> reference = entries.get(key);
+        Image image = reference == null ? null : reference.get();
+        if (image == null) {
+            if (reference != null) {
+                remove(key);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return new Image(image);
+    }
+
+    /**
+     * Puts a copy of an image in the cache
+     *
+     * @param file
+     * @param image
+     * @throws IOException
+     */
+    public void put(File file, Image image) throws IOException {
+        put(file, DecodeOptions.full(), image);
+    }
+
+    /**
+     * Puts a copy of an image decoded with the options in the cache
+     *
+     * @param file
+     * @param options
+     * @param image
+     * @throws IOException
+     */
+    public synchronized void put(File file, DecodeOptions options, Image image) throws IOException {
+        Key key = new Key(file, options);
+        long imageWeight = weightOf(image);
+        remove(key);
+        if (imageWeight > maxWeight) {
+            return;
+        }
+        entries.put(key, new SoftReference<>(new Image(image)));
+        weights.put(key, imageWeight);
+        weight += imageWeight;
+        evict();
+    }
+
+    /**
+     * Removes the entry
+     *
+     * @param key
+     */
+    private void remove(Key key) {
+        if (entries.remove(key) != null) {
+            weight -= weights.remove(key);
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits its weight
+     * limit. Entries whose images were already collected are dropped first
+     */
+    private void evict() {
+        Iterator<Map.Entry<Key, SoftReference<Image>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, SoftReference<Image>> entry = it.next();
+            if (entry.getValue().get() == null) {
+                it.remove();
+                weight -= weights.remove(entry.getKey());
+            }
+        }
+        it = entries.entrySet().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            Map.Entry<Key, SoftReference<Image>> entry = it.next();
+            it.remove();
+            weight -= weights.remove(entry.getKey());
+        }
+    }
+
+    /**
+     * Returns the weight of an image, in bytes
+     *
+     * @param image
+     * @return long
+     */
+    private long weightOf(Image image) {
+        return (long) image.getChannelCount() * image.getWidth() * image.getHeight() * Integer.BYTES;
+    }
+
+    /**
+     * Clears the cache
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weights.clear();
+        weight = 0;
+    }
+
+    /**
+     * Sets the maximum weight, in bytes
+     *
+     * @param maxWeight
+     */
+    public synchronized void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        evict();
+    }
+
+    /**
+     * Returns the maximum weight, in bytes
+     *
+     * @return long
+     */
+    public synchronized long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Returns the current weight, in bytes
+     *
+     * @return long
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the number of cached images
+     *
+     * @return int
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of hits
+     *
+     * @return long
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of misses
+     *
+     * @return long
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the hit rate, between 0 and 1
+     *
+     * @return double
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        if (total == 0) {
+            return 0;
+        }
+        return (double) hits / total;
+    }
+
+    /**
+     * Cache key. Identifies a file by its canonical path, size and
+     * modification time, so changes on disk invalidate the entry, and by the
+     * options used for decoding it
+     */
+    private static class Key {
+
+        /** Canonical path */
+        private final String path;
+        /** File size */
+        private final long size;
+        /** Modification time */
+        private final long lastModified;
+        /** Decode options */
+        private final DecodeOptions options;
+
+        /**
+         * Creates a new key
+         *
+         * @param file
+         * @param options
+         * @throws IOException
+         */
+        public Key(File file, DecodeOptions options) throws IOException {
+            this.path = file.getCanonicalPath();
+            this.size = file.length();
+            this.lastModified = file.lastModified();
+            this.options = options;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 53 * hash + Objects.hashCode(this.path);
+            hash = 53 * hash + (int) (this.size ^ (this.size >>> 32));
+            hash = 53 * hash + (int) (this.lastModified ^ (this.lastModified >>> 32));
+            hash = 53 * hash + Objects.hashCode(this.options);
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.size == other.size
+                    && this.lastModified == other.lastModified
+                    && Objects.equals(this.path, other.path)
+                    && Objects.equals(this.options, other.options);
+        }
+
+    }
+
+}
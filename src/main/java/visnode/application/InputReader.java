@@ -1,9 +1,14 @@
 package visnode.application;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Iterator;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import org.paim.commons.ImageHelper;
@@ -17,7 +22,17 @@ import org.paim.examsio.ExamLoaderException;
 public class InputReader {
 
     private static final String DICOM = "application/dicom";
-    
+    /** Decoded image cache */
+    private final ImageCache cache;
+
+    public InputReader() {
+        this(ImageCache.get());
+    }
+
+    public InputReader(ImageCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * Reads the file
      * 
@@ -26,11 +41,77 @@ public class InputReader {
      * @throws IOException Impossible read the file 
      */
     public Image read(File file) throws IOException {
+        return read(file, DecodeOptions.full());
+    }
+
+    /**
+     * Reads the file using the decode options. DICOM files are always decoded
+     * in full, but at the frame of the options
+     * 
+     * @param file The file
+     * @param options The decode options
+     * @return Image
+     * @throws IOException Impossible read the file 
+     */
+    public Image read(File file, DecodeOptions options) throws IOException {
+        Image image = cache.get(file, options);
+        if (image == null) {
+            image = decode(file, options);
+            cache.put(file, options, image);
+        }
+        return image;
+    }
+
+    /**
+     * Reads an image file as a BufferedImage using the decode options,
+     * bypassing the cache
+     * 
+     * @param file The file
+     * @param options The decode options
+     * @return BufferedImage
+     * @throws IOException Impossible read the file 
+     */
+    public BufferedImage readBufferedImage(File file, DecodeOptions options) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            if (stream == null) {
+                throw new IOException("Impossible to read the file " + file);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format " + file);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (!options.isFull()) {
+                    int subsampling = options.getSubsampling(reader.getWidth(options.getFrame()), reader.getHeight(options.getFrame()));
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    if (options.getRegion() != null) {
+                        param.setSourceRegion(options.getRegion());
+                    }
+                }
+                return reader.read(options.getFrame(), param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decodes the file, bypassing the cache
+     * 
+     * @param file The file
+     * @param options The decode options
+     * @return Image
+     * @throws IOException Impossible read the file 
+     */
+    private Image decode(File file, DecodeOptions options) throws IOException {
         String fileType = Files.probeContentType(file.toPath());
         if (isDicom(fileType) || file.getName().endsWith(".dcm")) {
-            return readDicom(file);
+            return readDicom(file, options);
         }
-        return readImage(file);
+        return readImage(file, options);
     }
 
     /**
@@ -43,16 +124,19 @@ public class InputReader {
         return DICOM.equals(fileType);
     }
     
-    private Image readDicom(File file) throws IOException {
+    private Image readDicom(File file, DecodeOptions options) throws IOException {
         try {
-            return ImageHelper.create(ExamLoader.load(file).getExamSlice(0).getCoefficientMatrix(), new Range<>(-4000, 4000));
+            return ImageHelper.create(ExamLoader.load(file).getExamSlice(options.getFrame()).getCoefficientMatrix(), new Range<>(-4000, 4000));
         } catch (ExamLoaderException ex) {
             throw new IOException(ex);
         }
     }
     
-    private Image readImage(File file) throws IOException {
-        return ImageFactory.buildRGBImage(ImageIO.read(file));
+    private Image readImage(File file, DecodeOptions options) throws IOException {
+        if (options.isFull() && options.getFrame() == 0) {
+            return ImageFactory.buildRGBImage(ImageIO.read(file));
+        }
+        return ImageFactory.buildRGBImage(readBufferedImage(file, options));
     }
     
 }
@@ -17,6 +17,7 @@ import visnode.gui.AngleEditor;
 import visnode.gui.ColorEditor;
 import visnode.gui.DoubleEditor;
 import visnode.gui.DynamicValueComponent;
+import visnode.gui.EnumEditor;
 import visnode.gui.FileEditor;
 import visnode.gui.InputEditor;
 import visnode.gui.ScriptValueEditor;
@@ -59,7 +60,8 @@ public class ParameterComponentFactory {
         }
         if (parameter.getType().equals(ScriptValue.class) && type == ConnectionType.INPUT) {
             return new ScriptValueEditor(
-                    ScriptValueEditorDocumentationFactory.create(node)
+                    ScriptValueEditorDocumentationFactory.create(node),
+                    logKey(node)
             );
         }
         if (parameter.getType().equals(Double.class) && type == ConnectionType.INPUT) {
@@ -78,7 +80,25 @@ public class ParameterComponentFactory {
         if (parameter.getType().equals(Angle.class) && type == ConnectionType.INPUT) {
             return new AngleEditor();
         }
+        if (parameter.getType().isEnum() && type == ConnectionType.INPUT) {
+            return new EnumEditor(parameter.getType());
+        }
         return new NotImplementedParameterComponent(parameter);
     }
 
+    /**
+     * Returns the key of the script log of the node, the node being run
+     * behind its decorators
+     *
+     * @param node
+     * @return Node
+     */
+    private Node logKey(Node node) {
+        Node key = node;
+        while (key instanceof EditNodeDecorator) {
+            key = ((EditNodeDecorator) key).getDecorated();
+        }
+        return key;
+    }
+
 }
@@ -0,0 +1,191 @@
+package visnode.application;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+/**
+ * Pool of warmed script engines
+ * <p>
+ * Scripts are compiled once per engine and the engines are kept, per script
+ * source, for the next runner of the same script. Each time an engine is
+ * borrowed, the compiled script is evaluated in brand new bindings, so no
+ * state leaks from a previous run and no source is parsed again.
+ */
+public class ScriptEnginePool {
+
+    /** Maximum number of distinct scripts kept */
+    static final int MAX_SCRIPTS = 32;
+    /** Maximum number of idle engines kept per script */
+    static final int MAX_ENGINES_PER_SCRIPT = Runtime.getRuntime().availableProcessors();
+    /** Script prelude */
+    private static final String PRELUDE = "var ImageFactory = Java.type('org.paim.commons.ImageFactory')";
+    /** Singleton instance */
+    private static ScriptEnginePool instance;
+    /** Engine manager */
+    private final ScriptEngineManager manager;
+    /** Idle engines, by script source */
+    private final Map<String, Deque<PooledEngine>> idle;
+    /** Number of engines created */
+    private long created;
+    /** Number of engines reused */
+    private long reused;
+
+    private ScriptEnginePool() {
+        this.manager = new ScriptEngineManager();
+        this.idle = new LinkedHashMap<String, Deque<PooledEngine>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<PooledEngine>> eldest) {
+                return size() > MAX_SCRIPTS;
+            }
+        };
+    }
+
+    /**
+     * Returns the singleton instance
+     *
+     * @return ScriptEnginePool
+     */
+    public static synchronized ScriptEnginePool get() {
+        if (instance == null) {
+            instance = new ScriptEnginePool();
+        }
+        return instance;
+    }
+
+    /**
+     * Borrows an engine with the script evaluated in fresh bindings
+     *
+     * @param source
+     * @return PooledEngine
+     * @throws ScriptException
+     */
+    public PooledEngine acquire(String source) throws ScriptException {
+        PooledEngine engine = poll(source);
+        if (engine == null) {
+            engine = create(source);
+        }
+        engine.reset();
+        return engine;
+    }
+
+    /**
+     * Returns an engine to the pool
+     *
+     * @param engine
+     */
+    public synchronized void release(PooledEngine engine) {
+        Deque<PooledEngine> engines = idle.computeIfAbsent(engine.source, (k) -> new ArrayDeque<>());
+        if (engines.size() < MAX_ENGINES_PER_SCRIPT) {
+            engines.push(engine);
+        }
+    }
+
+    /**
+     * Polls an idle engine for the script
+     *
+     * @param source
+     * @return PooledEngine
+     */
+    private synchronized PooledEngine poll(String source) {
+        Deque<PooledEngine> engines = idle.get(source);
+        if (engines == null || engines.isEmpty()) {
+            return null;
+        }
+        reused++;
+        return engines.pop();
+    }
+
+    /**
+     * Creates and compiles a new engine
+     *
+     * @param source
+     * @return PooledEngine
+     * @throws ScriptException
+     */
+    private PooledEngine create(String source) throws ScriptException {
+        ScriptEngine engine;
+        synchronized (this) {
+            engine = manager.getEngineByName("JavaScript");
+            created++;
+        }
+        Compilable compilable = (Compilable) engine;
+        return new PooledEngine(source, engine, compilable.compile(PRELUDE), compilable.compile(source));
+    }
+
+    /**
+     * Discards every idle engine
+     */
+    public synchronized void clear() {
+        idle.clear();
+    }
+
+    /**
+     * Returns the number of engines created
+     *
+     * @return long
+     */
+    public synchronized long getCreated() {
+        return created;
+    }
+
+    /**
+     * Returns the number of engines reused
+     *
+     * @return long
+     */
+    public synchronized long getReused() {
+        return reused;
+    }
+
+    /**
+     * Engine owned by the pool, with its compiled script
+     */
+    public static class PooledEngine {
+
+        /** Script source */
+        private final String source;
+        /** Engine */
+        private final ScriptEngine engine;
+        /** Compiled prelude */
+        private final CompiledScript prelude;
+        /** Compiled script */
+        private final CompiledScript script;
+
+        private PooledEngine(String source, ScriptEngine engine, CompiledScript prelude, CompiledScript script) {
+            this.source = source;
+            this.engine = engine;
+            this.prelude = prelude;
+            this.script = script;
+        }
+
+        /**
+         * Evaluates the compiled script in fresh bindings
+         *
+         * @throws ScriptException
+         */
+        private void reset() throws ScriptException {
+            engine.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+            prelude.eval();
+            script.eval();
+        }
+
+        /**
+         * Returns the engine
+         *
+         * @return ScriptEngine
+         */
+        public ScriptEngine getEngine() {
+            return engine;
+        }
+
+    }
+
+}
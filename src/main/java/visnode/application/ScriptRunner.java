@@ -1,26 +1,58 @@
 package visnode.application;
 
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import javax.script.Invocable;
 import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import visnode.commons.ScriptValue;
 import visnode.gui.ScriptValueEditorLog;
 
 /**
  * Script runner
+ * <p>
+ * The engine is borrowed from the {@link ScriptEnginePool} the first time the
+ * script is invoked, and should be given back with {@link #release()} once
+ * the runner is no longer used.
  */
 public class ScriptRunner {
 
+    /** Number of chunks per worker thread used by parallel runs */
+    private static final int CHUNKS_PER_WORKER = 4;
+    /** Global variable that makes the script run sequentially */
+    private static final String SEQUENTIAL_FLAG = "sequential";
     /** Script */
     private final ScriptValue script;
+    /** Key of the log */
+    private Object logKey;
+    /** Pooled engine */
+    private ScriptEnginePool.PooledEngine engine;
     /** Script invocable */
     private Invocable inv;
+    /** Output collected from interface invocations */
+    private StringWriter output;
+    /** If the runner has been released */
+    private boolean released;
+    /** If the script failed to compile */
+    private boolean failed;
 
     public ScriptRunner(ScriptValue script) {
         this.script = script;
-        buildInvocable();
+        this.logKey = hasScript() ? script.getValue() : null;
+    }
+
+    /**
+     * Sets the key of the log, by default the script source
+     *
+     * @param logKey
+     */
+    public void setLogKey(Object logKey) {
+        this.logKey = logKey;
     }
 
     /**
@@ -33,35 +65,322 @@ public class ScriptRunner {
     }
 
     /**
-     * Builds the script invocable
+     * Builds the script invocable, if it hasn't been built yet
      */
     private void buildInvocable() {
-        ScriptEngineManager factory = new ScriptEngineManager();
-        ScriptEngine engine = factory.getEngineByName("JavaScript");
+        if (inv == null && !released) {
+            engine = acquire();
+            if (engine != null) {
+                inv = (Invocable) engine.getEngine();
+            }
+        }
+    }
+
+    /**
+     * Borrows an engine with the script evaluated from the pool. Once the
+     * script failed to compile no engine is borrowed anymore, so the error is
+     * reported only once per run
+     *
+     * @return ScriptEnginePool.PooledEngine
+     */
+    private ScriptEnginePool.PooledEngine acquire() {
         try {
-            if (hasScript()) {
-                engine.eval("var ImageFactory = Java.type('org.paim.commons.ImageFactory')");
-                engine.eval(script.getValue());
-                inv = (Invocable) engine;
+            if (hasScript() && !failed) {
+                return ScriptEnginePool.get().acquire(script.getValue());
             }
         } catch (ScriptException e) {
+            failed = true;
             ExceptionHandler.get().handle(e);
         }
+        return null;
     }
 
     public Object invokeFunction(String function, Object... values) {
+        buildInvocable();
         if (hasScript() && inv != null) {
             try {
                 StringWriter writer = new StringWriter();
-                ((ScriptEngine) inv).getContext().setWriter(writer);   
+                ((ScriptEngine) inv).getContext().setWriter(writer);
                 Object obj = inv.invokeFunction(function, values);
-                ScriptValueEditorLog.get().next(writer.toString());
+                log(writer.toString());
                 return obj;
             } catch (NoSuchMethodException | ScriptException e) {
-                ScriptValueEditorLog.get().next(e.getMessage() + "\n");
+                log(e.getMessage() + "\n");
             }
         }
         return null;
     }
 
+    /**
+     * Returns an implementation of the interface backed by the script
+     * functions with the same names, or null if the script doesn't implement
+     * it.
+     * <p>
+     * Calls through the interface skip the per-call bookkeeping of
+     * {@link #invokeFunction(String, Object...)}: primitive arguments and
+     * return values are not boxed by the runner, and the script output is
+     * collected until {@link #flushOutput()} is called.
+     *
+     * @param <T>
+     * @param type
+     * @return T
+     */
+    public <T> T getInterface(Class<T> type) {
+        buildInvocable();
+        if (!hasScript() || inv == null) {
+            return null;
+        }
+        if (output == null) {
+            output = new StringWriter();
+            ((ScriptEngine) inv).getContext().setWriter(output);
+        }
+        return inv.getInterface(type);
+    }
+
+    /**
+     * Sends the output collected from interface invocations to the log
+     */
+    public void flushOutput() {
+        if (output != null && output.getBuffer().length() > 0) {
+            log(output.toString());
+            output.getBuffer().setLength(0);
+        }
+    }
+
+    /**
+     * Sends a text to the log of the script
+     *
+     * @param text
+     */
+    private void log(String text) {
+        ScriptValueEditorLog.get().next(logKey, text);
+    }
+
+    /**
+     * Logs that the script doesn't define a function. Nothing is logged when
+     * there is no script, or when it failed to compile, which is reported
+     * already
+     *
+     * @param function
+     */
+    public void logUndefined(String function) {
+        if (hasScript() && !failed) {
+            log("function " + function + " is not defined\n");
+        }
+    }
+
+    /**
+     * Logs an error thrown by an interface invocation
+     *
+     * @param e
+     */
+    public void logError(RuntimeException e) {
+        flushOutput();
+        log(e.getMessage() + "\n");
+    }
+
+    /**
+     * Returns the first of the interfaces the script implements, or null if it
+     * implements none of them or failed to compile. The script is evaluated
+     * once for all of them, so a compile error is reported only once
+     *
+     * @param types
+     * @return {@code Class<?>}
+     */
+    public Class<?> implemented(Class<?>... types) {
+        ScriptEnginePool.PooledEngine probe = engine != null || released ? engine : acquire();
+        if (probe == null) {
+            return null;
+        }
+        try {
+            for (Class<?> type : types) {
+                if (((Invocable) probe.getEngine()).getInterface(type) != null) {
+                    return type;
+                }
+            }
+            return null;
+        } finally {
+            if (probe != engine) {
+                ScriptEnginePool.get().release(probe);
+            }
+        }
+    }
+
+    /**
+     * Runs a task for each index in {@code [0, count)} in parallel, if the
+     * script implements the interface.
+     * <p>
+     * Script engines are not thread-safe, so the indexes are split in chunks
+     * and each chunk borrows its own engine from the pool, confined to the
+     * worker thread running it. Each engine has its own globals, so scripts
+     * that keep state between calls can opt out by declaring a global
+     * {@code sequential} variable set to true, in which case every index runs
+     * in order on the engine of the runner. The output of the chunks is
+     * logged in index order, and only the error of the first failing chunk is
+     * logged, so the log does not depend on the scheduling. A chunk stops at
+     * its first error.
+     *
+     * @param <T>
+     * @param type
+     * @param count
+     * @param task
+     * @return boolean true if the script implements the interface
+     */
+    public <T> boolean parallel(Class<T> type, int count, ScriptTask<T> task) {
+        ScriptEnginePool.PooledEngine probe = engine != null || released ? engine : acquire();
+        if (probe == null) {
+            return false;
+        }
+        boolean implemented = ((Invocable) probe.getEngine()).getInterface(type) != null;
+        if (implemented && Boolean.TRUE.equals(probe.getEngine().get(SEQUENTIAL_FLAG))) {
+            engine = probe;
+            inv = (Invocable) probe.getEngine();
+            sequential(type, count, task);
+            return true;
+        }
+        if (probe != engine) {
+            ScriptEnginePool.get().release(probe);
+        }
+        if (!implemented || count <= 0) {
+            return implemented;
+        }
+        int workers = ForkJoinPool.commonPool().getParallelism();
+        int chunkSize = Math.max(1, (count + workers * CHUNKS_PER_WORKER - 1) / (workers * CHUNKS_PER_WORKER));
+        List<Callable<ChunkResult>> chunks = new ArrayList<>();
+        for (int start = 0; start < count; start += chunkSize) {
+            int first = start;
+            int last = Math.min(count, start + chunkSize);
+            chunks.add(() -> runChunk(type, first, last, task));
+        }
+        flushOutput();
+        RuntimeException error = null;
+        for (Future<ChunkResult> future : ForkJoinPool.commonPool().invokeAll(chunks)) {
+            ChunkResult result = join(future);
+            log(result.output);
+            if (error == null) {
+                error = result.error;
+            }
+        }
+        if (error != null) {
+            logError(error);
+        }
+        return true;
+    }
+
+    /**
+     * Runs a task for each index in {@code [0, count)} in order on the engine
+     * of the runner, stopping at the first error
+     *
+     * @param <T>
+     * @param type
+     * @param count
+     * @param task
+     */
+    private <T> void sequential(Class<T> type, int count, ScriptTask<T> task) {
+        T function = getInterface(type);
+        try {
+            for (int index = 0; index < count; index++) {
+                task.run(function, index);
+            }
+            flushOutput();
+        } catch (RuntimeException e) {
+            logError(e);
+        }
+    }
+
+    /**
+     * Runs a chunk of a parallel run with its own engine
+     *
+     * @param <T>
+     * @param type
+     * @param first
+     * @param last
+     * @param task
+     * @return ChunkResult
+     * @throws ScriptException
+     */
+    private <T> ChunkResult runChunk(Class<T> type, int first, int last, ScriptTask<T> task) throws ScriptException {
+        ScriptEnginePool.PooledEngine chunkEngine = ScriptEnginePool.get().acquire(script.getValue());
+        StringWriter writer = new StringWriter();
+        try {
+            chunkEngine.getEngine().getContext().setWriter(writer);
+            T function = ((Invocable) chunkEngine.getEngine()).getInterface(type);
+            if (function != null) {
+                for (int index = first; index < last; index++) {
+                    task.run(function, index);
+                }
+            }
+            return new ChunkResult(writer.toString(), null);
+        } catch (RuntimeException e) {
+            return new ChunkResult(writer.toString(), e);
+        } finally {
+            ScriptEnginePool.get().release(chunkEngine);
+        }
+    }
+
+    /**
+     * Waits for the result of a chunk
+     *
+     * @param future
+     * @return ChunkResult
+     */
+    private ChunkResult join(Future<ChunkResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ChunkResult("", new IllegalStateException(e));
+        } catch (ExecutionException e) {
+            return new ChunkResult("", new IllegalStateException(e.getCause()));
+        }
+    }
+
+    /**
+     * Gives the engine back to the pool. The runner can't be used afterwards
+     */
+    public void release() {
+        flushOutput();
+        output = null;
+        released = true;
+        if (engine != null) {
+            ScriptEnginePool.get().release(engine);
+            engine = null;
+            inv = null;
+        }
+    }
+
+    /**
+     * Task of a parallel run
+     *
+     * @param <T>
+     */
+    public interface ScriptTask<T> {
+
+        /**
+         * Runs the task for an index
+         *
+         * @param function
+         * @param index
+         */
+        public void run(T function, int index);
+
+    }
+
+    /**
+     * Result of a chunk of a parallel run
+     */
+    private static class ChunkResult {
+
+        /** Script output */
+        private final String output;
+        /** Error */
+        private final RuntimeException error;
+
+        public ChunkResult(String output, RuntimeException error) {
+            this.output = output;
+            this.error = error;
+        }
+
+    }
+
 }
@@ -8,7 +8,6 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
@@ -21,7 +20,9 @@ import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
 import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
+import visnode.application.DecodeOptions;
 import visnode.application.ExceptionHandler;
+import visnode.application.InputReader;
 import visnode.application.Messages;
 import visnode.commons.ImageScale;
 import visnode.commons.swing.FileChooserFactory;
@@ -125,7 +126,7 @@ public class ChallengeFormPanel extends JPanel {
                 try {
                     Base64Image base64Image = new Base64Image();
                     challenge.setPayment(base64Image.
-                            toBase64(ImageIO.read(file), WIDTH)
+                            toBase64(new InputReader().readBufferedImage(file, DecodeOptions.full().maxSize(WIDTH)), WIDTH)
                     );
                 } catch (Exception e) {
                     ExceptionHandler.get().handle(e);
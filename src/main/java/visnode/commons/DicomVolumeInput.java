@@ -0,0 +1,170 @@
+package visnode.commons;
+
+import io.reactivex.Observable;
+import io.reactivex.subjects.BehaviorSubject;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+import visnode.application.DecodeOptions;
+import visnode.application.DicomSeriesIndexer;
+import visnode.application.InputReader;
+import visnode.pdi.process.ImageInput;
+
+/**
+ * DICOM volume input
+ * <p>
+ * The slices of the series are indexed once, when the volume is created, but
+ * only the selected slice is decoded. Decoded slices are kept in the input
+ * image cache, which releases them under memory pressure, so navigating a
+ * large series never requires the whole volume on the heap. Files with
+ * multiple frames give one slice per frame.
+ */
+public class DicomVolumeInput implements ImageInput {
+
+    /** Files of the slices, in volume order */
+    private final File[] slices;
+    /** Frames of the slices in their files */
+    private final int[] frames;
+    /** Selected slice */
+    private final int index;
+
+    public DicomVolumeInput() {
+        this(new File[0], 0);
+    }
+
+    public DicomVolumeInput(File[] slices, int index) {
+        this(slices, new int[slices.length], index);
+    }
+
+    public DicomVolumeInput(File[] slices, int[] frames, int index) {
+        this.slices = slices;
+        this.frames = frames;
+        this.index = index;
+    }
+
+    /**
+     * Creates a volume from the slice files, ordering them by their headers
+     *
+     * @param files
+     * @return DicomVolumeInput
+     */
+    public static DicomVolumeInput fromFiles(File[] files) {
+        DicomSeriesIndexer.Slice[] indexed = new DicomSeriesIndexer().index(files);
+        File[] slices = new File[indexed.length];
+        int[] frames = new int[indexed.length];
+        for (int i = 0; i < indexed.length; i++) {
+            slices[i] = indexed[i].getFile();
+            frames[i] = indexed[i].getFrame();
+        }
+        return new DicomVolumeInput(slices, frames, 0);
+    }
+
+    @Override
+    public Observable<Image> getImageObservable() {
+        if (slices.length == 0) {
+            return BehaviorSubject.create();
+        }
+        try {
+            return BehaviorSubject.createDefault(getSlice(index));
+        } catch (Exception e) {
+            return BehaviorSubject.createDefault(ImageFactory.buildEmptyImage());
+        }
+    }
+
+    /**
+     * Returns an observable that decodes every slice of the volume, in order,
+     * only when it is requested
+     *
+     * @return {@code Observable<Image>}
+     */
+    public Observable<Image> getSlicesObservable() {
+        return Observable.range(0, slices.length).map(this::getSlice);
+    }
+
+    /**
+     * Decodes a slice
+     *
+     * @param slice
+     * @return Image
+     * @throws IOException
+     */
+    public Image getSlice(int slice) throws IOException {
+        return new InputReader().read(slices[slice], DecodeOptions.full().frame(getFrame(slice)));
+    }
+
+    /**
+     * Returns the frame of a slice in its file. Volumes saved without frames
+     * have a single frame per file
+     *
+     * @param slice
+     * @return int
+     */
+    public int getFrame(int slice) {
+        return frames == null || slice >= frames.length ? 0 : frames[slice];
+    }
+
+    /**
+     * Returns a copy of this volume with another slice selected
+     *
+     * @param index
+     * @return DicomVolumeInput
+     */
+    public DicomVolumeInput withIndex(int index) {
+        return new DicomVolumeInput(slices, frames, index);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public File getFile() {
+        if (slices.length == 0) {
+            return null;
+        }
+        return slices[index];
+    }
+
+    public File[] getFiles() {
+        return slices;
+    }
+
+    public int getSize() {
+        return slices.length;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 37 * hash + Arrays.deepHashCode(this.slices);
+        hash = 37 * hash + Arrays.hashCode(this.frames);
+        hash = 37 * hash + this.index;
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final DicomVolumeInput other = (DicomVolumeInput) obj;
+        if (this.index != other.index) {
+            return false;
+        }
+        if (!Arrays.deepEquals(this.slices, other.slices)) {
+            return false;
+        }
+        if (!Arrays.equals(this.frames, other.frames)) {
+            return false;
+        }
+        return true;
+    }
+
+}
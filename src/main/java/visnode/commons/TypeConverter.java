@@ -16,6 +16,7 @@ public class TypeConverter {
         this.converters = new ArrayList<>();
         this.converters.add(new TypeConverterThreshold());
         this.converters.add(new TypeConverterAngle());
+        this.converters.add(new TypeConverterEnum());
         this.converters.add(new TypeConverterGeneric());
         this.converters.add(new TypeConverterGenericNumber());
         this.converters.add(new TypeConverterDynamicValue());
@@ -0,0 +1,18 @@
+package visnode.commons;
+
+/**
+ * Enum converter, from the name of the constant
+ */
+public class TypeConverterEnum implements TypeConverterExecutor {
+
+    @Override
+    public <D> D convert(Object value, Class<D> destinyType) {
+        return (D) Enum.valueOf((Class<Enum>) destinyType, value.toString());
+    }
+
+    @Override
+    public <D> boolean can(Class sourceType, Class<D> destinyType) {
+        return sourceType.equals(String.class) && destinyType.isEnum();
+    }
+
+}
@@ -28,6 +28,10 @@ import visnode.application.VISNode;
 import visnode.commons.Output;
 import visnode.commons.TypeConverter;
 import visnode.pdi.Process;
+import visnode.pdi.ScriptedProcess;
+import visnode.pdi.StageCache;
+import visnode.pdi.StagedProcess;
+import visnode.pdi.Stages;
 
 /**
  * Process node representation
@@ -62,6 +66,8 @@ public class ProcessNode implements Node, AttacherNode {
     private ProcessMetadata metadata;
     /** Lock used for the output */
     private final Object outputLock = new Object();
+    /** Results of the stages of the process */
+    private final StageCache stageCache;
     
     /**
      * Creates a new process node
@@ -79,6 +85,7 @@ public class ProcessNode implements Node, AttacherNode {
         this.listenerList = new EventListenerList();
         this.invalidated = true;
         this.compositeDisposable = new CompositeDisposable();
+        this.stageCache = new StageCache();
     }
 
     /**
@@ -220,6 +227,10 @@ public class ProcessNode implements Node, AttacherNode {
      */
     public void process(Consumer<Process> callable) {
         Process process = buildProcess();
+        Stages stages = process instanceof StagedProcess ? stageCache.begin(input) : Stages.uncached();
+        if (process instanceof StagedProcess) {
+            ((StagedProcess) process).setStages(stages);
+        }
         getPool().submit(() -> {
             try {
                 process.process();
@@ -238,6 +249,8 @@ public class ProcessNode implements Node, AttacherNode {
                 callable.accept(process);
             } catch (Exception ex) {
                 ExceptionHandler.get().handle(ex);
+            } finally {
+                stages.end();
             }
         });
     }
@@ -256,7 +269,11 @@ public class ProcessNode implements Node, AttacherNode {
                 Object input = getInput(processInput.get(i).getName());
                 list.add(converter.convert(input, constructor.getParameterTypes()[i]));
             }
-            return (Process) constructor.newInstance(list.toArray());
+            Process process = (Process) constructor.newInstance(list.toArray());
+            if (process instanceof ScriptedProcess) {
+                ((ScriptedProcess) process).setLogKey(this);
+            }
+            return process;
         } catch (IllegalArgumentException | ReflectiveOperationException ex) {
             throw new RuntimeException("Process build fail", ex);
         }
@@ -0,0 +1,56 @@
+package visnode.gui;
+
+import java.awt.BorderLayout;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+
+/**
+ * Editor for the constants of an enum
+ */
+public class EnumEditor extends JComponent implements ParameterComponent<Enum> {
+
+    /** Field */
+    private final JComboBox<Object> field;
+    
+    /**
+     * Creates a new enum editor
+     * 
+     * @param type
+     */
+    public EnumEditor(Class<?> type) {
+        super();
+        setLayout(new BorderLayout());
+        field = new JComboBox<>(type.getEnumConstants());
+        field.setFocusable(false);
+        add(field);
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return this;
+    }
+
+    @Override
+    public void setValue(Enum value) {
+        if (value != null) {
+            field.setSelectedItem(value);
+        }
+    }
+
+    /**
+     * Returns the value
+     * 
+     * @return Enum
+     */
+    public Enum getValue() {
+        return (Enum) field.getSelectedItem();
+    }
+
+    @Override
+    public void addValueListener(ValueListener valueListener) {
+        field.addActionListener((e) -> {
+            valueListener.valueChanged(null, getValue());
+        });
+    }
+    
+}
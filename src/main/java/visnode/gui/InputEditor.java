@@ -14,6 +14,7 @@ import javax.swing.JSlider;
 import javax.swing.SwingUtilities;
 import javax.swing.event.ChangeEvent;
 import visnode.application.VISNode;
+import visnode.commons.DicomVolumeInput;
 import visnode.commons.MultiFileInput;
 import visnode.commons.WebcamInput;
 import com.github.rxsling.Buttons;
@@ -72,6 +73,16 @@ public class InputEditor extends Panel implements ParameterComponent<ImageInput>
                     }
                     setValue(new WebcamInput());
                 }));
+        panelTypes.put(Buttons.toggle()
+                .icon(IconFactory.get().create("fa:medkit"))
+                .hint("Select the slices of a DICOM series")
+                .focusable(false)
+                .onClick((e) -> {
+                    if (input != null) {
+                        input.stop();
+                    }
+                    setValue(new DicomVolumeInput());
+                }));
         add(panelTypes, BorderLayout.NORTH);
         buildSpecificFields();
     }
@@ -94,6 +105,9 @@ public class InputEditor extends Panel implements ParameterComponent<ImageInput>
                 if (input instanceof WebcamInput) {
                     editor = Panels.create();
                 }
+                if (input instanceof DicomVolumeInput) {
+                    editor = buildDicomVolume();
+                }
             }
             put(editor.id("editor"));
             revalidate();
@@ -140,6 +154,30 @@ public class InputEditor extends Panel implements ParameterComponent<ImageInput>
         return panel;
     }
 
+    /**
+     * Creates the editor for the DICOM volume input
+     *
+     * @return Component
+     */
+    private Component buildDicomVolume() {
+        Panel panel = new Panel();
+        panel.setBorder(BorderFactory.createEmptyBorder(5, 0, 0, 0));
+        panel.setLayout(new BorderLayout());
+        Panel psup = new Panel();
+        psup.setLayout(new BoxLayout(psup, BoxLayout.X_AXIS));
+        psup.put(Inputs.text().enabled(false).preferredSize(100, 22).id("multiFileName"));
+        psup.put(Buttons.create().focusable(false).icon(IconFactory.get().create("fa:folder-open")).onClick((evt) -> {
+            FileChooserFactory.openImages().accept((filesSelected) -> {
+                input = DicomVolumeInput.fromFiles(filesSelected);
+                fireValueChanged();
+            });
+        }));
+        panel.add(psup);
+        panel.add(buidSlider(), BorderLayout.SOUTH);
+        SwingUtilities.invokeLater(() -> updateDicomVolumeFields((DicomVolumeInput) input));
+        return panel;
+    }
+
     /**
      * Creates the image slider component
      *
@@ -158,6 +196,10 @@ public class InputEditor extends Panel implements ParameterComponent<ImageInput>
                     input = new MultiFileInput(multi.getFiles(), slider.getValue());
                     fireValueChanged();
                 }
+                if (input instanceof DicomVolumeInput && ((DicomVolumeInput) input).getIndex() != slider.getValue()) {
+                    input = ((DicomVolumeInput) input).withIndex(slider.getValue());
+                    fireValueChanged();
+                }
             }
         });
         return slider;
@@ -170,6 +212,9 @@ public class InputEditor extends Panel implements ParameterComponent<ImageInput>
         if (input instanceof MultiFileInput) {
             updateMultifileFields((MultiFileInput) input);
         }
+        if (input instanceof DicomVolumeInput) {
+            updateDicomVolumeFields((DicomVolumeInput) input);
+        }
     }
 
     /**
@@ -193,6 +238,27 @@ public class InputEditor extends Panel implements ParameterComponent<ImageInput>
         findId("multiFileName").as(TextField.class).value(text.toString());
     }
 
+    /**
+     * Update the value for the DICOM volume fields
+     *
+     * @param volume
+     */
+    private void updateDicomVolumeFields(DicomVolumeInput volume) {
+        if (slider == null || findId("multiFileName") == null) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        slider.setEnabled(false);
+        if (volume.getSize() > 0) {
+            text.append('[').append(volume.getIndex() + 1).append('/').append(volume.getSize()).append("] ");
+            slider.setMaximum(volume.getSize() - 1);
+            slider.setValue(volume.getIndex());
+            slider.setEnabled(volume.getSize() > 1);
+            text.append(volume.getFile().getName());
+        }
+        findId("multiFileName").as(TextField.class).value(text.toString());
+    }
+
     @Override
     public JComponent getComponent() {
         return this;
@@ -11,6 +11,7 @@ import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
 import visnode.commons.ScriptValue;
 import com.github.rxsling.Buttons;
 import com.github.rxsling.Panel;
+import io.reactivex.disposables.Disposable;
 import java.awt.Dimension;
 import java.awt.Font;
 import javax.swing.BorderFactory;
@@ -38,15 +39,19 @@ public class ScriptValueEditor extends Panel implements ParameterComponent<Scrip
     private static Font font;
     /** Documentation */
     private final ScriptValueEditorDocumentation documentation;
+    /** Key of the log of the node */
+    private final Object logKey;
 
     /**
      * Creates a dynamic node value editor
      *
      * @param documentation
+     * @param logKey Key of the log of the node
      */
-    public ScriptValueEditor(ScriptValueEditorDocumentation documentation) {
+    public ScriptValueEditor(ScriptValueEditorDocumentation documentation, Object logKey) {
         this.value = buildDefault();
         this.documentation = documentation;
+        this.logKey = logKey;
         initGui();
     }
 
@@ -104,6 +109,8 @@ public class ScriptValueEditor extends Panel implements ParameterComponent<Scrip
         private JTextArea log;
         /** Panel log */
         private JComponent panelLog;
+        /** Log subscription */
+        private Disposable logSubscription;
 
         public Editor() {
             super();
@@ -162,19 +169,45 @@ public class ScriptValueEditor extends Panel implements ParameterComponent<Scrip
                     font = textArea.getFont();
                 }
             });
-            ScriptValueEditorLog.get().observable().subscribe((logText) -> {
-                if (logText == null || logText.isEmpty()) {
-                    return;
-                }
-                if (!panelLog.isVisible()) {
-                    SwingUtilities.invokeLater(() -> {
-                        panelLog.setVisible(true);
-                    });
-                }
-                this.log.append(logText);
+            subscribeLog();
+        }
+
+        /**
+         * Shows the log of the node and subscribes to its updates
+         */
+        private void subscribeLog() {
+            logSubscription = ScriptValueEditorLog.get().subscribe(logKey, (logText) -> {
+                SwingUtilities.invokeLater(() -> {
+                    appendLog(logText);
+                });
             });
         }
 
+        /**
+         * Appends a text to the log, keeping only the most recent output
+         *
+         * @param logText
+         */
+        private void appendLog(String logText) {
+            if (logText.isEmpty()) {
+                return;
+            }
+            panelLog.setVisible(true);
+            log.append(logText);
+            int excess = log.getDocument().getLength() - ScriptValueEditorLog.MAX_CHARS;
+            if (excess > 0) {
+                log.replaceRange("", 0, excess);
+            }
+        }
+
+        @Override
+        public void removeNotify() {
+            super.removeNotify();
+            if (logSubscription != null) {
+                logSubscription.dispose();
+            }
+        }
+
         /**
          * Execute the script
          */
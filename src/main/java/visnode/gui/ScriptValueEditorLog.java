@@ -1,52 +1,200 @@
 package visnode.gui;
 
-import io.reactivex.Observable;
-import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.subjects.PublishSubject;
 import io.reactivex.subjects.Subject;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Script value editor log
+ * <p>
+ * The log is kept per key, usually the node running the script, so scripts
+ * running at the same time don't interleave their output. Appends are batched
+ * and the subscribers receive the batches coalesced at a fixed rate instead of
+ * one update per append. Only the most recent output of each key is kept, and
+ * only the keys without subscribers are evicted.
  */
 public class ScriptValueEditorLog {
-    
+
+    /** Interval between the updates, in milliseconds */
+    private static final long UPDATE_INTERVAL = 100;
+    /** Maximum number of characters kept per key */
+    public static final int MAX_CHARS = 64 * 1024;
+    /** Maximum number of keys kept */
+    private static final int MAX_KEYS = 64;
     /** Instance */
     private static ScriptValueEditorLog intance;
-    
-    private final Subject<String> observable;
+    /** Logs, by key */
+    private final Map<Object, KeyLog> logs;
 
     public ScriptValueEditorLog() {
-        this.observable = BehaviorSubject.create();
+        this.logs = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Starts the periodic delivery of the updates
+     */
+    private void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "script-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::flush, UPDATE_INTERVAL, UPDATE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to the log of the key. The consumer first receives the text
+     * currently kept, then each update, with nothing lost or repeated between
+     * them. The key isn't evicted while the subscription isn't disposed
+     *
+     * @param key
+     * @param consumer
+     * @return Disposable
+     */
+    public synchronized Disposable subscribe(Object key, Consumer<String> consumer) {
+        KeyLog log = log(key);
+        String text = getText(key);
+        if (!text.isEmpty()) {
+            consumer.accept(text);
+        }
+        log.subscribers++;
+        Disposable subscription = log.subject.subscribe(consumer::accept);
+        return Disposables.fromAction(() -> {
+            subscription.dispose();
+            synchronized (this) {
+                log.subscribers--;
+            }
+        });
+    }
+
+    /**
+     * Returns the text currently kept for the key, already delivered to the
+     * subscribers
+     *
+     * @param key
+     * @return String
+     */
+    public synchronized String getText(Object key) {
+        KeyLog log = logs.get(key);
+        if (log == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        log.history.forEach(text::append);
+        return text.toString();
+    }
+
+    /**
+     * Appends a log for the key. Empty logs are dropped
+     *
+     * @param key
+     * @param log
+     */
+    public synchronized void next(Object key, String log) {
+        if (log == null || log.isEmpty()) {
+            return;
+        }
+        StringBuilder pending = log(key).pending;
+        pending.append(log);
+        if (pending.length() > MAX_CHARS) {
+            pending.delete(0, pending.length() - MAX_CHARS);
+        }
     }
-    
+
     /**
-     * Returns the observable
-     * 
-     * @return 
+     * Delivers the pending logs to the subscribers. The batches are delivered
+     * while holding the log, so a new subscriber gets each batch either in
+     * the kept text or as an update
      */
-    public Observable<String> observable()  {
-        return observable;
+    public synchronized void flush() {
+        logs.values().forEach((log) -> {
+            if (log.pending.length() == 0) {
+                return;
+            }
+            String batch = log.pending.toString();
+            log.pending.setLength(0);
+            log.keep(batch);
+            log.subject.onNext(batch);
+        });
     }
-    
+
     /**
-     * Returns the next value
-     * 
-     * @param log 
+     * Returns the log of the key, creating it if needed and evicting the
+     * least recently used keys without subscribers
+     *
+     * @param key
+     * @return KeyLog
      */
-    public void next(String log) {
-        observable.onNext(log);
+    private KeyLog log(Object key) {
+        KeyLog log = logs.computeIfAbsent(key, (k) -> new KeyLog());
+        Iterator<KeyLog> iterator = logs.values().iterator();
+        while (logs.size() > MAX_KEYS && iterator.hasNext()) {
+            KeyLog eldest = iterator.next();
+            if (eldest != log && eldest.subscribers == 0) {
+                iterator.remove();
+            }
+        }
+        return log;
     }
-    
-    
+
     /**
      * Returns the instance
-     * 
+     *
      * @return StringValueEditorLog
      */
-    public static ScriptValueEditorLog get() {
+    public static synchronized ScriptValueEditorLog get() {
         if (intance == null) {
             intance = new ScriptValueEditorLog();
+            intance.start();
         }
         return intance;
     }
-    
+
+    /**
+     * Log of a key
+     */
+    private static class KeyLog {
+
+        /** Appends not yet delivered */
+        private final StringBuilder pending;
+        /** Delivered batches, oldest first */
+        private final Deque<String> history;
+        /** Updates */
+        private final Subject<String> subject;
+        /** Number of characters in the history */
+        private int length;
+        /** Number of subscribers */
+        private int subscribers;
+
+        public KeyLog() {
+            this.pending = new StringBuilder();
+            this.history = new ArrayDeque<>();
+            this.subject = PublishSubject.<String>create().toSerialized();
+        }
+
+        /**
+         * Keeps a delivered batch, discarding the oldest ones over the limit
+         *
+         * @param batch
+         */
+        private void keep(String batch) {
+            history.addLast(batch);
+            length += batch.length();
+            while (length > MAX_CHARS && history.size() > 1) {
+                length -= history.removeFirst().length();
+            }
+        }
+
+    }
+
 }
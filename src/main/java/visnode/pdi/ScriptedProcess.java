@@ -0,0 +1,19 @@
+package visnode.pdi;
+
+/**
+ * A process running a script, whose output is logged under a key
+ * <p>
+ * The node running the process gives it its own key before calling
+ * {@link #process()}, so the script editor of the node shows only the output
+ * of that node, even if other nodes run the same script.
+ */
+public interface ScriptedProcess extends Process {
+
+    /**
+     * Sets the key of the log of the script
+     *
+     * @param key
+     */
+    public void setLogKey(Object key);
+
+}
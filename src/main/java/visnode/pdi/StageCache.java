@@ -0,0 +1,130 @@
+package visnode.pdi;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Results of the stages of a {@link StagedProcess}, kept between runs
+ * <p>
+ * A cache belongs to a single node and keeps the last result of each stage,
+ * along with the values of the inputs it depended on. A node may run its
+ * process more than once at the same time, so the cache counts the runs that
+ * have begun and not ended yet: a result can only be recycled by a run when no
+ * other run may still be reading it.
+ */
+public class StageCache {
+
+    /** Stages, by name */
+    private final Map<String, Entry> entries;
+    /** Number of runs that have begun and not ended yet */
+    private int running;
+
+    /**
+     * Creates a new stage cache
+     */
+    public StageCache() {
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Begins a run with the input values
+     *
+     * @param inputs
+     * @return Stages
+     */
+    public Stages begin(Map<String, Object> inputs) {
+        synchronized (this) {
+            running++;
+        }
+        return new Stages(this, new HashMap<>(inputs));
+    }
+
+    /**
+     * Ends a run
+     */
+    synchronized void end() {
+        running--;
+    }
+
+    /**
+     * Removes every result
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the last result of a stage
+     *
+     * @param name
+     * @return Entry
+     */
+    synchronized Entry get(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * Removes the last result of a stage, if no other run may be reading it
+     *
+     * @param name
+     * @return Entry
+     */
+    synchronized Entry recycle(String name) {
+        if (running > 1) {
+            return null;
+        }
+        return entries.remove(name);
+    }
+
+    /**
+     * Keeps the result of a stage
+     *
+     * @param name
+     * @param entry
+     */
+    synchronized void put(String name, Entry entry) {
+        entries.put(name, entry);
+    }
+
+    /**
+     * Result of a stage
+     */
+    static class Entry {
+
+        /** Values of the inputs the stage depended on */
+        private final Object[] dependencies;
+        /** Result */
+        private final Object result;
+
+        /**
+         * Creates a new entry
+         *
+         * @param dependencies
+         * @param result
+         */
+        public Entry(Object[] dependencies, Object result) {
+            this.dependencies = dependencies;
+            this.result = result;
+        }
+
+        /**
+         * Returns the values of the inputs the stage depended on
+         *
+         * @return {@code Object[]}
+         */
+        public Object[] getDependencies() {
+            return dependencies;
+        }
+
+        /**
+         * Returns the result
+         *
+         * @return Object
+         */
+        public Object getResult() {
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,18 @@
+package visnode.pdi;
+
+/**
+ * A process split in stages whose results can be reused between runs
+ * <p>
+ * The node running the process gives it the {@link Stages} of the run before
+ * calling {@link #process()}.
+ */
+public interface StagedProcess extends Process {
+
+    /**
+     * Sets the stages of the run
+     *
+     * @param stages
+     */
+    public void setStages(Stages stages);
+
+}
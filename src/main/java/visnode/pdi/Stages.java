@@ -0,0 +1,105 @@
+package visnode.pdi;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Stages of a single run of a {@link StagedProcess}
+ * <p>
+ * Stages are run in order, each one declaring the inputs it depends on. A
+ * stage reuses its last result while those inputs keep the same values and
+ * every stage before it was reused as well; from the first stage that runs
+ * again, all the following ones run again too. A run must be ended once its
+ * process no longer uses the results of its stages.
+ */
+public class Stages {
+
+    /** Cache, null if the results aren't kept */
+    private final StageCache cache;
+    /** Input values of the run */
+    private final Map<String, Object> inputs;
+    /** If a stage of this run was computed again */
+    private boolean changed;
+    /** If the run has ended */
+    private boolean ended;
+
+    /**
+     * Creates the stages of a run
+     *
+     * @param cache
+     * @param inputs
+     */
+    Stages(StageCache cache, Map<String, Object> inputs) {
+        this.cache = cache;
+        this.inputs = inputs;
+        this.changed = false;
+    }
+
+    /**
+     * Returns stages that always compute their results, for processes run
+     * outside of a node
+     *
+     * @return Stages
+     */
+    public static Stages uncached() {
+        return new Stages(null, Collections.emptyMap());
+    }
+
+    /**
+     * Returns the result of a stage, computing it only if it can't be reused
+     *
+     * @param <T>
+     * @param name
+     * @param computation
+     * @param dependencies Names of the inputs the stage depends on
+     * @return T
+     */
+    public <T> T run(String name, Supplier<T> computation, String... dependencies) {
+        if (cache == null) {
+            return computation.get();
+        }
+        Object[] values = new Object[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            values[i] = inputs.get(dependencies[i]);
+        }
+        StageCache.Entry entry = cache.get(name);
+        if (!changed && entry != null && Arrays.equals(entry.getDependencies(), values)) {
+            return (T) entry.getResult();
+        }
+        changed = true;
+        T result = computation.get();
+        cache.put(name, new StageCache.Entry(values, result));
+        return result;
+    }
+
+    /**
+     * Returns the last result of a stage, or null if there is none or another
+     * run of the node may still be reading it, and removes it from the cache.
+     * A computation can use it as a buffer for its new result, without a stale
+     * result being reused if it fails midway
+     *
+     * @param <T>
+     * @param name
+     * @return T
+     */
+    public <T> T recycle(String name) {
+        if (cache == null) {
+            return null;
+        }
+        StageCache.Entry entry = cache.recycle(name);
+        return entry == null ? null : (T) entry.getResult();
+    }
+
+    /**
+     * Ends the run. Ending a run more than once has no effect
+     */
+    public void end() {
+        if (cache != null && !ended) {
+            ended = true;
+            cache.end();
+        }
+    }
+
+}
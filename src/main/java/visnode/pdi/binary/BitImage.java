@@ -0,0 +1,276 @@
+package visnode.pdi.binary;
+
+import java.util.Arrays;
+import org.paim.commons.BinaryImage;
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+
+/**
+ * Binary image packed in a bitset
+ * <p>
+ * Each row is stored in {@link #getWordsPerRow()} consecutive longs, with
+ * the pixel {@code x} at the bit {@code x % 64} of the word {@code x / 64}.
+ * The bits past the width of the image are always zero, so whole words can
+ * be combined without masking.
+ */
+public class BitImage {
+
+    /** Width */
+    private final int width;
+    /** Height */
+    private final int height;
+    /** Words per row */
+    private final int wordsPerRow;
+    /** Mask of the valid bits of the last word of a row */
+    private final long lastWordMask;
+    /** Words */
+    private final long[] words;
+
+    /**
+     * Creates a new empty bit image
+     *
+     * @param width
+     * @param height
+     */
+    public BitImage(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.lastWordMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+        this.words = new long[wordsPerRow * height];
+    }
+
+    /**
+     * Creates a new bit image with the same size as another one
+     *
+     * @param image
+     */
+    public BitImage(BitImage image) {
+        this(image.width, image.height);
+    }
+
+    /**
+     * Builds a bit image from an image. Pixels whose value on the first
+     * channel is above the lower pixel value are set
+     *
+     * @param image
+     * @return BitImage
+     */
+    public static BitImage fromImage(Image image) {
+        BitImage bits = new BitImage(image.getWidth(), image.getHeight());
+        if (image.getChannelCount() == 0) {
+            return bits;
+        }
+        int[][] data = image.getData()[0];
+        int lower = image.getPixelValueRange().getLower();
+        for (int x = 0; x < bits.width; x++) {
+            int[] column = data[x];
+            int word = x >>> 6;
+            long bit = 1L << x;
+            for (int y = 0; y < bits.height; y++) {
+                if (column[y] > lower) {
+                    bits.words[y * bits.wordsPerRow + word] |= bit;
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Returns true if the image can be converted to a bit image and back
+     * without losing information: every pixel is at the lower or higher
+     * pixel value and all channels are equal
+     *
+     * @param image
+     * @return boolean
+     */
+    public static boolean isBinary(Image image) {
+        int[][][] data = image.getData();
+        int lower = image.getPixelValueRange().getLower();
+        int higher = image.getPixelValueRange().getHigher();
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                int value = data[0][x][y];
+                if (value != lower && value != higher) {
+                    return false;
+                }
+                for (int channel = 1; channel < data.length; channel++) {
+                    if (data[channel][x][y] != value) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts the bit image to a binary image
+     *
+     * @return BinaryImage
+     */
+    public BinaryImage toBinaryImage() {
+        BinaryImage image = ImageFactory.buildBinaryImage(width, height);
+        fill(image.getData()[0], 0, 1);
+        return image;
+    }
+
+    /**
+     * Converts the bit image to an image like the model. Binary models
+     * produce a {@link BinaryImage}, other models an image with the same
+     * channels and pixel value range, with the set pixels at the higher value
+     * and the others at the lower value
+     *
+     * @param model
+     * @return Image
+     */
+    public Image toImage(Image model) {
+        if (model.getPixelValueRange().isBinary()) {
+            return toBinaryImage();
+        }
+        Image image = ImageFactory.buildEmptyImage(model);
+        int lower = model.getPixelValueRange().getLower();
+        int higher = model.getPixelValueRange().getHigher();
+        for (int[][] channel : image.getData()) {
+            fill(channel, lower, higher);
+        }
+        return image;
+    }
+
+    /**
+     * Fills a channel with the bits
+     *
+     * @param channel
+     * @param off
+     * @param on
+     */
+    private void fill(int[][] channel, int off, int on) {
+        for (int x = 0; x < width; x++) {
+            int[] column = channel[x];
+            int word = x >>> 6;
+            long bit = 1L << x;
+            for (int y = 0; y < height; y++) {
+                column[y] = (words[y * wordsPerRow + word] & bit) != 0 ? on : off;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the pixel is set
+     *
+     * @param x
+     * @param y
+     * @return boolean
+     */
+    public boolean get(int x, int y) {
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Sets a pixel
+     *
+     * @param x
+     * @param y
+     * @param value
+     */
+    public void set(int x, int y, boolean value) {
+        if (value) {
+            words[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+        } else {
+            words[y * wordsPerRow + (x >>> 6)] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * Returns the number of set pixels
+     *
+     * @return int
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns a copy of the bit image
+     *
+     * @return BitImage
+     */
+    public BitImage copy() {
+        BitImage copy = new BitImage(this);
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        return copy;
+    }
+
+    /**
+     * Returns the width
+     *
+     * @return int
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height
+     *
+     * @return int
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of words of each row
+     *
+     * @return int
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Returns the mask of the valid bits of the last word of each row
+     *
+     * @return long
+     */
+    public long getLastWordMask() {
+        return lastWordMask;
+    }
+
+    /**
+     * Returns the words. Row {@code y} starts at {@code y * getWordsPerRow()}
+     *
+     * @return long[]
+     */
+    public long[] getWords() {
+        return words;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 29 * hash + this.width;
+        hash = 29 * hash + this.height;
+        hash = 29 * hash + Arrays.hashCode(this.words);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final BitImage other = (BitImage) obj;
+        return this.width == other.width
+                && this.height == other.height
+                && Arrays.equals(this.words, other.words);
+    }
+
+}
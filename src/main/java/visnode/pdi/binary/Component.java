@@ -0,0 +1,88 @@
+package visnode.pdi.binary;
+
+import java.awt.Rectangle;
+
+/**
+ * Connected component of a binary image
+ */
+public class Component {
+
+    /** Label */
+    private final int label;
+    /** Number of pixels */
+    private final int area;
+    /** Bounding box */
+    private final Rectangle bounds;
+    /** Centroid x */
+    private final double centroidX;
+    /** Centroid y */
+    private final double centroidY;
+
+    /**
+     * Creates a new component
+     *
+     * @param label
+     * @param area
+     * @param bounds
+     * @param centroidX
+     * @param centroidY
+     */
+    public Component(int label, int area, Rectangle bounds, double centroidX, double centroidY) {
+        this.label = label;
+        this.area = area;
+        this.bounds = bounds;
+        this.centroidX = centroidX;
+        this.centroidY = centroidY;
+    }
+
+    /**
+     * Returns the label
+     *
+     * @return int
+     */
+    public int getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the number of pixels
+     *
+     * @return int
+     */
+    public int getArea() {
+        return area;
+    }
+
+    /**
+     * Returns the bounding box
+     *
+     * @return Rectangle
+     */
+    public Rectangle getBounds() {
+        return new Rectangle(bounds);
+    }
+
+    /**
+     * Returns the x coordinate of the centroid
+     *
+     * @return double
+     */
+    public double getCentroidX() {
+        return centroidX;
+    }
+
+    /**
+     * Returns the y coordinate of the centroid
+     *
+     * @return double
+     */
+    public double getCentroidY() {
+        return centroidY;
+    }
+
+    @Override
+    public String toString() {
+        return "Component{" + "label=" + label + ", area=" + area + ", bounds=" + bounds + ", centroid=" + centroidX + ", " + centroidY + '}';
+    }
+
+}
@@ -0,0 +1,254 @@
+package visnode.pdi.binary;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Connected component labeler
+ * <p>
+ * Two-pass union-find labeling. The image is split in horizontal strips
+ * labeled in parallel, each one with provisional labels of its own; the
+ * labels that touch across the strip borders are then merged, and a second
+ * parallel pass writes the final labels and computes the area, bounding box
+ * and centroid of each component. Final labels are numbered in the order of
+ * the first pixel of each component, row by row.
+ */
+public class ComponentLabeler {
+
+    /** Minimum number of rows per strip */
+    private static final int MIN_STRIP_HEIGHT = 16;
+
+    /**
+     * Labels the 8-connected components of the image
+     *
+     * @param image
+     * @return Labeling
+     */
+    public static Labeling label(BitImage image) {
+        return label(image, 8);
+    }
+
+    /**
+     * Labels the connected components of the image
+     *
+     * @param image
+     * @param connectivity 4 or 8
+     * @return Labeling
+     */
+    public static Labeling label(BitImage image, int connectivity) {
+        if (connectivity != 4 && connectivity != 8) {
+            throw new IllegalArgumentException("Connectivity must be 4 or 8");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int workers = ForkJoinPool.commonPool().getParallelism();
+        int stripHeight = Math.max(MIN_STRIP_HEIGHT, (height + workers * 2 - 1) / (workers * 2));
+        int strips = (height + stripHeight - 1) / stripHeight;
+        int[] labels = new int[width * height];
+        int[] parent = new int[width * height + 1];
+        boolean diagonal = connectivity == 8;
+        IntStream.range(0, strips).parallel().forEach((strip) -> {
+            int first = strip * stripHeight;
+            labelStrip(image, labels, parent, first, Math.min(height, first + stripHeight), diagonal);
+        });
+        for (int strip = 1; strip < strips; strip++) {
+            mergeBorder(labels, parent, width, strip * stripHeight, diagonal);
+        }
+        int count = 0;
+        for (int i = 1; i < parent.length; i++) {
+            if (parent[i] == i) {
+                parent[i] = -(++count);
+            } else if (parent[i] > 0) {
+                parent[i] = parent[parent[i]];
+            }
+        }
+        boolean[] shared = new boolean[count + 1];
+        for (int strip = 1; strip < strips; strip++) {
+            int offset = strip * stripHeight * width;
+            for (int x = 0; x < width; x++) {
+                if (labels[offset + x] != 0) {
+                    shared[-parent[labels[offset + x]]] = true;
+                }
+            }
+        }
+        Labeling labeling = new Labeling(width, height, labels, count);
+        IntStream.range(0, strips).parallel().forEach((strip) -> {
+            int first = strip * stripHeight;
+            resolveStrip(labeling, labels, parent, shared, width, first, Math.min(height, first + stripHeight));
+        });
+        return labeling;
+    }
+
+    /**
+     * Assigns provisional labels to a strip. Provisional labels are the index
+     * of the pixel that created them plus one, so strips never collide
+     *
+     * @param image
+     * @param labels
+     * @param parent
+     * @param first
+     * @param last
+     * @param diagonal
+     */
+    private static void labelStrip(BitImage image, int[] labels, int[] parent, int first, int last, boolean diagonal) {
+        int width = image.getWidth();
+        int wordsPerRow = image.getWordsPerRow();
+        long[] words = image.getWords();
+        for (int y = first; y < last; y++) {
+            boolean up = y > first;
+            for (int i = 0; i < wordsPerRow; i++) {
+                long word = words[y * wordsPerRow + i];
+                while (word != 0) {
+                    int x = (i << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    int index = y * width + x;
+                    int label = 0;
+                    if (x > 0) {
+                        label = join(parent, label, labels[index - 1]);
+                    }
+                    if (up) {
+                        label = join(parent, label, labels[index - width]);
+                        if (diagonal && x > 0) {
+                            label = join(parent, label, labels[index - width - 1]);
+                        }
+                        if (diagonal && x < width - 1) {
+                            label = join(parent, label, labels[index - width + 1]);
+                        }
+                    }
+                    if (label == 0) {
+                        label = index + 1;
+                        parent[label] = label;
+                    }
+                    labels[index] = label;
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the labels of the first row of a strip with the row above it
+     *
+     * @param labels
+     * @param parent
+     * @param width
+     * @param y
+     * @param diagonal
+     */
+    private static void mergeBorder(int[] labels, int[] parent, int width, int y, boolean diagonal) {
+        int offset = y * width;
+        for (int x = 0; x < width; x++) {
+            int label = labels[offset + x];
+            if (label == 0) {
+                continue;
+            }
+            join(parent, label, labels[offset - width + x]);
+            if (diagonal && x > 0) {
+                join(parent, label, labels[offset - width + x - 1]);
+            }
+            if (diagonal && x < width - 1) {
+                join(parent, label, labels[offset - width + x + 1]);
+            }
+        }
+    }
+
+    /**
+     * Joins the label of a pixel with the label of a neighbour. Returns the
+     * label to use for the pixel
+     *
+     * @param parent
+     * @param label
+     * @param neighbour
+     * @return int
+     */
+    private static int join(int[] parent, int label, int neighbour) {
+        if (neighbour == 0) {
+            return label;
+        }
+        if (label == 0 || label == neighbour) {
+            return neighbour;
+        }
+        int a = find(parent, label);
+        int b = find(parent, neighbour);
+        if (a < b) {
+            parent[b] = a;
+        } else if (b < a) {
+            parent[a] = b;
+        }
+        return Math.min(a, b);
+    }
+
+    /**
+     * Finds the root of a label. Roots are always the lowest label of their
+     * set, so every label points to a lower one
+     *
+     * @param parent
+     * @param label
+     * @return int
+     */
+    private static int find(int[] parent, int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+    /**
+     * Writes the final labels of a strip and computes the statistics of its
+     * components. Components shared with other strips are accumulated apart
+     * and merged at the end
+     *
+     * @param labeling
+     * @param labels
+     * @param parent
+     * @param shared
+     * @param width
+     * @param first
+     * @param last
+     */
+    private static void resolveStrip(Labeling labeling, int[] labels, int[] parent, boolean[] shared, int width, int first, int last) {
+        Map<Integer, long[]> partial = new HashMap<>();
+        for (int y = first; y < last; y++) {
+            for (int x = 0; x < width; x++) {
+                int index = y * width + x;
+                if (labels[index] == 0) {
+                    continue;
+                }
+                int label = -parent[labels[index]];
+                labels[index] = label;
+                if (shared[label]) {
+                    long[] stats = partial.computeIfAbsent(label, (k) -> new long[] {0, Integer.MAX_VALUE, Integer.MAX_VALUE, -1, -1, 0, 0});
+                    stats[0]++;
+                    stats[1] = Math.min(stats[1], x);
+                    stats[2] = Math.min(stats[2], y);
+                    stats[3] = Math.max(stats[3], x);
+                    stats[4] = Math.max(stats[4], y);
+                    stats[5] += x;
+                    stats[6] += y;
+                } else {
+                    labeling.area[label]++;
+                    labeling.minX[label] = Math.min(labeling.minX[label], x);
+                    labeling.minY[label] = Math.min(labeling.minY[label], y);
+                    labeling.maxX[label] = Math.max(labeling.maxX[label], x);
+                    labeling.maxY[label] = Math.max(labeling.maxY[label], y);
+                    labeling.sumX[label] += x;
+                    labeling.sumY[label] += y;
+                }
+            }
+        }
+        synchronized (labeling) {
+            partial.forEach((label, stats) -> {
+                labeling.area[label] += (int) stats[0];
+                labeling.minX[label] = Math.min(labeling.minX[label], (int) stats[1]);
+                labeling.minY[label] = Math.min(labeling.minY[label], (int) stats[2]);
+                labeling.maxX[label] = Math.max(labeling.maxX[label], (int) stats[3]);
+                labeling.maxY[label] = Math.max(labeling.maxY[label], (int) stats[4]);
+                labeling.sumX[label] += stats[5];
+                labeling.sumY[label] += stats[6];
+            });
+        }
+    }
+
+}
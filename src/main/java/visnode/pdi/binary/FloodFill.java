@@ -0,0 +1,171 @@
+package visnode.pdi.binary;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+
+/**
+ * Scanline flood fill
+ * <p>
+ * The region is grown one span at a time: a span is a run of matching pixels
+ * of a column, which is how the image data is laid out. Filling a span looks
+ * for the runs of the neighbouring columns that touch it and pushes one seed
+ * for each of them on an explicit stack of primitive ints, so memory grows with
+ * the number of pending spans instead of the number of pixels, and there is no
+ * recursion. The region is kept in a {@link BitImage}, which is also what
+ * keeps pixels from being visited twice.
+ */
+public class FloodFill {
+
+    /** Initial capacity of the span stack, in ints */
+    private static final int INITIAL_STACK = 1024;
+
+    /**
+     * Returns the region connected to the seed whose pixels differ from the
+     * seed by up to the tolerance in every channel
+     *
+     * @param image
+     * @param seedX
+     * @param seedY
+     * @param tolerance
+     * @param connectivity 4 or 8
+     * @return BitImage
+     */
+    public static BitImage region(Image image, int seedX, int seedY, int tolerance, int connectivity) {
+        if (connectivity != 4 && connectivity != 8) {
+            throw new IllegalArgumentException("Connectivity must be 4 or 8");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BitImage region = new BitImage(width, height);
+        if (seedX < 0 || seedY < 0 || seedX >= width || seedY >= height) {
+            return region;
+        }
+        int[][][] data = image.getData();
+        int[] seed = new int[data.length];
+        for (int channel = 0; channel < data.length; channel++) {
+            seed[channel] = data[channel][seedX][seedY];
+        }
+        Matcher matcher = new Matcher(data, seed, Math.max(0, tolerance), region);
+        int diagonal = connectivity == 8 ? 1 : 0;
+        int[] stack = new int[INITIAL_STACK];
+        int size = 0;
+        stack[size++] = seedX;
+        stack[size++] = seedY;
+        while (size > 0) {
+            int y = stack[--size];
+            int x = stack[--size];
+            if (!matcher.matches(x, y)) {
+                continue;
+            }
+            int first = y;
+            while (first > 0 && matcher.matches(x, first - 1)) {
+                first--;
+            }
+            int last = y;
+            while (last < height - 1 && matcher.matches(x, last + 1)) {
+                last++;
+            }
+            for (int i = first; i <= last; i++) {
+                region.set(x, i, true);
+            }
+            int from = Math.max(0, first - diagonal);
+            int to = Math.min(height - 1, last + diagonal);
+            for (int nx = x - 1; nx <= x + 1; nx += 2) {
+                if (nx < 0 || nx >= width) {
+                    continue;
+                }
+                boolean inRun = false;
+                for (int ny = from; ny <= to; ny++) {
+                    boolean matches = matcher.matches(nx, ny);
+                    if (matches && !inRun) {
+                        if (size + 2 > stack.length) {
+                            stack = Arrays.copyOf(stack, stack.length * 2);
+                        }
+                        stack[size++] = nx;
+                        stack[size++] = ny;
+                    }
+                    inRun = matches;
+                }
+            }
+        }
+        return region;
+    }
+
+    /**
+     * Returns a copy of the image with the pixels of the region replaced by
+     * the color, one value per channel
+     *
+     * @param image
+     * @param region
+     * @param color
+     * @return Image
+     */
+    public static Image fill(Image image, BitImage region, int[] color) {
+        Image result = new Image(image);
+        int height = image.getHeight();
+        int[][][] data = result.getData();
+        IntStream.range(0, image.getWidth()).parallel().forEach((x) -> {
+            for (int y = 0; y < height; y++) {
+                if (region.get(x, y)) {
+                    for (int channel = 0; channel < data.length; channel++) {
+                        data[channel][x][y] = color[channel];
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Tells if a pixel still belongs to the region being filled
+     */
+    private static class Matcher {
+
+        /** Image data */
+        private final int[][][] data;
+        /** Seed values */
+        private final int[] seed;
+        /** Tolerance */
+        private final int tolerance;
+        /** Pixels already filled */
+        private final BitImage region;
+
+        /**
+         * Creates a new matcher
+         *
+         * @param data
+         * @param seed
+         * @param tolerance
+         * @param region
+         */
+        public Matcher(int[][][] data, int[] seed, int tolerance, BitImage region) {
+            this.data = data;
+            this.seed = seed;
+            this.tolerance = tolerance;
+            this.region = region;
+        }
+
+        /**
+         * Returns true if the pixel isn't filled yet and is within the
+         * tolerance of the seed
+         *
+         * @param x
+         * @param y
+         * @return boolean
+         */
+        public boolean matches(int x, int y) {
+            if (region.get(x, y)) {
+                return false;
+            }
+            for (int channel = 0; channel < seed.length; channel++) {
+                if (Math.abs(data[channel][x][y] - seed[channel]) > tolerance) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+package visnode.pdi.binary;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+import org.paim.pdi.ExtractedObject;
+import org.paim.pdi.ObjectList;
+
+/**
+ * Result of a connected component labeling
+ * <p>
+ * Labels go from 1 to {@link #getCount()}, and 0 is the background. The
+ * statistics of each component are indexed by its label.
+ */
+public class Labeling {
+
+    /** Width */
+    private final int width;
+    /** Height */
+    private final int height;
+    /** Labels, row by row */
+    private final int[] labels;
+    /** Number of components */
+    private final int count;
+    /** Areas */
+    final int[] area;
+    /** Lowest x */
+    final int[] minX;
+    /** Lowest y */
+    final int[] minY;
+    /** Highest x */
+    final int[] maxX;
+    /** Highest y */
+    final int[] maxY;
+    /** Sums of the x coordinates */
+    final long[] sumX;
+    /** Sums of the y coordinates */
+    final long[] sumY;
+
+    /**
+     * Creates a new labeling
+     *
+     * @param width
+     * @param height
+     * @param labels
+     * @param count
+     */
+    Labeling(int width, int height, int[] labels, int count) {
+        this.width = width;
+        this.height = height;
+        this.labels = labels;
+        this.count = count;
+        this.area = new int[count + 1];
+        this.minX = new int[count + 1];
+        this.minY = new int[count + 1];
+        this.maxX = new int[count + 1];
+        this.maxY = new int[count + 1];
+        this.sumX = new long[count + 1];
+        this.sumY = new long[count + 1];
+        Arrays.fill(minX, Integer.MAX_VALUE);
+        Arrays.fill(minY, Integer.MAX_VALUE);
+        Arrays.fill(maxX, -1);
+        Arrays.fill(maxY, -1);
+    }
+
+    /**
+     * Returns the label of a pixel
+     *
+     * @param x
+     * @param y
+     * @return int
+     */
+    public int getLabel(int x, int y) {
+        return labels[y * width + x];
+    }
+
+    /**
+     * Returns the number of components
+     *
+     * @return int
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the component with the label
+     *
+     * @param label
+     * @return Component
+     */
+    public Component getComponent(int label) {
+        return new Component(label, area[label],
+                new Rectangle(minX[label], minY[label], maxX[label] - minX[label] + 1, maxY[label] - minY[label] + 1),
+                (double) sumX[label] / area[label],
+                (double) sumY[label] / area[label]);
+    }
+
+    /**
+     * Returns the components, by label
+     *
+     * @return {@code List<Component>}
+     */
+    public List<Component> getComponents() {
+        List<Component> components = new ArrayList<>(count);
+        for (int label = 1; label <= count; label++) {
+            components.add(getComponent(label));
+        }
+        return components;
+    }
+
+    /**
+     * Returns the labels as a single channel image
+     *
+     * @return Image
+     */
+    public Image toImage() {
+        int[][][] data = new int[1][width][height];
+        IntStream.range(0, width).parallel().forEach((x) -> {
+            int[] column = data[0][x];
+            for (int y = 0; y < height; y++) {
+                column[y] = labels[y * width + x];
+            }
+        });
+        return new Image(data, new Range<>(0, Math.max(1, count)));
+    }
+
+    /**
+     * Returns the components as a list of extracted objects
+     *
+     * @return ObjectList
+     */
+    public ObjectList toObjectList() {
+        Image image = toImage();
+        List<ExtractedObject> objects = new ArrayList<>(count);
+        for (int label = 1; label <= count; label++) {
+            objects.add(new ExtractedObject(label, image));
+        }
+        return new ObjectList(objects);
+    }
+
+}
@@ -0,0 +1,101 @@
+package visnode.pdi.binary;
+
+import java.util.stream.IntStream;
+
+/**
+ * Binary morphology on bit images
+ * <p>
+ * The operations use a 3x3 square structuring element, which is separable:
+ * each row is first combined with its horizontal neighbours, shifting whole
+ * words so 64 pixels are processed per operation, and then with the rows
+ * above and below. Rows are processed in parallel. Like the grey-level
+ * operations, the pixels on the border of the image, whose neighbourhood
+ * is not complete, are left unset.
+ */
+public class Morphology {
+
+    /**
+     * Erodes the image
+     *
+     * @param image
+     * @return BitImage
+     */
+    public static BitImage erode(BitImage image) {
+        return apply(image, true);
+    }
+
+    /**
+     * Dilates the image
+     *
+     * @param image
+     * @return BitImage
+     */
+    public static BitImage dilate(BitImage image) {
+        return apply(image, false);
+    }
+
+    /**
+     * Opens the image, eroding and then dilating it
+     *
+     * @param image
+     * @return BitImage
+     */
+    public static BitImage open(BitImage image) {
+        return dilate(erode(image));
+    }
+
+    /**
+     * Closes the image, dilating and then eroding it
+     *
+     * @param image
+     * @return BitImage
+     */
+    public static BitImage close(BitImage image) {
+        return erode(dilate(image));
+    }
+
+    /**
+     * Applies an erosion or a dilation
+     *
+     * @param image
+     * @param erosion
+     * @return BitImage
+     */
+    private static BitImage apply(BitImage image, boolean erosion) {
+        int wordsPerRow = image.getWordsPerRow();
+        int height = image.getHeight();
+        // The last pixel of each row is on the border
+        long lastWordMask = image.getLastWordMask() & ~(1L << (image.getWidth() - 1));
+        long[] source = image.getWords();
+        long[] rows = new long[source.length];
+        BitImage result = new BitImage(image);
+        long[] target = result.getWords();
+        IntStream.range(0, height).parallel().forEach((y) -> {
+            int offset = y * wordsPerRow;
+            for (int i = 0; i < wordsPerRow; i++) {
+                long word = source[offset + i];
+                long previous = i > 0 ? source[offset + i - 1] : 0L;
+                long next = i < wordsPerRow - 1 ? source[offset + i + 1] : 0L;
+                long left = (word << 1) | (previous >>> 63);
+                long right = (word >>> 1) | (next << 63);
+                rows[offset + i] = erosion ? word & left & right : word | left | right;
+            }
+        });
+        IntStream.range(1, height - 1).parallel().forEach((y) -> {
+            int offset = y * wordsPerRow;
+            for (int i = 0; i < wordsPerRow; i++) {
+                long above = rows[offset - wordsPerRow + i];
+                long below = rows[offset + wordsPerRow + i];
+                long word = rows[offset + i];
+                long value = erosion ? above & word & below : above | word | below;
+                if (i == 0) {
+                    // The first pixel of each row is on the border
+                    value &= ~1L;
+                }
+                target[offset + i] = i < wordsPerRow - 1 ? value : value & lastWordMask;
+            }
+        });
+        return result;
+    }
+
+}
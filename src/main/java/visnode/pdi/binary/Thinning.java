@@ -0,0 +1,215 @@
+package visnode.pdi.binary;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Zhang and Suen thinning on bit images
+ * <p>
+ * Only pixels with a background neighbour can be removed, so each
+ * sub-iteration only tests a frontier of candidates instead of scanning the
+ * whole image. The frontier starts as the border of the objects and, after
+ * each sub-iteration, gets the neighbours of the removed pixels, since the
+ * test of a pixel only changes when its neighbourhood changes. There is a
+ * frontier for each sub-iteration, because a pixel that fails one test may
+ * pass the other one.
+ * <p>
+ * The candidates are tested in parallel strips of rows against the image of
+ * the previous sub-iteration. The removals are then applied by the even
+ * strips and afterwards by the odd ones, so strips never write the same
+ * rows. Pixels outside the image are background.
+ */
+public class Thinning {
+
+    /** Number of rows per strip, at least two */
+    private static final int STRIP_HEIGHT = 64;
+    /** Initial capacity of the list of removals of a strip */
+    private static final int INITIAL_REMOVALS = 256;
+
+    /**
+     * Thins the image to a skeleton with the Zhang and Suen algorithm
+     *
+     * @param image
+     * @return BitImage
+     */
+    public static BitImage zhangSuen(BitImage image) {
+        BitImage skeleton = image.copy();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width == 0 || height == 0) {
+            return skeleton;
+        }
+        BitImage[] frontiers = {border(skeleton), null};
+        frontiers[1] = frontiers[0].copy();
+        int strips = (height + STRIP_HEIGHT - 1) / STRIP_HEIGHT;
+        int[][] removals = new int[strips][];
+        int[] counts = new int[strips];
+        int step = 0;
+        int idle = 0;
+        while (idle < 2) {
+            BitImage frontier = frontiers[step];
+            boolean first = step == 0;
+            IntStream.range(0, strips).parallel().forEach((strip) -> {
+                removals[strip] = test(skeleton, frontier, strip, first, removals[strip]);
+                counts[strip] = removals[strip][0] - 1;
+            });
+            if (Arrays.stream(counts).sum() == 0) {
+                idle++;
+            } else {
+                idle = 0;
+                for (int parity = 0; parity < 2; parity++) {
+                    int offset = parity;
+                    IntStream.range(0, (strips - parity + 1) / 2).parallel().map((i) -> 2 * i + offset).forEach((strip) -> {
+                        remove(skeleton, frontiers, removals[strip]);
+                    });
+                }
+            }
+            step = 1 - step;
+        }
+        return skeleton;
+    }
+
+    /**
+     * Returns the set pixels with at least one background neighbour
+     *
+     * @param image
+     * @return BitImage
+     */
+    private static BitImage border(BitImage image) {
+        int height = image.getHeight();
+        int wordsPerRow = image.getWordsPerRow();
+        long[] words = image.getWords();
+        long[] rows = new long[words.length];
+        IntStream.range(0, height).parallel().forEach((y) -> {
+            int start = y * wordsPerRow;
+            for (int word = 0; word < wordsPerRow; word++) {
+                long value = words[start + word];
+                long before = word > 0 ? words[start + word - 1] >>> 63 : 0;
+                long after = word < wordsPerRow - 1 ? words[start + word + 1] << 63 : 0;
+                rows[start + word] = value & ((value << 1) | before) & ((value >>> 1) | after);
+            }
+        });
+        BitImage border = new BitImage(image);
+        long[] target = border.getWords();
+        IntStream.range(0, height).parallel().forEach((y) -> {
+            int start = y * wordsPerRow;
+            for (int word = 0; word < wordsPerRow; word++) {
+                long interior = rows[start + word];
+                interior &= y > 0 ? rows[start - wordsPerRow + word] : 0;
+                interior &= y < height - 1 ? rows[start + wordsPerRow + word] : 0;
+                target[start + word] = words[start + word] & ~interior;
+            }
+        });
+        return border;
+    }
+
+    /**
+     * Tests the candidates of the frontier in a strip, clearing them from the
+     * frontier
+     *
+     * @param image
+     * @param frontier
+     * @param strip
+     * @param first
+     * @param removals List to reuse, with the size at the first position
+     * @return {@code int[]} The removals, with the size at the first position
+     */
+    private static int[] test(BitImage image, BitImage frontier, int strip, boolean first, int[] removals) {
+        int[] result = removals != null ? removals : new int[INITIAL_REMOVALS];
+        int size = 1;
+        int wordsPerRow = frontier.getWordsPerRow();
+        long[] words = frontier.getWords();
+        int last = Math.min(image.getHeight(), (strip + 1) * STRIP_HEIGHT);
+        for (int y = strip * STRIP_HEIGHT; y < last; y++) {
+            for (int word = 0; word < wordsPerRow; word++) {
+                long candidates = words[y * wordsPerRow + word];
+                words[y * wordsPerRow + word] = 0;
+                while (candidates != 0) {
+                    int x = (word << 6) + Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+                    if (image.get(x, y) && removable(image, x, y, first)) {
+                        if (size + 2 > result.length) {
+                            result = Arrays.copyOf(result, result.length * 2);
+                        }
+                        result[size++] = x;
+                        result[size++] = y;
+                    }
+                }
+            }
+        }
+        result[0] = size;
+        return result;
+    }
+
+    /**
+     * Removes the pixels, adding their set neighbours to both frontiers
+     *
+     * @param image
+     * @param frontiers
+     * @param removals The removals, with the size at the first position
+     */
+    private static void remove(BitImage image, BitImage[] frontiers, int[] removals) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        for (int i = 1; i < removals[0]; i += 2) {
+            int x = removals[i];
+            int y = removals[i + 1];
+            image.set(x, y, false);
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+                for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+                    frontiers[0].set(nx, ny, true);
+                    frontiers[1].set(nx, ny, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the pixel can be removed in the sub-iteration
+     *
+     * @param image
+     * @param x
+     * @param y
+     * @param first
+     * @return boolean
+     */
+    private static boolean removable(BitImage image, int x, int y, boolean first) {
+        int p2 = pixel(image, x, y - 1);
+        int p3 = pixel(image, x + 1, y - 1);
+        int p4 = pixel(image, x + 1, y);
+        int p5 = pixel(image, x + 1, y + 1);
+        int p6 = pixel(image, x, y + 1);
+        int p7 = pixel(image, x - 1, y + 1);
+        int p8 = pixel(image, x - 1, y);
+        int p9 = pixel(image, x - 1, y - 1);
+        int neighbours = p2 + p3 + p4 + p5 + p6 + p7 + p8 + p9;
+        if (neighbours < 2 || neighbours > 6) {
+            return false;
+        }
+        int transitions = (p2 < p3 ? 1 : 0) + (p3 < p4 ? 1 : 0) + (p4 < p5 ? 1 : 0) + (p5 < p6 ? 1 : 0)
+                + (p6 < p7 ? 1 : 0) + (p7 < p8 ? 1 : 0) + (p8 < p9 ? 1 : 0) + (p9 < p2 ? 1 : 0);
+        if (transitions != 1) {
+            return false;
+        }
+        if (first) {
+            return p2 * p4 * p6 == 0 && p4 * p6 * p8 == 0;
+        }
+        return p2 * p4 * p8 == 0 && p2 * p6 * p8 == 0;
+    }
+
+    /**
+     * Returns 1 if the pixel is set, or 0 if it isn't or is outside the image
+     *
+     * @param image
+     * @param x
+     * @param y
+     * @return int
+     */
+    private static int pixel(BitImage image, int x, int y) {
+        if (x < 0 || y < 0 || x >= image.getWidth() || y >= image.getHeight()) {
+            return 0;
+        }
+        return image.get(x, y) ? 1 : 0;
+    }
+
+}
@@ -0,0 +1,99 @@
+package visnode.pdi.contour;
+
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+import visnode.pdi.edge.Canny;
+import visnode.pdi.edge.EdgeOperator;
+import visnode.pdi.edge.Gradient;
+import visnode.pdi.edge.GradientEngine;
+
+/**
+ * External energy of an image for active contours
+ * <p>
+ * The energy is computed once per image from the Sobel gradient of the
+ * smoothed image, taking the strongest channel of each pixel. It goes from 0
+ * on the strongest edge of the image to 1 where there is no gradient, so
+ * contours minimizing it are attracted to the edges.
+ */
+public class EnergyField {
+
+    /** Width */
+    private final int width;
+    /** Height */
+    private final int height;
+    /** Energy, at the index {@code x * height + y} */
+    private final float[] values;
+
+    /**
+     * Creates a new energy field
+     *
+     * @param width
+     * @param height
+     * @param values Energy, at the index {@code x * height + y}
+     */
+    public EnergyField(int width, int height, float[] values) {
+        this.width = width;
+        this.height = height;
+        this.values = values;
+    }
+
+    /**
+     * Computes the energy field of an image
+     *
+     * @param image
+     * @param sigma Standard deviation of the smoothing, none if zero
+     * @return EnergyField
+     */
+    public static EnergyField fromImage(Image image, double sigma) {
+        Gradient gradient = GradientEngine.compute(Canny.smooth(image, sigma), EdgeOperator.SOBEL);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        float[] values = new float[width * height];
+        float highest = (float) IntStream.range(0, width).parallel().mapToDouble((x) -> {
+            float columnHighest = 0;
+            for (int index = x * height; index < (x + 1) * height; index++) {
+                for (int channel = 0; channel < gradient.getChannelCount(); channel++) {
+                    values[index] = Math.max(values[index], gradient.getMagnitudes(channel)[index]);
+                }
+                columnHighest = Math.max(columnHighest, values[index]);
+            }
+            return columnHighest;
+        }).max().orElse(0);
+        IntStream.range(0, width).parallel().forEach((x) -> {
+            for (int index = x * height; index < (x + 1) * height; index++) {
+                values[index] = highest == 0 ? 1 : 1 - values[index] / highest;
+            }
+        });
+        return new EnergyField(width, height, values);
+    }
+
+    /**
+     * Returns the energy of a pixel
+     *
+     * @param x
+     * @param y
+     * @return float
+     */
+    public float get(int x, int y) {
+        return values[x * height + y];
+    }
+
+    /**
+     * Returns the width
+     *
+     * @return int
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height
+     *
+     * @return int
+     */
+    public int getHeight() {
+        return height;
+    }
+
+}
@@ -0,0 +1,302 @@
+package visnode.pdi.contour;
+
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+
+/**
+ * Greedy active contour (snake)
+ * <p>
+ * On each iteration, every point of the contour moves to the position of its
+ * 3 x 3 neighbourhood with the lowest energy. The internal energy combines the
+ * distance to the neighbouring points (alpha), which shrinks the contour, and
+ * its curvature (beta), both normalized in the neighbourhood, and a pressure
+ * along the normal of the contour, which moves it inwards through the regions
+ * without edges. The external energy (gamma) is read from a field computed
+ * once per image.
+ * <p>
+ * The even points are updated in parallel while the odd ones are fixed, and
+ * then the odd ones, so the result doesn't depend on the number of threads.
+ * The snake stops when no point moves, or after the maximum number of
+ * iterations.
+ */
+public class Snake {
+
+    /** Distance between the points of the initial contour */
+    private static final int SPACING = 4;
+    /** Distance between the initial contour and the border of the image */
+    private static final int MARGIN = 2;
+
+    /** Weight of the continuity */
+    private final double alpha;
+    /** Weight of the curvature */
+    private final double beta;
+    /** Weight of the external energy */
+    private final double gamma;
+    /** Weight of the pressure, inwards if positive */
+    private final double pressure;
+    /** Maximum number of iterations */
+    private final int maxIterations;
+
+    /**
+     * Creates a new snake
+     *
+     * @param alpha Weight of the continuity
+     * @param beta Weight of the curvature
+     * @param gamma Weight of the external energy
+     * @param pressure Weight of the pressure, inwards if positive
+     * @param maxIterations
+     */
+    public Snake(double alpha, double beta, double gamma, double pressure, int maxIterations) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.pressure = pressure;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Builds the initial contour, a clockwise rectangle close to the border of
+     * the image with an even number of points
+     *
+     * @param width
+     * @param height
+     * @return {@code int[][]} The x and the y coordinates
+     */
+    public static int[][] initialContour(int width, int height) {
+        int horizontal = width - 1 - 2 * MARGIN;
+        int vertical = height - 1 - 2 * MARGIN;
+        if (horizontal <= 0 || vertical <= 0) {
+            return new int[2][0];
+        }
+        int perimeter = 2 * (horizontal + vertical);
+        int count = Math.max(4, perimeter / SPACING / 2 * 2);
+        int[][] contour = new int[2][count];
+        for (int i = 0; i < count; i++) {
+            int distance = (int) ((long) i * perimeter / count);
+            int x;
+            int y;
+            if (distance < horizontal) {
+                x = distance;
+                y = 0;
+            } else if (distance < horizontal + vertical) {
+                x = horizontal;
+                y = distance - horizontal;
+            } else if (distance < 2 * horizontal + vertical) {
+                x = 2 * horizontal + vertical - distance;
+                y = vertical;
+            } else {
+                x = 0;
+                y = perimeter - distance;
+            }
+            contour[0][i] = MARGIN + x;
+            contour[1][i] = MARGIN + y;
+        }
+        return contour;
+    }
+
+    /**
+     * Evolves the contour over the energy field
+     *
+     * @param field
+     * @param xs
+     * @param ys
+     * @return Result
+     */
+    public Result evolve(EnergyField field, int[] xs, int[] ys) {
+        long start = System.nanoTime();
+        int[] x = xs.clone();
+        int[] y = ys.clone();
+        int count = x.length;
+        int iterations = 0;
+        boolean converged = count < 3;
+        while (!converged && iterations < maxIterations) {
+            iterations++;
+            int moved = 0;
+            for (int parity = 0; parity < 2; parity++) {
+                int first = parity;
+                moved += IntStream.range(0, count / 2).parallel().map((i) -> move(field, x, y, 2 * i + first) ? 1 : 0).sum();
+            }
+            if (count % 2 == 1 && move(field, x, y, count - 1)) {
+                moved++;
+            }
+            converged = moved == 0;
+        }
+        return new Result(x, y, iterations, converged, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Moves a point to the position of its neighbourhood with the lowest
+     * energy
+     *
+     * @param field
+     * @param x
+     * @param y
+     * @param point
+     * @return boolean True if the point moved
+     */
+    private boolean move(EnergyField field, int[] x, int[] y, int point) {
+        int count = x.length;
+        int previous = (point + count - 1) % count;
+        int next = (point + 1) % count;
+        double[] continuity = new double[9];
+        double[] curvature = new double[9];
+        double highestContinuity = 0;
+        double highestCurvature = 0;
+        for (int i = 0; i < 9; i++) {
+            int cx = x[point] + i / 3 - 1;
+            int cy = y[point] + i % 3 - 1;
+            continuity[i] = square(cx - x[previous]) + square(cy - y[previous]) + square(x[next] - cx) + square(y[next] - cy);
+            curvature[i] = square(x[previous] - 2 * cx + x[next]) + square(y[previous] - 2 * cy + y[next]);
+            highestContinuity = Math.max(highestContinuity, continuity[i]);
+            highestCurvature = Math.max(highestCurvature, curvature[i]);
+        }
+        double normalX = y[previous] - y[next];
+        double normalY = x[next] - x[previous];
+        double normalLength = Math.hypot(normalX, normalY);
+        int best = 4;
+        double lowest = Double.MAX_VALUE;
+        for (int i : new int[] {4, 0, 1, 2, 3, 5, 6, 7, 8}) {
+            int cx = x[point] + i / 3 - 1;
+            int cy = y[point] + i % 3 - 1;
+            if (cx < 0 || cy < 0 || cx >= field.getWidth() || cy >= field.getHeight()) {
+                continue;
+            }
+            double energy = gamma * field.get(cx, cy);
+            if (highestContinuity > 0) {
+                energy += alpha * continuity[i] / highestContinuity;
+            }
+            if (highestCurvature > 0) {
+                energy += beta * curvature[i] / highestCurvature;
+            }
+            if (normalLength > 0) {
+                energy -= pressure * ((i / 3 - 1) * normalX + (i % 3 - 1) * normalY) / normalLength / 2;
+            }
+            if (energy < lowest) {
+                lowest = energy;
+                best = i;
+            }
+        }
+        if (best == 4) {
+            return false;
+        }
+        x[point] += best / 3 - 1;
+        y[point] += best % 3 - 1;
+        return true;
+    }
+
+    /**
+     * Returns the square of a value
+     *
+     * @param value
+     * @return double
+     */
+    private static double square(int value) {
+        return (double) value * value;
+    }
+
+    /**
+     * Contour found by a snake
+     */
+    public static class Result {
+
+        /** X coordinates of the points */
+        private final int[] xs;
+        /** Y coordinates of the points */
+        private final int[] ys;
+        /** Number of iterations */
+        private final int iterations;
+        /** If the snake converged before the maximum number of iterations */
+        private final boolean converged;
+        /** Time until the convergence, in milliseconds */
+        private final double time;
+
+        /**
+         * Creates a new result
+         *
+         * @param xs
+         * @param ys
+         * @param iterations
+         * @param converged
+         * @param time
+         */
+        public Result(int[] xs, int[] ys, int iterations, boolean converged, double time) {
+            this.xs = xs;
+            this.ys = ys;
+            this.iterations = iterations;
+            this.converged = converged;
+            this.time = time;
+        }
+
+        /**
+         * Draws the contour over a copy of the image, with the highest value
+         * of the image
+         *
+         * @param image
+         * @return Image
+         */
+        public Image toImage(Image image) {
+            Image result = new Image(image);
+            int value = image.getPixelValueRange().getHigher();
+            for (int i = 0; i < xs.length; i++) {
+                int next = (i + 1) % xs.length;
+                int steps = Math.max(Math.abs(xs[next] - xs[i]), Math.abs(ys[next] - ys[i]));
+                for (int step = 0; step <= steps; step++) {
+                    int x = steps == 0 ? xs[i] : xs[i] + Math.round((float) (xs[next] - xs[i]) * step / steps);
+                    int y = steps == 0 ? ys[i] : ys[i] + Math.round((float) (ys[next] - ys[i]) * step / steps);
+                    for (int channel = 0; channel < image.getChannelCount(); channel++) {
+                        result.getData()[channel][x][y] = value;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the x coordinates of the points
+         *
+         * @return {@code int[]}
+         */
+        public int[] getXs() {
+            return xs;
+        }
+
+        /**
+         * Returns the y coordinates of the points
+         *
+         * @return {@code int[]}
+         */
+        public int[] getYs() {
+            return ys;
+        }
+
+        /**
+         * Returns the number of iterations
+         *
+         * @return int
+         */
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * Returns true if the snake converged before the maximum number of
+         * iterations
+         *
+         * @return boolean
+         */
+        public boolean isConverged() {
+            return converged;
+        }
+
+        /**
+         * Returns the time until the convergence, in milliseconds
+         *
+         * @return double
+         */
+        public double getTime() {
+            return time;
+        }
+
+    }
+
+}
@@ -0,0 +1,201 @@
+package visnode.pdi.convolution;
+
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+
+/**
+ * Convolution engine
+ * <p>
+ * Separable kernels are applied as a horizontal pass followed by a vertical
+ * pass, so the cost grows with the kernel size instead of its area. Other
+ * kernels are applied directly. The image is split in tiles of columns,
+ * processed in parallel, and the inner loops walk the columns of the image
+ * data sequentially. Pixels outside the image are read from the nearest
+ * border, and the results are rounded and limited to the pixel value range.
+ */
+public class Convolution {
+
+    /** Number of columns per tile */
+    private static final int TILE_WIDTH = 32;
+
+    /**
+     * Convolves the image with the kernel
+     *
+     * @param image
+     * @param kernel
+     * @return Image
+     */
+    public static Image apply(Image image, Kernel kernel) {
+        Image result = ImageFactory.buildEmptyImage(image);
+        if (kernel.getWidth() == 0 || kernel.getHeight() == 0) {
+            return result;
+        }
+        int width = image.getWidth();
+        int tiles = (width + TILE_WIDTH - 1) / TILE_WIDTH;
+        if (kernel.isSeparable()) {
+            double[][][] buffer = new double[image.getChannelCount()][width][];
+            IntStream.range(0, image.getChannelCount() * tiles).parallel().forEach((task) -> {
+                horizontalPass(image, kernel.getHorizontal(), buffer[task / tiles], task / tiles, task % tiles);
+            });
+            IntStream.range(0, image.getChannelCount() * tiles).parallel().forEach((task) -> {
+                verticalPass(image, kernel.getVertical(), buffer[task / tiles], result, task / tiles, task % tiles);
+            });
+        } else {
+            IntStream.range(0, image.getChannelCount() * tiles).parallel().forEach((task) -> {
+                directPass(image, kernel.getWeights(), result, task / tiles, task % tiles);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Replaces each pixel by the mean of the square window around it, in
+     * constant time per pixel regardless of the size, using an integral image.
+     * The result is the same as a convolution with {@link Kernel#average(int)}.
+     * Sizes lower than 1 return the image itself
+     *
+     * @param image
+     * @param size
+     * @return Image
+     */
+    public static Image boxMean(Image image, int size) {
+        if (size <= 0) {
+            return image;
+        }
+        Image result = ImageFactory.buildEmptyImage(image);
+        IntegralImage integral = new IntegralImage(image);
+        int height = image.getHeight();
+        int lower = image.getPixelValueRange().getLower();
+        int higher = image.getPixelValueRange().getHigher();
+        int before = size / 2;
+        int after = size - 1 - before;
+        IntStream.range(0, image.getChannelCount() * image.getWidth()).parallel().forEach((task) -> {
+            int channel = task / image.getWidth();
+            int x = task % image.getWidth();
+            int[] target = result.getData()[channel][x];
+            for (int y = 0; y < height; y++) {
+                target[y] = limit(integral.mean(channel, x - before, y - before, x + after, y + after), lower, higher);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Applies the horizontal weights to a tile of a channel
+     *
+     * @param image
+     * @param weights
+     * @param buffer
+     * @param channel
+     * @param tile
+     */
+    private static void horizontalPass(Image image, double[] weights, double[][] buffer, int channel, int tile) {
+        int[][] data = image.getData()[channel];
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int center = weights.length / 2;
+        for (int x = tile * TILE_WIDTH; x < Math.min(width, (tile + 1) * TILE_WIDTH); x++) {
+            double[] sum = new double[height];
+            for (int i = 0; i < weights.length; i++) {
+                double weight = weights[i];
+                if (weight == 0) {
+                    continue;
+                }
+                int[] column = data[Math.max(0, Math.min(width - 1, x + i - center))];
+                for (int y = 0; y < height; y++) {
+                    sum[y] += weight * column[y];
+                }
+            }
+            buffer[x] = sum;
+        }
+    }
+
+    /**
+     * Applies the vertical weights to a tile of a channel
+     *
+     * @param image
+     * @param weights
+     * @param buffer
+     * @param result
+     * @param channel
+     * @param tile
+     */
+    private static void verticalPass(Image image, double[] weights, double[][] buffer, Image result, int channel, int tile) {
+        int[][] output = result.getData()[channel];
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int lower = image.getPixelValueRange().getLower();
+        int higher = image.getPixelValueRange().getHigher();
+        int center = weights.length / 2;
+        for (int x = tile * TILE_WIDTH; x < Math.min(width, (tile + 1) * TILE_WIDTH); x++) {
+            double[] column = buffer[x];
+            int[] target = output[x];
+            for (int y = 0; y < height; y++) {
+                double sum = 0;
+                int first = y - center;
+                if (first >= 0 && first + weights.length <= height) {
+                    for (int j = 0; j < weights.length; j++) {
+                        sum += weights[j] * column[first + j];
+                    }
+                } else {
+                    for (int j = 0; j < weights.length; j++) {
+                        sum += weights[j] * column[Math.max(0, Math.min(height - 1, first + j))];
+                    }
+                }
+                target[y] = limit(sum, lower, higher);
+            }
+        }
+    }
+
+    /**
+     * Applies the weights of a non-separable kernel to a tile of a channel
+     *
+     * @param image
+     * @param weights
+     * @param result
+     * @param channel
+     * @param tile
+     */
+    private static void directPass(Image image, double[][] weights, Image result, int channel, int tile) {
+        int[][] data = image.getData()[channel];
+        int[][] output = result.getData()[channel];
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int lower = image.getPixelValueRange().getLower();
+        int higher = image.getPixelValueRange().getHigher();
+        int centerX = weights.length / 2;
+        int centerY = weights[0].length / 2;
+        for (int x = tile * TILE_WIDTH; x < Math.min(width, (tile + 1) * TILE_WIDTH); x++) {
+            double[] sum = new double[height];
+            for (int i = 0; i < weights.length; i++) {
+                int[] column = data[Math.max(0, Math.min(width - 1, x + i - centerX))];
+                for (int j = 0; j < weights[i].length; j++) {
+                    double weight = weights[i][j];
+                    if (weight == 0) {
+                        continue;
+                    }
+                    for (int y = 0; y < height; y++) {
+                        sum[y] += weight * column[Math.max(0, Math.min(height - 1, y + j - centerY))];
+                    }
+                }
+            }
+            for (int y = 0; y < height; y++) {
+                output[x][y] = limit(sum[y], lower, higher);
+            }
+        }
+    }
+
+    /**
+     * Rounds the value and limits it to the pixel value range
+     *
+     * @param value
+     * @param lower
+     * @param higher
+     * @return int
+     */
+    private static int limit(double value, int lower, int higher) {
+        return (int) Math.max(lower, Math.min(higher, Math.round(value)));
+    }
+
+}
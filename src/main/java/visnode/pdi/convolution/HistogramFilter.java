@@ -0,0 +1,346 @@
+package visnode.pdi.convolution;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+
+/**
+ * Median and mode filters based on sliding histograms
+ * <p>
+ * Follows Perreault and Hebert: a histogram is kept for each row of the
+ * window, and moving the window one column only adds one pixel to and
+ * removes one pixel from each of them. Moving the window down the column
+ * adds the histogram of the entering row and subtracts the one of the
+ * leaving row. The cost per pixel depends on the number of histogram bins,
+ * not on the size of the window. For the median, the histograms also have
+ * coarse bins of {@value #SEGMENT} values and the fine bins of the window are
+ * only brought up to date in the segment holding the median.
+ * <p>
+ * The image is split in vertical strips processed in parallel. Pixels
+ * outside the image are read from the nearest border. The histograms are
+ * only used for images whose pixel value range has up to {@value #MAX_BINS}
+ * values. Other images are filtered by sorting each window, in parallel over
+ * the columns, which is slower but gives the same results.
+ */
+public class HistogramFilter {
+
+    /** Maximum number of histogram bins */
+    public static final int MAX_BINS = 256;
+    /** Number of fine bins per coarse bin */
+    private static final int SEGMENT = 16;
+    /** Number of columns per strip */
+    private static final int STRIP_WIDTH = 64;
+
+    /**
+     * Returns true if the image is filtered with the sliding histograms
+     *
+     * @param image
+     * @return boolean
+     */
+    public static boolean supports(Image image) {
+        return image.getPixelValueRange().getHigher() - image.getPixelValueRange().getLower() < MAX_BINS;
+    }
+
+    /**
+     * Replaces each pixel by the median of the square window around it. For
+     * windows with an even number of pixels, the lower median is used
+     *
+     * @param image
+     * @param size
+     * @return Image
+     */
+    public static Image median(Image image, int size) {
+        return apply(image, size, true);
+    }
+
+    /**
+     * Replaces each pixel by the most frequent value of the square window
+     * around it, the lowest one on ties. Pixels whose window has no repeated
+     * value are kept
+     *
+     * @param image
+     * @param size
+     * @return Image
+     */
+    public static Image mode(Image image, int size) {
+        return apply(image, size, false);
+    }
+
+    /**
+     * Applies the median or the mode filter
+     *
+     * @param image
+     * @param size
+     * @param median
+     * @return Image
+     */
+    private static Image apply(Image image, int size, boolean median) {
+        Image result = ImageFactory.buildEmptyImage(image);
+        if (size <= 0 || image.getWidth() == 0 || image.getHeight() == 0) {
+            return result;
+        }
+        if (!supports(image)) {
+            IntStream.range(0, image.getChannelCount() * image.getWidth()).parallel().forEach((task) -> {
+                sortColumn(image, result, size, task / image.getWidth(), task % image.getWidth(), median);
+            });
+            return result;
+        }
+        int strips = (image.getWidth() + STRIP_WIDTH - 1) / STRIP_WIDTH;
+        IntStream.range(0, image.getChannelCount() * strips).parallel().forEach((task) -> {
+            new Strip(image, result, size, task / strips, task % strips).process(median);
+        });
+        return result;
+    }
+
+    /**
+     * Applies the median or the mode filter to a column of a channel by
+     * sorting each window
+     *
+     * @param image
+     * @param result
+     * @param size
+     * @param channel
+     * @param x
+     * @param median
+     */
+    private static void sortColumn(Image image, Image result, int size, int channel, int x, boolean median) {
+        int[][] data = image.getData()[channel];
+        int[] output = result.getData()[channel][x];
+        int before = size / 2;
+        int[] window = new int[size * size];
+        for (int y = 0; y < output.length; y++) {
+            int index = 0;
+            for (int i = -before; i < size - before; i++) {
+                int[] column = data[Strip.clamp(x + i, image.getWidth())];
+                for (int j = -before; j < size - before; j++) {
+                    window[index++] = column[Strip.clamp(y + j, image.getHeight())];
+                }
+            }
+            Arrays.sort(window);
+            if (median) {
+                output[y] = window[(window.length - 1) / 2];
+                continue;
+            }
+            int mode = 0;
+            int modeCount = 1;
+            int count = 1;
+            for (int i = 1; i < window.length; i++) {
+                count = window[i] == window[i - 1] ? count + 1 : 1;
+                if (count > modeCount) {
+                    mode = i;
+                    modeCount = count;
+                }
+            }
+            output[y] = modeCount > 1 ? window[mode] : data[x][y];
+        }
+    }
+
+    /**
+     * Vertical strip of a channel, processed by a single thread
+     */
+    private static class Strip {
+
+        /** Source channel */
+        private final int[][] data;
+        /** Target channel */
+        private final int[][] output;
+        /** Width */
+        private final int width;
+        /** Height */
+        private final int height;
+        /** Lower pixel value */
+        private final int lower;
+        /** Number of fine bins */
+        private final int bins;
+        /** Number of coarse bins */
+        private final int coarseBins;
+        /** Pixels of the window before the center */
+        private final int before;
+        /** Pixels of the window after the center */
+        private final int after;
+        /** First column */
+        private final int first;
+        /** Last column, exclusive */
+        private final int last;
+        /** Fine histograms of the rows of the window */
+        private final int[] rows;
+        /** Coarse histograms of the rows of the window */
+        private final int[] coarseRows;
+
+        /**
+         * Creates a new strip
+         *
+         * @param image
+         * @param result
+         * @param size
+         * @param channel
+         * @param strip
+         */
+        public Strip(Image image, Image result, int size, int channel, int strip) {
+            this.data = image.getData()[channel];
+            this.output = result.getData()[channel];
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            this.lower = image.getPixelValueRange().getLower();
+            int range = image.getPixelValueRange().getHigher() - lower + 1;
+            this.coarseBins = (range + SEGMENT - 1) / SEGMENT;
+            this.bins = coarseBins * SEGMENT;
+            this.before = size / 2;
+            this.after = size - 1 - before;
+            this.first = strip * STRIP_WIDTH;
+            this.last = Math.min(width, first + STRIP_WIDTH);
+            this.rows = new int[height * bins];
+            this.coarseRows = new int[height * coarseBins];
+        }
+
+        /**
+         * Processes the strip
+         *
+         * @param median
+         */
+        public void process(boolean median) {
+            for (int i = -before; i <= after; i++) {
+                addColumn(first + i, 1);
+            }
+            for (int x = first; x < last; x++) {
+                if (x > first) {
+                    addColumn(x - before - 1, -1);
+                    addColumn(x + after, 1);
+                }
+                if (median) {
+                    medianColumn(x);
+                } else {
+                    modeColumn(x);
+                }
+            }
+        }
+
+        /**
+         * Adds or removes a column of the image to the row histograms
+         *
+         * @param x
+         * @param count
+         */
+        private void addColumn(int x, int count) {
+            int[] column = data[clamp(x, width)];
+            for (int y = 0; y < height; y++) {
+                int bin = bin(column[y]);
+                rows[y * bins + bin] += count;
+                coarseRows[y * coarseBins + bin / SEGMENT] += count;
+            }
+        }
+
+        /**
+         * Computes the median of the windows centered on a column
+         *
+         * @param x
+         */
+        private void medianColumn(int x) {
+            int[] coarse = new int[coarseBins];
+            int[] fine = new int[bins];
+            int windowHeight = before + after + 1;
+            int[] updated = new int[coarseBins];
+            Arrays.fill(updated, -windowHeight - 1);
+            int rank = (windowHeight * windowHeight - 1) / 2;
+            for (int j = -before; j <= after; j++) {
+                add(coarseRows, clamp(j, height) * coarseBins, coarse, 0, coarseBins, 1);
+            }
+            for (int y = 0; y < height; y++) {
+                if (y > 0) {
+                    add(coarseRows, clamp(y + after, height) * coarseBins, coarse, 0, coarseBins, 1);
+                    add(coarseRows, clamp(y - before - 1, height) * coarseBins, coarse, 0, coarseBins, -1);
+                }
+                int segment = 0;
+                int count = 0;
+                while (count + coarse[segment] <= rank) {
+                    count += coarse[segment];
+                    segment++;
+                }
+                int start = segment * SEGMENT;
+                if (y - updated[segment] > windowHeight) {
+                    Arrays.fill(fine, start, start + SEGMENT, 0);
+                    for (int j = -before; j <= after; j++) {
+                        add(rows, clamp(y + j, height) * bins + start, fine, start, SEGMENT, 1);
+                    }
+                } else {
+                    for (int t = updated[segment] + 1; t <= y; t++) {
+                        add(rows, clamp(t + after, height) * bins + start, fine, start, SEGMENT, 1);
+                        add(rows, clamp(t - before - 1, height) * bins + start, fine, start, SEGMENT, -1);
+                    }
+                }
+                updated[segment] = y;
+                int bin = start;
+                while (count + fine[bin] <= rank) {
+                    count += fine[bin];
+                    bin++;
+                }
+                output[x][y] = bin + lower;
+            }
+        }
+
+        /**
+         * Computes the mode of the windows centered on a column
+         *
+         * @param x
+         */
+        private void modeColumn(int x) {
+            int[] fine = new int[bins];
+            for (int j = -before; j <= after; j++) {
+                add(rows, clamp(j, height) * bins, fine, 0, bins, 1);
+            }
+            for (int y = 0; y < height; y++) {
+                if (y > 0) {
+                    add(rows, clamp(y + after, height) * bins, fine, 0, bins, 1);
+                    add(rows, clamp(y - before - 1, height) * bins, fine, 0, bins, -1);
+                }
+                int mode = 0;
+                for (int bin = 1; bin < bins; bin++) {
+                    if (fine[bin] > fine[mode]) {
+                        mode = bin;
+                    }
+                }
+                output[x][y] = fine[mode] > 1 ? mode + lower : data[x][y];
+            }
+        }
+
+        /**
+         * Adds a histogram, or a segment of it, to another one
+         *
+         * @param source
+         * @param offset
+         * @param target
+         * @param start
+         * @param length
+         * @param count
+         */
+        private static void add(int[] source, int offset, int[] target, int start, int length, int count) {
+            for (int i = 0; i < length; i++) {
+                target[start + i] += count * source[offset + i];
+            }
+        }
+
+        /**
+         * Returns the bin of a pixel value
+         *
+         * @param value
+         * @return int
+         */
+        private int bin(int value) {
+            return Math.max(0, Math.min(bins - 1, value - lower));
+        }
+
+        /**
+         * Clamps a coordinate to the image
+         *
+         * @param value
+         * @param size
+         * @return int
+         */
+        private static int clamp(int value, int size) {
+            return Math.max(0, Math.min(size - 1, value));
+        }
+
+    }
+
+}
@@ -0,0 +1,189 @@
+package visnode.pdi.convolution;
+
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+
+/**
+ * Integral image, or summed-area table
+ * <p>
+ * Stores, for each position, the sum of the pixels above and to the left of
+ * it, so the sum over any rectangular window costs four lookups. Windows
+ * partially or completely outside the image sum like a convolution with
+ * clamped borders: the window is clamped to the image at lookup, and the
+ * border rows and columns are added once for each time they are repeated.
+ */
+public class IntegralImage {
+
+    /** Number of rows per task when summing along x */
+    private static final int ROWS_PER_TASK = 64;
+    /** Width */
+    private final int width;
+    /** Height */
+    private final int height;
+    /** Number of channels */
+    private final int channelCount;
+    /** Distance between two columns in the table */
+    private final int stride;
+    /** Sums, by channel */
+    private final long[][] sums;
+
+    /**
+     * Creates the integral image of an image
+     *
+     * @param image
+     */
+    public IntegralImage(Image image) {
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.channelCount = image.getChannelCount();
+        this.stride = height + 1;
+        this.sums = new long[channelCount][(width + 1) * stride];
+        for (int channel = 0; channel < channelCount; channel++) {
+            build(image.getData()[channel], sums[channel]);
+        }
+    }
+
+    /**
+     * Builds the table of a channel, summing first along the columns and then
+     * along the rows
+     *
+     * @param data
+     * @param table
+     */
+    private void build(int[][] data, long[] table) {
+        IntStream.range(0, width).parallel().forEach((x) -> {
+            int[] column = data[x];
+            int offset = (x + 1) * stride;
+            long sum = 0;
+            for (int y = 0; y < height; y++) {
+                sum += column[y];
+                table[offset + y + 1] = sum;
+            }
+        });
+        int tasks = (height + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        IntStream.range(0, tasks).parallel().forEach((task) -> {
+            int first = task * ROWS_PER_TASK + 1;
+            int last = Math.min(height, (task + 1) * ROWS_PER_TASK);
+            for (int x = 2; x <= width; x++) {
+                int offset = x * stride;
+                for (int y = first; y <= last; y++) {
+                    table[offset + y] += table[offset - stride + y];
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the sum of a channel over a window, with inclusive bounds. The
+     * pixels of the window outside the image are read from the nearest border
+     *
+     * @param channel
+     * @param x0
+     * @param y0
+     * @param x1
+     * @param y1
+     * @return long
+     */
+    public long sum(int channel, int x0, int y0, int x1, int y1) {
+        long[] table = sums[channel];
+        if (x0 >= 0 && y0 >= 0 && x1 < width && y1 < height) {
+            return rectangle(table, x0, y0, x1, y1);
+        }
+        if (width == 0 || height == 0 || x1 < x0 || y1 < y0) {
+            return 0;
+        }
+        int[][] columns = segments(x0, x1, width);
+        int[][] rows = segments(y0, y1, height);
+        long sum = 0;
+        for (int[] column : columns) {
+            for (int[] row : rows) {
+                if (column[2] > 0 && row[2] > 0) {
+                    sum += (long) column[2] * row[2] * rectangle(table, column[0], row[0], column[1], row[1]);
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sum of a channel over a window inside the image, with
+     * inclusive bounds
+     *
+     * @param table
+     * @param x0
+     * @param y0
+     * @param x1
+     * @param y1
+     * @return long
+     */
+    private long rectangle(long[] table, int x0, int y0, int x1, int y1) {
+        int left = x0 * stride;
+        int right = (x1 + 1) * stride;
+        return table[right + y1 + 1] - table[left + y1 + 1] - table[right + y0] + table[left + y0];
+    }
+
+    /**
+     * Splits the range of an axis in the part before the image, which
+     * repeats the first position, the part inside the image and the part
+     * after the image, which repeats the last position. Each segment is
+     * {first, last, number of times it is repeated}
+     *
+     * @param first
+     * @param last
+     * @param size
+     * @return {@code int[][]}
+     */
+    private static int[][] segments(int first, int last, int size) {
+        int before = Math.max(0, Math.min(last, -1) - first + 1);
+        int after = Math.max(0, last - Math.max(first, size) + 1);
+        int inside = Math.min(last, size - 1) >= Math.max(first, 0) ? 1 : 0;
+        return new int[][] {
+            {0, 0, before},
+            {Math.max(first, 0), Math.min(last, size - 1), inside},
+            {size - 1, size - 1, after}
+        };
+    }
+
+    /**
+     * Returns the mean of a channel over a window, with inclusive bounds. The
+     * pixels of the window outside the image are read from the nearest border
+     *
+     * @param channel
+     * @param x0
+     * @param y0
+     * @param x1
+     * @param y1
+     * @return double
+     */
+    public double mean(int channel, int x0, int y0, int x1, int y1) {
+        return (double) sum(channel, x0, y0, x1, y1) / ((long) (x1 - x0 + 1) * (y1 - y0 + 1));
+    }
+
+    /**
+     * Returns the width of the image
+     *
+     * @return int
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the image
+     *
+     * @return int
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of channels
+     *
+     * @return int
+     */
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+}
@@ -0,0 +1,203 @@
+package visnode.pdi.convolution;
+
+import java.util.Arrays;
+
+/**
+ * Convolution kernel
+ * <p>
+ * The weights are indexed as {@code [x][y]} like the image data, with the
+ * center at {@code [width / 2][height / 2]}. A kernel is separable when its
+ * weights are the outer product of a horizontal and a vertical vector, in
+ * which case it can be applied as two one-dimensional passes.
+ */
+public class Kernel {
+
+    /** Tolerance used when detecting separable kernels */
+    private static final double SEPARABLE_TOLERANCE = 1e-9;
+    /** Weights */
+    private final double[][] weights;
+    /** Horizontal weights, if the kernel is separable */
+    private final double[] horizontal;
+    /** Vertical weights, if the kernel is separable */
+    private final double[] vertical;
+
+    /**
+     * Creates a new kernel. The weights are normalized so they sum 1, unless
+     * they sum 0
+     *
+     * @param weights
+     */
+    public Kernel(double[][] weights) {
+        this.weights = normalize(weights);
+        double[][] factors = separate(this.weights);
+        this.horizontal = factors == null ? null : factors[0];
+        this.vertical = factors == null ? null : factors[1];
+    }
+
+    /**
+     * Creates a square gaussian kernel. A sigma that is not positive gives the
+     * identity, the limit of the gaussian as sigma goes to 0
+     *
+     * @param sigma
+     * @param size
+     * @return Kernel
+     */
+    public static Kernel gaussian(double sigma, int size) {
+        double[][] weights = new double[size][size];
+        int center = size / 2;
+        if (!(sigma > 0)) {
+            if (size > 0) {
+                weights[center][center] = 1;
+            }
+            return new Kernel(weights);
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int dx = i - center;
+                int dy = j - center;
+                weights[i][j] = Math.exp(-(dx * dx + dy * dy) / (2 * sigma * sigma));
+            }
+        }
+        return new Kernel(weights);
+    }
+
+    /**
+     * Creates a square averaging kernel
+     *
+     * @param size
+     * @return Kernel
+     */
+    public static Kernel average(int size) {
+        double[][] weights = new double[size][size];
+        for (double[] column : weights) {
+            Arrays.fill(column, 1);
+        }
+        return new Kernel(weights);
+    }
+
+    /**
+     * Normalizes the weights so they sum 1
+     *
+     * @param weights
+     * @return double[][]
+     */
+    private static double[][] normalize(double[][] weights) {
+        double sum = 0;
+        for (double[] column : weights) {
+            for (double weight : column) {
+                sum += weight;
+            }
+        }
+        double[][] normalized = new double[weights.length][];
+        for (int i = 0; i < weights.length; i++) {
+            normalized[i] = weights[i].clone();
+            if (sum != 0) {
+                for (int j = 0; j < normalized[i].length; j++) {
+                    normalized[i][j] /= sum;
+                }
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Decomposes the weights in a horizontal and a vertical vector, or returns
+     * null if the kernel is not separable
+     *
+     * @param weights
+     * @return double[][]
+     */
+    private static double[][] separate(double[][] weights) {
+        if (weights.length == 0) {
+            return null;
+        }
+        int pivotX = 0;
+        int pivotY = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i].length != weights[0].length) {
+                return null;
+            }
+            for (int j = 0; j < weights[i].length; j++) {
+                if (Math.abs(weights[i][j]) > Math.abs(weights[pivotX][pivotY])) {
+                    pivotX = i;
+                    pivotY = j;
+                }
+            }
+        }
+        double pivot = weights[pivotX][pivotY];
+        if (pivot == 0) {
+            return null;
+        }
+        double[] horizontal = new double[weights.length];
+        double[] vertical = new double[weights[0].length];
+        for (int i = 0; i < horizontal.length; i++) {
+            horizontal[i] = weights[i][pivotY] / pivot;
+        }
+        for (int j = 0; j < vertical.length; j++) {
+            vertical[j] = weights[pivotX][j];
+        }
+        for (int i = 0; i < horizontal.length; i++) {
+            for (int j = 0; j < vertical.length; j++) {
+                if (Math.abs(horizontal[i] * vertical[j] - weights[i][j]) > SEPARABLE_TOLERANCE) {
+                    return null;
+                }
+            }
+        }
+        return new double[][] {horizontal, vertical};
+    }
+
+    /**
+     * Returns true if the kernel is separable
+     *
+     * @return boolean
+     */
+    public boolean isSeparable() {
+        return horizontal != null;
+    }
+
+    /**
+     * Returns the weights, indexed as {@code [x][y]}
+     *
+     * @return double[][]
+     */
+    public double[][] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Returns the horizontal weights, or null if the kernel is not separable
+     *
+     * @return double[]
+     */
+    public double[] getHorizontal() {
+        return horizontal;
+    }
+
+    /**
+     * Returns the vertical weights, or null if the kernel is not separable
+     *
+     * @return double[]
+     */
+    public double[] getVertical() {
+        return vertical;
+    }
+
+    /**
+     * Returns the width
+     *
+     * @return int
+     */
+    public int getWidth() {
+        return weights.length;
+    }
+
+    /**
+     * Returns the height
+     *
+     * @return int
+     */
+    public int getHeight() {
+        return weights.length == 0 ? 0 : weights[0].length;
+    }
+
+}
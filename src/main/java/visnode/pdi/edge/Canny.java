@@ -0,0 +1,175 @@
+package visnode.pdi.edge;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+import visnode.pdi.binary.BitImage;
+import visnode.pdi.convolution.Convolution;
+import visnode.pdi.convolution.Kernel;
+
+/**
+ * Canny edge detector
+ * <p>
+ * The stages are gaussian smoothing, Sobel gradient, non-maximum suppression
+ * and hysteresis. The first three run in parallel over tiles of columns, and
+ * the hysteresis grows the edges from the strong pixels with a work-list of
+ * primitive ints instead of recursion. On images with more than one channel,
+ * each pixel takes the gradient of the channel where it is the strongest.
+ * <p>
+ * The suppressed gradient is computed apart from the hysteresis, so callers
+ * can keep it and only redo the hysteresis when the thresholds change, and
+ * can hand its buffer back to be reused by the next suppression.
+ */
+public class Canny {
+
+    /** Number of columns per tile */
+    private static final int TILE_WIDTH = 32;
+    /** Initial capacity of the work-list */
+    private static final int INITIAL_WORK_LIST = 1024;
+
+    /**
+     * Smooths the image with a gaussian kernel covering three standard
+     * deviations
+     *
+     * @param image
+     * @param sigma
+     * @return Image
+     */
+    public static Image smooth(Image image, double sigma) {
+        if (sigma <= 0) {
+            return image;
+        }
+        return Convolution.apply(image, Kernel.gaussian(sigma, 2 * (int) Math.ceil(3 * sigma) + 1));
+    }
+
+    /**
+     * Computes the Sobel gradient of the smoothed image, with its direction
+     *
+     * @param image
+     * @param sigma
+     * @return Gradient
+     */
+    public static Gradient gradient(Image image, double sigma) {
+        return GradientEngine.compute(smooth(image, sigma), EdgeOperator.SOBEL, true);
+    }
+
+    /**
+     * Suppresses the pixels whose magnitude isn't a maximum along the
+     * direction of the gradient. The target buffer is reused if it has the
+     * right size
+     *
+     * @param gradient
+     * @param target
+     * @return {@code float[]}
+     */
+    public static float[] suppress(Gradient gradient, float[] target) {
+        int width = gradient.getWidth();
+        int height = gradient.getHeight();
+        float[] magnitude = gradient.getMagnitudes(0);
+        float[] direction = gradient.getDirections(0);
+        if (gradient.getChannelCount() > 1) {
+            magnitude = new float[width * height];
+            direction = new float[width * height];
+            strongest(gradient, magnitude, direction);
+        }
+        float[] result = target != null && target.length == width * height ? target : new float[width * height];
+        Arrays.fill(result, 0);
+        float[] m = magnitude;
+        float[] d = direction;
+        int tiles = (width + TILE_WIDTH - 1) / TILE_WIDTH;
+        IntStream.range(0, tiles).parallel().forEach((tile) -> {
+            for (int x = Math.max(1, tile * TILE_WIDTH); x < Math.min(width - 1, (tile + 1) * TILE_WIDTH); x++) {
+                for (int y = 1; y < height - 1; y++) {
+                    int index = x * height + y;
+                    float value = m[index];
+                    if (value == 0) {
+                        continue;
+                    }
+                    float angle = d[index] % 180;
+                    int offset;
+                    if (angle < 22.5 || angle >= 157.5) {
+                        offset = height;
+                    } else if (angle < 67.5) {
+                        offset = height + 1;
+                    } else if (angle < 112.5) {
+                        offset = 1;
+                    } else {
+                        offset = height - 1;
+                    }
+                    if (value > m[index - offset] && value >= m[index + offset]) {
+                        result[index] = value;
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Keeps, for each pixel, the magnitude and direction of the channel with
+     * the strongest gradient
+     *
+     * @param gradient
+     * @param magnitude
+     * @param direction
+     */
+    private static void strongest(Gradient gradient, float[] magnitude, float[] direction) {
+        int height = gradient.getHeight();
+        IntStream.range(0, gradient.getWidth()).parallel().forEach((x) -> {
+            for (int channel = 0; channel < gradient.getChannelCount(); channel++) {
+                float[] m = gradient.getMagnitudes(channel);
+                float[] d = gradient.getDirections(channel);
+                for (int index = x * height; index < (x + 1) * height; index++) {
+                    if (channel == 0 || m[index] > magnitude[index]) {
+                        magnitude[index] = m[index];
+                        direction[index] = d[index];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Grows the edges from the pixels higher than or equal to the high
+     * threshold through the 8-connected pixels higher than or equal to the
+     * low threshold
+     *
+     * @param suppressed
+     * @param width
+     * @param height
+     * @param low
+     * @param high
+     * @return BitImage
+     */
+    public static BitImage hysteresis(float[] suppressed, int width, int height, double low, double high) {
+        BitImage edges = new BitImage(width, height);
+        int[] stack = new int[INITIAL_WORK_LIST];
+        for (int seed = 0; seed < suppressed.length; seed++) {
+            if (suppressed[seed] == 0 || suppressed[seed] < high || edges.get(seed / height, seed % height)) {
+                continue;
+            }
+            edges.set(seed / height, seed % height, true);
+            int size = 0;
+            stack[size++] = seed;
+            while (size > 0) {
+                int index = stack[--size];
+                int x = index / height;
+                int y = index % height;
+                for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+                    for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+                        int neighbour = nx * height + ny;
+                        if (suppressed[neighbour] >= low && suppressed[neighbour] > 0 && !edges.get(nx, ny)) {
+                            edges.set(nx, ny, true);
+                            if (size == stack.length) {
+                                stack = Arrays.copyOf(stack, stack.length * 2);
+                            }
+                            stack[size++] = neighbour;
+                        }
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+
+}
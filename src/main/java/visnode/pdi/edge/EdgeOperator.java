@@ -0,0 +1,173 @@
+package visnode.pdi.edge;
+
+/**
+ * Edge operators supported by the {@link GradientEngine}
+ * <p>
+ * The masks are 3 x 3, indexed by {@code [x][y]} like the image data, and
+ * follow the scripts of the edge detection processes. Gradient operators
+ * combine two masks with the euclidean norm, compass operators keep the
+ * highest response of eight masks, and Frei-Chen measures how close the
+ * neighbourhood is to the edge subspace of its basis, relative to the highest
+ * pixel value.
+ */
+public enum EdgeOperator {
+
+    /** Sobel */
+    SOBEL(Combination.GRADIENT, 1, new double[][][] {
+        {{1, 0, -1}, {2, 0, -2}, {1, 0, -1}},
+        {{1, 2, 1}, {0, 0, 0}, {-1, -2, -1}}
+    }, new double[] {0, -1}, new double[] {-1, 0}),
+    /** Prewitt */
+    PREWITT(Combination.GRADIENT, 1, new double[][][] {
+        {{1, 0, -1}, {1, 0, -1}, {1, 0, -1}},
+        {{1, 1, 1}, {0, 0, 0}, {-1, -1, -1}}
+    }, new double[] {0, -1}, new double[] {-1, 0}),
+    /** Roberts */
+    ROBERTS(Combination.GRADIENT, 1, new double[][][] {
+        {{0, -1, 0}, {1, 0, 0}, {0, 0, 0}},
+        {{-1, 0, 0}, {0, 1, 0}, {0, 0, 0}}
+    }, new double[] {0.5, 0.5}, new double[] {-0.5, 0.5}),
+    /** Kirsch */
+    KIRSCH(Combination.COMPASS, 256.0 / 3840, compass(new double[] {5, 5, 5, -3, -3, -3, -3, -3}), null, null),
+    /** Robinson */
+    ROBINSON(Combination.COMPASS, 256.0 / 1024, compass(new double[] {1, 2, 1, 0, -1, -2, -1, 0}), null, null),
+    /** Frei-Chen */
+    FREI_CHEN(Combination.SUBSPACE, 1, freiChen(), new double[] {-1, 0, 0, 0}, new double[] {0, -1, 0, 0});
+
+    /** Combination of the mask responses */
+    private final Combination combination;
+    /** Scale of the magnitude */
+    private final double scale;
+    /** Masks, indexed by [mask][x * 3 + y] */
+    private final double[][] masks;
+    /** Weights of the mask responses in the x derivative */
+    private final double[] derivativeX;
+    /** Weights of the mask responses in the y derivative */
+    private final double[] derivativeY;
+
+    /**
+     * Creates a new edge operator
+     *
+     * @param combination
+     * @param scale
+     * @param masks
+     * @param derivativeX
+     * @param derivativeY
+     */
+    private EdgeOperator(Combination combination, double scale, double[][][] masks, double[] derivativeX, double[] derivativeY) {
+        this.combination = combination;
+        this.scale = scale;
+        this.masks = new double[masks.length][9];
+        for (int i = 0; i < masks.length; i++) {
+            for (int x = 0; x < 3; x++) {
+                for (int y = 0; y < 3; y++) {
+                    this.masks[i][x * 3 + y] = masks[i][x][y];
+                }
+            }
+        }
+        this.derivativeX = derivativeX;
+        this.derivativeY = derivativeY;
+    }
+
+    /**
+     * Builds the eight compass masks by rotating the ring of a mask. The ring
+     * starts at {@code [0][0]} and goes around {@code [0][y]} first
+     *
+     * @param ring
+     * @return {@code double[][][]}
+     */
+    private static double[][][] compass(double[] ring) {
+        int[][] positions = {{0, 0}, {0, 1}, {0, 2}, {1, 2}, {2, 2}, {2, 1}, {2, 0}, {1, 0}};
+        double[][][] masks = new double[8][3][3];
+        for (int mask = 0; mask < 8; mask++) {
+            for (int i = 0; i < 8; i++) {
+                masks[mask][positions[i][0]][positions[i][1]] = ring[(i - mask + 8) % 8];
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Builds the normalized edge masks of the Frei-Chen basis
+     *
+     * @return {@code double[][][]}
+     */
+    private static double[][][] freiChen() {
+        double r = Math.sqrt(2);
+        double n = 1 / (2 * r);
+        return new double[][][] {
+            {{n, r * n, n}, {0, 0, 0}, {-n, -r * n, -n}},
+            {{n, 0, -n}, {r * n, 0, -r * n}, {n, 0, -n}},
+            {{0, -n, r * n}, {n, 0, -n}, {-r * n, n, 0}},
+            {{r * n, -n, 0}, {-n, 0, n}, {0, n, -r * n}}
+        };
+    }
+
+    /**
+     * Returns the combination of the mask responses
+     *
+     * @return Combination
+     */
+    public Combination getCombination() {
+        return combination;
+    }
+
+    /**
+     * Returns the scale of the magnitude
+     *
+     * @return double
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns the masks, indexed by [mask][x * 3 + y]
+     *
+     * @return {@code double[][]}
+     */
+    public double[][] getMasks() {
+        double[][] copy = new double[masks.length][];
+        for (int i = 0; i < masks.length; i++) {
+            copy[i] = masks[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the direction of the gradient, in degrees from 0 to 360, with
+     * the y axis pointing down
+     *
+     * @param responses
+     * @param strongest Index of the strongest response, for compass operators
+     * @return double
+     */
+    double direction(double[] responses, int strongest) {
+        double degrees;
+        if (combination == Combination.COMPASS) {
+            degrees = 180 - 45 * strongest;
+        } else {
+            double x = 0;
+            double y = 0;
+            for (int i = 0; i < derivativeX.length; i++) {
+                x += derivativeX[i] * responses[i];
+                y += derivativeY[i] * responses[i];
+            }
+            degrees = Math.toDegrees(Math.atan2(y, x));
+        }
+        return degrees < 0 ? degrees + 360 : degrees;
+    }
+
+    /**
+     * Combination of the mask responses
+     */
+    public enum Combination {
+        /** Euclidean norm of the responses */
+        GRADIENT,
+        /** Highest response */
+        COMPASS,
+        /** Ratio between the projection on the masks and the neighbourhood */
+        SUBSPACE
+    }
+
+}
@@ -0,0 +1,178 @@
+package visnode.pdi.edge;
+
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Gradient of an image, computed by the {@link GradientEngine}
+ * <p>
+ * Values are kept per channel, column by column like the image data, at the
+ * index {@code x * height + y}. The direction is in degrees from 0 to 360,
+ * with the y axis pointing down, and is only available when requested.
+ */
+public class Gradient {
+
+    /** Width */
+    private final int width;
+    /** Height */
+    private final int height;
+    /** Magnitudes */
+    private final float[][] magnitude;
+    /** Directions */
+    private final float[][] direction;
+
+    /**
+     * Creates a new gradient
+     *
+     * @param width
+     * @param height
+     * @param channels
+     * @param withDirection
+     */
+    Gradient(int width, int height, int channels, boolean withDirection) {
+        this.width = width;
+        this.height = height;
+        this.magnitude = new float[channels][width * height];
+        this.direction = withDirection ? new float[channels][width * height] : null;
+    }
+
+    /**
+     * Returns the magnitude of a pixel
+     *
+     * @param channel
+     * @param x
+     * @param y
+     * @return float
+     */
+    public float getMagnitude(int channel, int x, int y) {
+        return magnitude[channel][x * height + y];
+    }
+
+    /**
+     * Returns the direction of a pixel
+     *
+     * @param channel
+     * @param x
+     * @param y
+     * @return float
+     */
+    public float getDirection(int channel, int x, int y) {
+        return direction[channel][x * height + y];
+    }
+
+    /**
+     * Returns the magnitudes of a channel, at the index {@code x * height + y}
+     *
+     * @param channel
+     * @return {@code float[]}
+     */
+    public float[] getMagnitudes(int channel) {
+        return magnitude[channel];
+    }
+
+    /**
+     * Returns the directions of a channel, at the index {@code x * height + y}
+     *
+     * @param channel
+     * @return {@code float[]}
+     */
+    public float[] getDirections(int channel) {
+        return direction[channel];
+    }
+
+    /**
+     * Returns true if the direction was computed
+     *
+     * @return boolean
+     */
+    public boolean hasDirection() {
+        return direction != null;
+    }
+
+    /**
+     * Returns the width
+     *
+     * @return int
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height
+     *
+     * @return int
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of channels
+     *
+     * @return int
+     */
+    public int getChannelCount() {
+        return magnitude.length;
+    }
+
+    /**
+     * Returns the magnitudes as an image, truncated and limited to the range
+     *
+     * @param range
+     * @return Image
+     */
+    public Image toImage(Range<Integer> range) {
+        int lower = range.getLower();
+        int higher = range.getHigher();
+        return build(magnitude, range, (value) -> (int) Math.max(lower, Math.min(higher, Math.floor(value))));
+    }
+
+    /**
+     * Returns the directions as an image, rounded to whole degrees
+     *
+     * @return Image
+     */
+    public Image toDirectionImage() {
+        return build(direction, new Range<>(0, 359), (value) -> Math.round(value) % 360);
+    }
+
+    /**
+     * Builds an image from values
+     *
+     * @param values
+     * @param range
+     * @param mapping
+     * @return Image
+     */
+    private Image build(float[][] values, Range<Integer> range, Mapping mapping) {
+        int[][][] data = new int[values.length][width][height];
+        IntStream.range(0, values.length * width).parallel().forEach((task) -> {
+            int channel = task / width;
+            int x = task % width;
+            int[] column = data[channel][x];
+            float[] source = values[channel];
+            for (int y = 0; y < height; y++) {
+                column[y] = mapping.map(source[x * height + y]);
+            }
+        });
+        return new Image(data, range);
+    }
+
+    /**
+     * Mapping from a value to a pixel value
+     */
+    private interface Mapping {
+
+        /**
+         * Maps the value
+         *
+         * @param value
+         * @return int
+         */
+        int map(float value);
+
+    }
+
+}
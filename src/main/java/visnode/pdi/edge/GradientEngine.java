@@ -0,0 +1,183 @@
+package visnode.pdi.edge;
+
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+
+/**
+ * Gradient engine for the edge detectors
+ * <p>
+ * Every mask of the operator is applied in a single fused pass: the 3 x 3
+ * neighbourhood of each pixel is read once and all the directional responses
+ * are computed from it, along with the magnitude and, when requested, the
+ * direction. The image is split in tiles of columns processed in parallel.
+ * As in the scripts of the edge detection processes, the pixels of the border
+ * of the image are left at zero.
+ */
+public class GradientEngine {
+
+    /** Number of columns per tile */
+    private static final int TILE_WIDTH = 32;
+
+    /**
+     * Computes the gradient magnitude of the image
+     *
+     * @param image
+     * @param operator
+     * @return Gradient
+     */
+    public static Gradient compute(Image image, EdgeOperator operator) {
+        return compute(image, operator, false);
+    }
+
+    /**
+     * Computes the gradient magnitude of the image and, optionally, its
+     * direction
+     *
+     * @param image
+     * @param operator
+     * @param withDirection
+     * @return Gradient
+     */
+    public static Gradient compute(Image image, EdgeOperator operator, boolean withDirection) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Gradient gradient = new Gradient(width, height, image.getChannelCount(), withDirection);
+        if (width < 3 || height < 3) {
+            return gradient;
+        }
+        Masks masks = new Masks(operator.getMasks());
+        double scale = operator.getCombination() == EdgeOperator.Combination.SUBSPACE
+                ? operator.getScale() * image.getPixelValueRange().getHigher() : operator.getScale();
+        int tiles = (width - 2 + TILE_WIDTH - 1) / TILE_WIDTH;
+        IntStream.range(0, image.getChannelCount() * tiles).parallel().forEach((task) -> {
+            int channel = task / tiles;
+            int first = 1 + (task % tiles) * TILE_WIDTH;
+            computeTile(image.getData()[channel], operator, masks, scale, gradient, channel, first, Math.min(width - 1, first + TILE_WIDTH));
+        });
+        return gradient;
+    }
+
+    /**
+     * Computes the gradient of a tile of a channel
+     *
+     * @param data
+     * @param operator
+     * @param masks
+     * @param scale
+     * @param gradient
+     * @param channel
+     * @param first
+     * @param last
+     */
+    private static void computeTile(int[][] data, EdgeOperator operator, Masks masks, double scale, Gradient gradient, int channel, int first, int last) {
+        int height = gradient.getHeight();
+        float[] magnitude = gradient.getMagnitudes(channel);
+        float[] direction = gradient.hasDirection() ? gradient.getDirections(channel) : null;
+        double[] neighbourhood = new double[9];
+        double[] responses = new double[masks.count];
+        for (int x = first; x < last; x++) {
+            int[] left = data[x - 1];
+            int[] center = data[x];
+            int[] right = data[x + 1];
+            for (int y = 1; y < height - 1; y++) {
+                neighbourhood[0] = left[y - 1];
+                neighbourhood[1] = left[y];
+                neighbourhood[2] = left[y + 1];
+                neighbourhood[3] = center[y - 1];
+                neighbourhood[4] = center[y];
+                neighbourhood[5] = center[y + 1];
+                neighbourhood[6] = right[y - 1];
+                neighbourhood[7] = right[y];
+                neighbourhood[8] = right[y + 1];
+                masks.apply(neighbourhood, responses);
+                int strongest = 0;
+                double value;
+                switch (operator.getCombination()) {
+                    case COMPASS:
+                        for (int i = 1; i < responses.length; i++) {
+                            if (responses[i] > responses[strongest]) {
+                                strongest = i;
+                            }
+                        }
+                        value = Math.max(0, responses[strongest]);
+                        break;
+                    case SUBSPACE:
+                        double energy = 0;
+                        for (double v : neighbourhood) {
+                            energy += v * v;
+                        }
+                        double projection = 0;
+                        for (double r : responses) {
+                            projection += r * r;
+                        }
+                        value = energy == 0 ? 0 : Math.sqrt(projection / energy);
+                        break;
+                    default:
+                        double sum = 0;
+                        for (double r : responses) {
+                            sum += r * r;
+                        }
+                        value = Math.sqrt(sum);
+                }
+                int index = x * height + y;
+                magnitude[index] = (float) (value * scale);
+                if (direction != null) {
+                    direction[index] = (float) operator.direction(responses, strongest);
+                }
+            }
+        }
+    }
+
+    /**
+     * Masks stored by their non-zero weights
+     */
+    private static class Masks {
+
+        /** Number of masks */
+        private final int count;
+        /** Indexes of the non-zero weights of each mask */
+        private final int[][] indexes;
+        /** Non-zero weights of each mask */
+        private final double[][] weights;
+
+        /**
+         * Creates the masks
+         *
+         * @param masks
+         */
+        public Masks(double[][] masks) {
+            this.count = masks.length;
+            this.indexes = new int[count][];
+            this.weights = new double[count][];
+            for (int i = 0; i < count; i++) {
+                double[] source = masks[i];
+                int[] mask = IntStream.range(0, 9).filter((j) -> source[j] != 0).toArray();
+                indexes[i] = mask;
+                weights[i] = new double[mask.length];
+                for (int j = 0; j < mask.length; j++) {
+                    weights[i][j] = source[mask[j]];
+                }
+            }
+        }
+
+        /**
+         * Computes the response of each mask to the neighbourhood
+         *
+         * @param neighbourhood
+         * @param responses
+         */
+        public void apply(double[] neighbourhood, double[] responses) {
+            for (int i = 0; i < count; i++) {
+                int[] mask = indexes[i];
+                double[] weight = weights[i];
+                double sum = 0;
+                for (int j = 0; j < mask.length; j++) {
+                    sum += weight[j] * neighbourhood[mask[j]];
+                }
+                responses[i] = sum;
+            }
+        }
+
+    }
+
+}
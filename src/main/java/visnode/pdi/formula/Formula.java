@@ -0,0 +1,16 @@
+package visnode.pdi.formula;
+
+/**
+ * Compiled pixel formula
+ */
+public interface Formula {
+
+    /**
+     * Evaluates the formula for the pixel of the context
+     * 
+     * @param context
+     * @return double
+     */
+    public double evaluate(FormulaContext context);
+
+}
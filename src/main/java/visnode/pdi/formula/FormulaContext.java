@@ -0,0 +1,70 @@
+package visnode.pdi.formula;
+
+import org.paim.commons.Image;
+
+/**
+ * Pixel being evaluated by a formula
+ * <p>
+ * A context is not thread-safe. Each thread evaluating a formula should use
+ * its own context over the same image.
+ */
+public class FormulaContext {
+
+    /** Image data */
+    final int[][][] data;
+    /** Image width */
+    final int width;
+    /** Image height */
+    final int height;
+    /** Lower pixel value */
+    final int lower;
+    /** Higher pixel value */
+    final int higher;
+    /** Last channel of the image */
+    final int lastChannel;
+    /** Current channel */
+    int channel;
+    /** Current x */
+    int x;
+    /** Current y */
+    int y;
+
+    /**
+     * Creates a new formula context
+     * 
+     * @param image 
+     */
+    public FormulaContext(Image image) {
+        this.data = image.getData();
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.lower = image.getPixelValueRange().getLower();
+        this.higher = image.getPixelValueRange().getHigher();
+        this.lastChannel = image.getChannelCount() - 1;
+    }
+
+    /**
+     * Moves the context to a pixel
+     * 
+     * @param channel
+     * @param x
+     * @param y 
+     */
+    public void set(int channel, int x, int y) {
+        this.channel = channel;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the value of the current pixel on another channel. Channels
+     * missing from the image are read from the last channel
+     * 
+     * @param channel
+     * @return int
+     */
+    int channelValue(int channel) {
+        return data[Math.min(channel, lastChannel)][x][y];
+    }
+
+}
@@ -0,0 +1,18 @@
+package visnode.pdi.formula;
+
+/**
+ * Formula parsing exception
+ */
+public class FormulaException extends Exception {
+
+    /**
+     * Creates a new formula exception
+     * 
+     * @param message
+     * @param position
+     */
+    public FormulaException(String message, int position) {
+        super(message + " at position " + (position + 1));
+    }
+
+}
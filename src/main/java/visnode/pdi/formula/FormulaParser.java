@@ -0,0 +1,504 @@
+package visnode.pdi.formula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Parser for pixel formulas
+ * <p>
+ * The formula is parsed once into a tree of small {@link Formula} nodes,
+ * with constant sub-expressions folded, so evaluating it for each pixel is a
+ * plain Java call chain that the JIT can inline.
+ * <p>
+ * Supported syntax:
+ * <ul>
+ * <li>Numbers, parenthesis and the operators {@code + - * / % ^}</li>
+ * <li>Comparisons {@code < <= > >= == !=}, logical {@code && || !} and the
+ * conditional {@code a ? b : c}. True is 1 and false is 0</li>
+ * <li>Variables {@code value, channel, x, y, width, height, r, g, b, min,
+ * max}, where {@code r, g, b} are the values of the current pixel on each
+ * channel and {@code min, max} the pixel value range</li>
+ * <li>Functions {@code abs, sqrt, exp, log, sin, cos, floor, ceil, round,
+ * min, max, pow, clamp}</li>
+ * </ul>
+ */
+public class FormulaParser {
+
+    /** Source */
+    private String source;
+    /** Current position */
+    private int position;
+
+    /**
+     * Parses a formula
+     *
+     * @param source
+     * @return Formula
+     * @throws FormulaException
+     */
+    public Formula parse(String source) throws FormulaException {
+        this.source = source;
+        this.position = 0;
+        Formula formula = parseConditional();
+        skipWhitespace();
+        if (position < source.length()) {
+            throw new FormulaException("Unexpected '" + source.charAt(position) + "'", position);
+        }
+        return formula;
+    }
+
+    /**
+     * Parses a conditional expression
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parseConditional() throws FormulaException {
+        Formula condition = parseOr();
+        if (!accept("?")) {
+            return condition;
+        }
+        Formula whenTrue = parseConditional();
+        expect(":");
+        Formula whenFalse = parseConditional();
+        if (condition instanceof Constant) {
+            return ((Constant) condition).value != 0 ? whenTrue : whenFalse;
+        }
+        return (c) -> condition.evaluate(c) != 0 ? whenTrue.evaluate(c) : whenFalse.evaluate(c);
+    }
+
+    /**
+     * Parses a logical or
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parseOr() throws FormulaException {
+        Formula formula = parseAnd();
+        while (accept("||")) {
+            Formula left = formula;
+            Formula right = parseAnd();
+            formula = fold((c) -> left.evaluate(c) != 0 || right.evaluate(c) != 0 ? 1 : 0, left, right);
+        }
+        return formula;
+    }
+
+    /**
+     * Parses a logical and
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parseAnd() throws FormulaException {
+        Formula formula = parseComparison();
+        while (accept("&&")) {
+            Formula left = formula;
+            Formula right = parseComparison();
+            formula = fold((c) -> left.evaluate(c) != 0 && right.evaluate(c) != 0 ? 1 : 0, left, right);
+        }
+        return formula;
+    }
+
+    /**
+     * Parses a comparison
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parseComparison() throws FormulaException {
+        Formula left = parseAdditive();
+        if (accept("<=")) {
+            return binary(left, parseAdditive(), (a, b) -> a <= b ? 1 : 0);
+        }
+        if (accept(">=")) {
+            return binary(left, parseAdditive(), (a, b) -> a >= b ? 1 : 0);
+        }
+        if (accept("==")) {
+            return binary(left, parseAdditive(), (a, b) -> a == b ? 1 : 0);
+        }
+        if (accept("!=")) {
+            return binary(left, parseAdditive(), (a, b) -> a != b ? 1 : 0);
+        }
+        if (accept("<")) {
+            return binary(left, parseAdditive(), (a, b) -> a < b ? 1 : 0);
+        }
+        if (accept(">")) {
+            return binary(left, parseAdditive(), (a, b) -> a > b ? 1 : 0);
+        }
+        return left;
+    }
+
+    /**
+     * Parses an addition or subtraction
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parseAdditive() throws FormulaException {
+        Formula formula = parseMultiplicative();
+        while (true) {
+            if (accept("+")) {
+                Formula left = formula;
+                Formula right = parseMultiplicative();
+                formula = fold((c) -> left.evaluate(c) + right.evaluate(c), left, right);
+            } else if (accept("-")) {
+                Formula left = formula;
+                Formula right = parseMultiplicative();
+                formula = fold((c) -> left.evaluate(c) - right.evaluate(c), left, right);
+            } else {
+                return formula;
+            }
+        }
+    }
+
+    /**
+     * Parses a multiplication, division or remainder
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parseMultiplicative() throws FormulaException {
+        Formula formula = parseUnary();
+        while (true) {
+            if (accept("*")) {
+                Formula left = formula;
+                Formula right = parseUnary();
+                formula = fold((c) -> left.evaluate(c) * right.evaluate(c), left, right);
+            } else if (accept("/")) {
+                Formula left = formula;
+                Formula right = parseUnary();
+                formula = fold((c) -> left.evaluate(c) / right.evaluate(c), left, right);
+            } else if (accept("%")) {
+                Formula left = formula;
+                Formula right = parseUnary();
+                formula = fold((c) -> left.evaluate(c) % right.evaluate(c), left, right);
+            } else {
+                return formula;
+            }
+        }
+    }
+
+    /**
+     * Parses an unary operation
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parseUnary() throws FormulaException {
+        if (accept("-")) {
+            Formula operand = parseUnary();
+            return fold((c) -> -operand.evaluate(c), operand);
+        }
+        if (accept("+")) {
+            return parseUnary();
+        }
+        skipWhitespace();
+        if (position < source.length() && source.charAt(position) == '!' && !source.startsWith("!=", position)) {
+            position++;
+            Formula operand = parseUnary();
+            return fold((c) -> operand.evaluate(c) == 0 ? 1 : 0, operand);
+        }
+        return parsePower();
+    }
+
+    /**
+     * Parses a power. Powers are right associative
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parsePower() throws FormulaException {
+        Formula base = parsePrimary();
+        if (accept("^")) {
+            return binary(base, parseUnary(), Math::pow);
+        }
+        return base;
+    }
+
+    /**
+     * Parses a number, a variable, a function call or a parenthesized
+     * expression
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parsePrimary() throws FormulaException {
+        skipWhitespace();
+        if (position >= source.length()) {
+            throw new FormulaException("Unexpected end of formula", position);
+        }
+        if (accept("(")) {
+            Formula formula = parseConditional();
+            expect(")");
+            return formula;
+        }
+        char ch = source.charAt(position);
+        if (Character.isDigit(ch) || ch == '.') {
+            return parseNumber();
+        }
+        if (Character.isLetter(ch) || ch == '_') {
+            int start = position;
+            String name = parseIdentifier();
+            skipWhitespace();
+            if (accept("(")) {
+                return function(name, parseArguments(), start);
+            }
+            return variable(name, start);
+        }
+        throw new FormulaException("Unexpected '" + ch + "'", position);
+    }
+
+    /**
+     * Parses a number
+     *
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula parseNumber() throws FormulaException {
+        int start = position;
+        while (position < source.length() && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            position++;
+        }
+        try {
+            return new Constant(Double.parseDouble(source.substring(start, position)));
+        } catch (NumberFormatException e) {
+            throw new FormulaException("Invalid number '" + source.substring(start, position) + "'", start);
+        }
+    }
+
+    /**
+     * Parses an identifier
+     *
+     * @return String
+     */
+    private String parseIdentifier() {
+        int start = position;
+        while (position < source.length() && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_')) {
+            position++;
+        }
+        return source.substring(start, position);
+    }
+
+    /**
+     * Parses the arguments of a function call, after the opening parenthesis
+     *
+     * @return {@code List<Formula>}
+     * @throws FormulaException
+     */
+    private List<Formula> parseArguments() throws FormulaException {
+        List<Formula> arguments = new ArrayList<>();
+        if (accept(")")) {
+            return arguments;
+        }
+        do {
+            arguments.add(parseConditional());
+        } while (accept(","));
+        expect(")");
+        return arguments;
+    }
+
+    /**
+     * Returns the formula for a variable
+     *
+     * @param name
+     * @param start
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula variable(String name, int start) throws FormulaException {
+        switch (name) {
+            case "value":
+                return (c) -> c.data[c.channel][c.x][c.y];
+            case "channel":
+                return (c) -> c.channel;
+            case "x":
+                return (c) -> c.x;
+            case "y":
+                return (c) -> c.y;
+            case "width":
+                return (c) -> c.width;
+            case "height":
+                return (c) -> c.height;
+            case "r":
+                return (c) -> c.channelValue(0);
+            case "g":
+                return (c) -> c.channelValue(1);
+            case "b":
+                return (c) -> c.channelValue(2);
+            case "min":
+                return (c) -> c.lower;
+            case "max":
+                return (c) -> c.higher;
+            case "pi":
+                return new Constant(Math.PI);
+            default:
+                throw new FormulaException("Unknown variable '" + name + "'", start);
+        }
+    }
+
+    /**
+     * Returns the formula for a function call
+     *
+     * @param name
+     * @param args
+     * @param start
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula function(String name, List<Formula> args, int start) throws FormulaException {
+        switch (name) {
+            case "abs":
+                return unary(name, args, start, Math::abs);
+            case "sqrt":
+                return unary(name, args, start, Math::sqrt);
+            case "exp":
+                return unary(name, args, start, Math::exp);
+            case "log":
+                return unary(name, args, start, Math::log);
+            case "sin":
+                return unary(name, args, start, Math::sin);
+            case "cos":
+                return unary(name, args, start, Math::cos);
+            case "floor":
+                return unary(name, args, start, Math::floor);
+            case "ceil":
+                return unary(name, args, start, Math::ceil);
+            case "round":
+                return unary(name, args, start, (a) -> Math.round(a));
+            case "min":
+                checkArguments(name, args, 2, start);
+                return binary(args.get(0), args.get(1), Math::min);
+            case "max":
+                checkArguments(name, args, 2, start);
+                return binary(args.get(0), args.get(1), Math::max);
+            case "pow":
+                checkArguments(name, args, 2, start);
+                return binary(args.get(0), args.get(1), Math::pow);
+            case "clamp":
+                checkArguments(name, args, 3, start);
+                Formula value = args.get(0);
+                Formula lower = args.get(1);
+                Formula higher = args.get(2);
+                return fold((c) -> Math.max(lower.evaluate(c), Math.min(higher.evaluate(c), value.evaluate(c))), value, lower, higher);
+            default:
+                throw new FormulaException("Unknown function '" + name + "'", start);
+        }
+    }
+
+    /**
+     * Returns the formula for an unary function
+     *
+     * @param name
+     * @param args
+     * @param start
+     * @param operator
+     * @return Formula
+     * @throws FormulaException
+     */
+    private Formula unary(String name, List<Formula> args, int start, DoubleUnaryOperator operator) throws FormulaException {
+        checkArguments(name, args, 1, start);
+        Formula operand = args.get(0);
+        return fold((c) -> operator.applyAsDouble(operand.evaluate(c)), operand);
+    }
+
+    /**
+     * Returns the formula for a binary operation
+     *
+     * @param left
+     * @param right
+     * @param operator
+     * @return Formula
+     */
+    private Formula binary(Formula left, Formula right, DoubleBinaryOperator operator) {
+        return fold((c) -> operator.applyAsDouble(left.evaluate(c), right.evaluate(c)), left, right);
+    }
+
+    /**
+     * Checks the number of arguments of a function
+     *
+     * @param name
+     * @param args
+     * @param count
+     * @param start
+     * @throws FormulaException
+     */
+    private void checkArguments(String name, List<Formula> args, int count, int start) throws FormulaException {
+        if (args.size() != count) {
+            throw new FormulaException("Function '" + name + "' expects " + count + " argument(s)", start);
+        }
+    }
+
+    /**
+     * Folds the formula into a constant if all of its operands are constants
+     *
+     * @param formula
+     * @param operands
+     * @return Formula
+     */
+    private Formula fold(Formula formula, Formula... operands) {
+        for (Formula operand : operands) {
+            if (!(operand instanceof Constant)) {
+                return formula;
+            }
+        }
+        return new Constant(formula.evaluate(null));
+    }
+
+    /**
+     * Consumes the token if it is the next one
+     *
+     * @param token
+     * @return boolean
+     */
+    private boolean accept(String token) {
+        skipWhitespace();
+        if (source.startsWith(token, position)) {
+            position += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes the token, which must be the next one
+     *
+     * @param token
+     * @throws FormulaException
+     */
+    private void expect(String token) throws FormulaException {
+        if (!accept(token)) {
+            throw new FormulaException("Expected '" + token + "'", position);
+        }
+    }
+
+    /**
+     * Skips whitespace
+     */
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * Constant formula
+     */
+    private static class Constant implements Formula {
+
+        /** Value */
+        private final double value;
+
+        public Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(FormulaContext context) {
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,149 @@
+package visnode.pdi.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Affine transform of an image
+ * <p>
+ * As in the scripts of the geometric processes, the matrix maps each pixel of
+ * the result to the pixel of the source that it takes the value from, both
+ * relative to the center of the image. Transforms are combined with
+ * {@link #then(AffineTransform)}, so a sequence of transforms can be applied
+ * with a single resampling.
+ */
+public class AffineTransform {
+
+    /** Identity */
+    private static final AffineTransform IDENTITY = new AffineTransform(1, 0, 0, 0, 1, 0);
+
+    /** Coefficients of the matrix, row by row, without the last row */
+    private final double[] matrix;
+
+    /**
+     * Creates a new affine transform, mapping {@code (x, y)} of the result to
+     * {@code (a * x + b * y + c, d * x + e * y + f)} of the source
+     *
+     * @param a
+     * @param b
+     * @param c
+     * @param d
+     * @param e
+     * @param f
+     */
+    public AffineTransform(double a, double b, double c, double d, double e, double f) {
+        this.matrix = new double[] {a, b, c, d, e, f};
+    }
+
+    /**
+     * Returns the identity
+     *
+     * @return AffineTransform
+     */
+    public static AffineTransform identity() {
+        return IDENTITY;
+    }
+
+    /**
+     * Returns a rotation around the center of the image
+     *
+     * @param degrees
+     * @return AffineTransform
+     */
+    public static AffineTransform rotation(double degrees) {
+        double cos = Math.cos(Math.toRadians(degrees));
+        double sin = Math.sin(Math.toRadians(degrees));
+        return new AffineTransform(cos, sin, 0, -sin, cos, 0);
+    }
+
+    /**
+     * Returns a scale around the center of the image
+     *
+     * @param x
+     * @param y
+     * @return AffineTransform
+     */
+    public static AffineTransform scale(double x, double y) {
+        return new AffineTransform(1 / x, 0, 0, 0, 1 / y, 0);
+    }
+
+    /**
+     * Returns a translation
+     *
+     * @param x
+     * @param y
+     * @return AffineTransform
+     */
+    public static AffineTransform translation(double x, double y) {
+        return new AffineTransform(1, 0, -x, 0, 1, -y);
+    }
+
+    /**
+     * Returns a horizontal mirroring
+     *
+     * @return AffineTransform
+     */
+    public static AffineTransform horizontalMirroring() {
+        return new AffineTransform(-1, 0, 0, 0, 1, 0);
+    }
+
+    /**
+     * Returns a vertical mirroring
+     *
+     * @return AffineTransform
+     */
+    public static AffineTransform verticalMirroring() {
+        return new AffineTransform(1, 0, 0, 0, -1, 0);
+    }
+
+    /**
+     * Returns the transform that applies this one and then the next one
+     *
+     * @param next
+     * @return AffineTransform
+     */
+    public AffineTransform then(AffineTransform next) {
+        double[] m = matrix;
+        double[] n = next.matrix;
+        return new AffineTransform(
+                m[0] * n[0] + m[1] * n[3], m[0] * n[1] + m[1] * n[4], m[0] * n[2] + m[1] * n[5] + m[2],
+                m[3] * n[0] + m[4] * n[3], m[3] * n[1] + m[4] * n[4], m[3] * n[2] + m[4] * n[5] + m[5]);
+    }
+
+    /**
+     * Returns true if the transform has no rotation or shear, so each column
+     * of the result comes from a single column of the source, and each row
+     * from a single row
+     *
+     * @return boolean
+     */
+    public boolean isAxisAligned() {
+        return matrix[1] == 0 && matrix[3] == 0;
+    }
+
+    /**
+     * Returns the coefficients of the matrix, row by row, without the last
+     * row
+     *
+     * @return {@code double[]}
+     */
+    public double[] getMatrix() {
+        return matrix.clone();
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(matrix);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Arrays.equals(matrix, ((AffineTransform) obj).matrix);
+    }
+
+}
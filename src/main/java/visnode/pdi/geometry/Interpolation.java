@@ -0,0 +1,11 @@
+package visnode.pdi.geometry;
+
+/**
+ * Interpolation of the resampling
+ */
+public enum Interpolation {
+    /** Value of the nearest pixel */
+    NEAREST,
+    /** Weighted average of the four nearest pixels */
+    BILINEAR
+}
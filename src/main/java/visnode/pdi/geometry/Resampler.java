@@ -0,0 +1,313 @@
+package visnode.pdi.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+
+/**
+ * Resampling of images by affine transforms
+ * <p>
+ * The source coordinates are the sum of a term that depends only on the
+ * column of the result and one that depends only on its row, so both are
+ * computed once in coordinate tables and each pixel only adds them. When the
+ * transform is axis aligned, the tables already hold the source column and
+ * row of the nearest pixel. The columns of the result are computed in
+ * parallel, and pixels that come from outside the source, or from outside of
+ * an intermediate canvas of a chain, are left at the lower pixel value.
+ * Coordinates are relative to the center of the image, between its middle
+ * pixels when the size is even.
+ */
+public class Resampler {
+
+    /**
+     * Transforms an image. If the image was itself transformed, the
+     * transforms are combined and its source is resampled once, with the
+     * best of the two interpolations. The pixels that fall outside of the
+     * image, or of any canvas it was chained through, are cut off as if each
+     * transform had been applied on its own
+     *
+     * @param image
+     * @param transform
+     * @param interpolation
+     * @return TransformedImage
+     */
+    public static TransformedImage transform(Image image, AffineTransform transform, Interpolation interpolation) {
+        if (image instanceof TransformedImage) {
+            TransformedImage transformed = (TransformedImage) image;
+            Interpolation combined = interpolation.compareTo(transformed.getInterpolation()) > 0 ? interpolation : transformed.getInterpolation();
+            List<AffineTransform> canvases = new ArrayList<>();
+            canvases.add(transform);
+            for (AffineTransform canvas : transformed.getCanvases()) {
+                canvases.add(canvas.then(transform));
+            }
+            return resample(transformed.getSource(), transformed.getTransform().then(transform), combined, canvases);
+        }
+        return resample(image, transform, interpolation);
+    }
+
+    /**
+     * Resamples an image
+     *
+     * @param source
+     * @param transform
+     * @param interpolation
+     * @return TransformedImage
+     */
+    public static TransformedImage resample(Image source, AffineTransform transform, Interpolation interpolation) {
+        return resample(source, transform, interpolation, Collections.emptyList());
+    }
+
+    /**
+     * Resamples an image, leaving at the lower pixel value the pixels that
+     * fall outside of any of the intermediate canvases. The canvases have the
+     * size of the source
+     *
+     * @param source
+     * @param transform
+     * @param interpolation
+     * @param canvases Transforms from the result to each intermediate canvas
+     * @return TransformedImage
+     */
+    public static TransformedImage resample(Image source, AffineTransform transform, Interpolation interpolation, List<AffineTransform> canvases) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int lower = source.getPixelValueRange().getLower();
+        Coordinates coordinates = new Coordinates(transform, width, height);
+        List<Coordinates> clips = canvases.stream().map((canvas) -> new Coordinates(canvas, width, height)).collect(Collectors.toList());
+        int[][][] data = new int[source.getChannelCount()][width][];
+        if (interpolation == Interpolation.NEAREST && transform.isAxisAligned() && canvases.stream().allMatch(AffineTransform::isAxisAligned)) {
+            int[] sourceX = nearest(coordinates.columnX, width);
+            int[] sourceY = nearest(coordinates.rowY, height);
+            for (Coordinates clip : clips) {
+                clip(sourceX, clip.columnX, width);
+                clip(sourceY, clip.rowY, height);
+            }
+            IntStream.range(0, width).parallel().forEach((x) -> {
+                for (int channel = 0; channel < data.length; channel++) {
+                    data[channel][x] = copyColumn(source, channel, sourceX[x], sourceY);
+                }
+            });
+        } else {
+            IntStream.range(0, width).parallel().forEach((x) -> {
+                for (int channel = 0; channel < data.length; channel++) {
+                    int[] column = new int[height];
+                    for (int y = 0; y < height; y++) {
+                        if (!inside(clips, x, y)) {
+                            column[y] = lower;
+                            continue;
+                        }
+                        double sx = coordinates.x(x, y);
+                        double sy = coordinates.y(x, y);
+                        column[y] = interpolation == Interpolation.NEAREST ? nearest(source, channel, sx, sy) : bilinear(source, channel, sx, sy);
+                    }
+                    data[channel][x] = column;
+                }
+            });
+        }
+        return new TransformedImage(data, source.getPixelValueRange(), source, transform, interpolation, canvases);
+    }
+
+    /**
+     * Returns the nearest source index of each coordinate, or -1 if it is
+     * outside of the source
+     *
+     * @param coordinates
+     * @param size
+     * @return {@code int[]}
+     */
+    private static int[] nearest(double[] coordinates, int size) {
+        int[] indexes = new int[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            indexes[i] = inside(coordinates[i], size) ? (int) Math.floor(coordinates[i] + 0.5) : -1;
+        }
+        return indexes;
+    }
+
+    /**
+     * Marks as outside the indexes whose coordinate on a canvas is outside of
+     * it
+     *
+     * @param indexes
+     * @param coordinates
+     * @param size
+     */
+    private static void clip(int[] indexes, double[] coordinates, int size) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (!inside(coordinates[i], size)) {
+                indexes[i] = -1;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the pixel of the result is inside of every canvas
+     *
+     * @param clips
+     * @param x
+     * @param y
+     * @return boolean
+     */
+    private static boolean inside(List<Coordinates> clips, int x, int y) {
+        for (Coordinates clip : clips) {
+            if (!inside(clip.x(x, y), clip.width) || !inside(clip.y(x, y), clip.height)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the coordinate is nearest to a pixel in the size
+     *
+     * @param coordinate
+     * @param size
+     * @return boolean
+     */
+    private static boolean inside(double coordinate, int size) {
+        return coordinate >= -0.5 && coordinate < size - 0.5;
+    }
+
+    /**
+     * Copies a column of the result from a column of the source
+     *
+     * @param source
+     * @param channel
+     * @param x Column of the source, or -1 if outside of the source
+     * @param sourceY Row of the source of each row, or -1 if outside
+     * @return {@code int[]}
+     */
+    private static int[] copyColumn(Image source, int channel, int x, int[] sourceY) {
+        int lower = source.getPixelValueRange().getLower();
+        int[] column = new int[sourceY.length];
+        if (x < 0) {
+            Arrays.fill(column, lower);
+            return column;
+        }
+        int[] from = source.getData()[channel][x];
+        for (int y = 0; y < column.length; y++) {
+            column[y] = sourceY[y] < 0 ? lower : from[sourceY[y]];
+        }
+        return column;
+    }
+
+    /**
+     * Returns the value of the nearest pixel
+     *
+     * @param source
+     * @param channel
+     * @param x
+     * @param y
+     * @return int
+     */
+    private static int nearest(Image source, int channel, double x, double y) {
+        int nx = (int) Math.floor(x + 0.5);
+        int ny = (int) Math.floor(y + 0.5);
+        if (nx < 0 || ny < 0 || nx >= source.getWidth() || ny >= source.getHeight()) {
+            return source.getPixelValueRange().getLower();
+        }
+        return source.getData()[channel][nx][ny];
+    }
+
+    /**
+     * Returns the weighted average of the four nearest pixels. Points up to
+     * half a pixel outside of the source use the pixels of the border
+     *
+     * @param source
+     * @param channel
+     * @param x
+     * @param y
+     * @return int
+     */
+    private static int bilinear(Image source, int channel, double x, double y) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (x < -0.5 || y < -0.5 || x >= width - 0.5 || y >= height - 0.5) {
+            return source.getPixelValueRange().getLower();
+        }
+        int x0 = (int) Math.floor(x);
+        int y0 = (int) Math.floor(y);
+        double fx = x - x0;
+        double fy = y - y0;
+        int[][] data = source.getData()[channel];
+        int[] left = data[Math.max(0, x0)];
+        int[] right = data[Math.min(width - 1, x0 + 1)];
+        int top = Math.max(0, y0);
+        int bottom = Math.min(height - 1, y0 + 1);
+        double value = (1 - fx) * ((1 - fy) * left[top] + fy * left[bottom]) + fx * ((1 - fy) * right[top] + fy * right[bottom]);
+        return (int) Math.round(value);
+    }
+
+    /**
+     * Coordinate tables of a transform
+     */
+    private static class Coordinates {
+
+        /** Width of the image */
+        private final int width;
+        /** Height of the image */
+        private final int height;
+        /** Term of the x coordinate that depends on the column */
+        private final double[] columnX;
+        /** Term of the y coordinate that depends on the column */
+        private final double[] columnY;
+        /** Term of the x coordinate that depends on the row */
+        private final double[] rowX;
+        /** Term of the y coordinate that depends on the row */
+        private final double[] rowY;
+
+        /**
+         * Computes the coordinate tables of a transform
+         *
+         * @param transform
+         * @param width
+         * @param height
+         */
+        public Coordinates(AffineTransform transform, int width, int height) {
+            this.width = width;
+            this.height = height;
+            double[] m = transform.getMatrix();
+            double centerX = (width - 1) / 2.0;
+            double centerY = (height - 1) / 2.0;
+            columnX = new double[width];
+            columnY = new double[width];
+            for (int x = 0; x < width; x++) {
+                columnX[x] = m[0] * (x - centerX) + m[2] + centerX;
+                columnY[x] = m[3] * (x - centerX);
+            }
+            rowX = new double[height];
+            rowY = new double[height];
+            for (int y = 0; y < height; y++) {
+                rowX[y] = m[1] * (y - centerY);
+                rowY[y] = m[4] * (y - centerY) + m[5] + centerY;
+            }
+        }
+
+        /**
+         * Returns the x coordinate of a pixel
+         *
+         * @param x
+         * @param y
+         * @return double
+         */
+        public double x(int x, int y) {
+            return columnX[x] + rowX[y];
+        }
+
+        /**
+         * Returns the y coordinate of a pixel
+         *
+         * @param x
+         * @param y
+         * @return double
+         */
+        public double y(int x, int y) {
+            return columnY[x] + rowY[y];
+        }
+
+    }
+
+}
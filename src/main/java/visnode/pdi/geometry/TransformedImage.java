@@ -0,0 +1,83 @@
+package visnode.pdi.geometry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Image resampled from a source by an affine transform
+ * <p>
+ * The image keeps its source and transform, so a following geometric
+ * transform can be combined with this one and resample the source directly.
+ * It also keeps the canvases of the images it was chained through, which have
+ * the size of the source, so the pixels that were cut off by any of them stay
+ * cut off.
+ */
+public class TransformedImage extends Image {
+
+    /** Source image */
+    private final Image source;
+    /** Transform from the source */
+    private final AffineTransform transform;
+    /** Interpolation of the resampling */
+    private final Interpolation interpolation;
+    /** Transforms from this image to each intermediate canvas */
+    private final List<AffineTransform> canvases;
+
+    /**
+     * Creates a new transformed image
+     *
+     * @param data
+     * @param range
+     * @param source
+     * @param transform
+     * @param interpolation
+     * @param canvases Transforms from this image to each intermediate canvas
+     */
+    public TransformedImage(int[][][] data, Range<Integer> range, Image source, AffineTransform transform, Interpolation interpolation, List<AffineTransform> canvases) {
+        super(data, range);
+        this.source = source;
+        this.transform = transform;
+        this.interpolation = interpolation;
+        this.canvases = Collections.unmodifiableList(new ArrayList<>(canvases));
+    }
+
+    /**
+     * Returns the source image
+     *
+     * @return Image
+     */
+    public Image getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the transform from the source
+     *
+     * @return AffineTransform
+     */
+    public AffineTransform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Returns the interpolation of the resampling
+     *
+     * @return Interpolation
+     */
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    /**
+     * Returns the transforms from this image to each intermediate canvas
+     *
+     * @return {@code List<AffineTransform>}
+     */
+    public List<AffineTransform> getCanvases() {
+        return canvases;
+    }
+
+}
@@ -0,0 +1,110 @@
+package visnode.pdi.point;
+
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+import org.paim.commons.Range;
+
+/**
+ * Grayscale conversion with integer arithmetic
+ * <p>
+ * Both conversions write a single channel directly from the channels of the
+ * source, in parallel over the columns. The mean is exact: it divides by the
+ * number of channels with a multiplication by a 32-bit reciprocal, which
+ * gives the truncated quotient for every sum the pixel range can produce.
+ * The weighted conversion uses weights in 24-bit fixed point, with the
+ * rounding of the weights pushed to the last one so they keep the sum of the
+ * original weights. Its result is within 1 of truncating the weighted sum in
+ * floating point, and is exact on gray pixels when the weights sum to 1.
+ */
+public class Grayscale {
+
+    /** Bits of the fractional part of the fixed-point weights */
+    private static final int WEIGHT_SHIFT = 24;
+    /** Bits of the fractional part of the reciprocal */
+    private static final int RECIPROCAL_SHIFT = 32;
+
+    /**
+     * Converts the image to gray scale with the truncated mean of its
+     * channels
+     *
+     * @param image
+     * @return Image
+     */
+    public static Image mean(Image image) {
+        int[][][] source = image.getData();
+        Range<Integer> range = image.getPixelValueRange();
+        Image result = ImageFactory.buildEmptyImage(1, image.getWidth(), image.getHeight(), range);
+        int[][] target = result.getData()[0];
+        int channels = source.length;
+        long highest = Math.max(Math.abs((long) range.getLower()), Math.abs((long) range.getHigher()));
+        boolean reciprocal = range.getLower() >= 0 && highest * channels * channels < (1L << RECIPROCAL_SHIFT);
+        long multiplier = ((1L << RECIPROCAL_SHIFT) + channels - 1) / channels;
+        IntStream.range(0, image.getWidth()).parallel().forEach((x) -> {
+            int[] to = target[x];
+            for (int y = 0; y < to.length; y++) {
+                long sum = 0;
+                for (int channel = 0; channel < channels; channel++) {
+                    sum += source[channel][x][y];
+                }
+                to[y] = (int) (reciprocal ? (sum * multiplier) >>> RECIPROCAL_SHIFT : Math.floorDiv(sum, channels));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Converts the image to gray scale with the weighted sum of its red,
+     * green and blue channels, limited to the pixel value range. Images with
+     * less than three channels only use the weights of the channels they have
+     *
+     * @param image
+     * @param red
+     * @param green
+     * @param blue
+     * @return Image
+     */
+    public static Image weighted(Image image, double red, double green, double blue) {
+        int[][][] source = image.getData();
+        Range<Integer> range = image.getPixelValueRange();
+        Image result = ImageFactory.buildEmptyImage(1, image.getWidth(), image.getHeight(), range);
+        int[][] target = result.getData()[0];
+        long[] weights = fixedPoint(new double[] {red, green, blue}, Math.min(3, source.length));
+        int lower = range.getLower();
+        int higher = range.getHigher();
+        IntStream.range(0, image.getWidth()).parallel().forEach((x) -> {
+            int[] to = target[x];
+            for (int y = 0; y < to.length; y++) {
+                long sum = 0;
+                for (int channel = 0; channel < weights.length; channel++) {
+                    sum += source[channel][x][y] * weights[channel];
+                }
+                long value = sum >> WEIGHT_SHIFT;
+                to[y] = (int) (value < lower ? lower : value > higher ? higher : value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Converts the first weights to fixed point. Each weight is rounded so
+     * the sum of the weights converted so far stays the rounded sum of the
+     * original weights
+     *
+     * @param weights
+     * @param count
+     * @return {@code long[]}
+     */
+    static long[] fixedPoint(double[] weights, int count) {
+        long[] result = new long[count];
+        double sum = 0;
+        long converted = 0;
+        for (int i = 0; i < count; i++) {
+            sum += weights[i];
+            result[i] = Math.round(sum * (1 << WEIGHT_SHIFT)) - converted;
+            converted += result[i];
+        }
+        return result;
+    }
+
+}
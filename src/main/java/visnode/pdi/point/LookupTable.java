@@ -0,0 +1,202 @@
+package visnode.pdi.point;
+
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Lookup table for point operations
+ * <p>
+ * The operation is evaluated once for each value of the input range, and
+ * applying the table is a single array access per pixel. Tables can be
+ * composed, so a chain of point operations costs one pass over the image.
+ * Every value is limited to the output range, as each operation would do on
+ * its own. Input values outside of the range are looked up at the nearest
+ * bound.
+ */
+public class LookupTable {
+
+    /** Input range */
+    private final Range<Integer> input;
+    /** Output range */
+    private final Range<Integer> output;
+    /** Output values, indexed by the input value minus the lowest one */
+    private final int[] table;
+
+    /**
+     * Creates a new lookup table
+     *
+     * @param input
+     * @param output
+     * @param table
+     */
+    private LookupTable(Range<Integer> input, Range<Integer> output, int[] table) {
+        this.input = input;
+        this.output = output;
+        this.table = table;
+    }
+
+    /**
+     * Builds the table of an operation whose output has the same range as
+     * the input
+     *
+     * @param range
+     * @param operation
+     * @return LookupTable
+     */
+    public static LookupTable build(Range<Integer> range, PointOperation operation) {
+        return build(range, range, operation);
+    }
+
+    /**
+     * Builds the table of an operation
+     *
+     * @param input
+     * @param output
+     * @param operation
+     * @return LookupTable
+     */
+    public static LookupTable build(Range<Integer> input, Range<Integer> output, PointOperation operation) {
+        int lower = input.getLower();
+        int[] table = new int[input.getHigher() - lower + 1];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = output.limit(operation.apply(lower + i));
+        }
+        return new LookupTable(input, output, table);
+    }
+
+    /**
+     * Returns the table that applies this table and then the operation,
+     * limiting the intermediate values like separate operations would
+     *
+     * @param operation
+     * @return LookupTable
+     */
+    public LookupTable then(PointOperation operation) {
+        return then(operation, output);
+    }
+
+    /**
+     * Returns the table that applies this table and then the operation, whose
+     * output has another range
+     *
+     * @param operation
+     * @param range
+     * @return LookupTable
+     */
+    public LookupTable then(PointOperation operation, Range<Integer> range) {
+        int[] result = new int[table.length];
+        for (int i = 0; i < table.length; i++) {
+            result[i] = range.limit(operation.apply(table[i]));
+        }
+        return new LookupTable(input, range, result);
+    }
+
+    /**
+     * Returns the table that applies this table and then the next one
+     *
+     * @param next
+     * @return LookupTable
+     */
+    public LookupTable then(LookupTable next) {
+        int[] result = new int[table.length];
+        for (int i = 0; i < table.length; i++) {
+            result[i] = next.get(table[i]);
+        }
+        return new LookupTable(input, next.output, result);
+    }
+
+    /**
+     * Returns the output value of an input value
+     *
+     * @param value
+     * @return int
+     */
+    public int get(int value) {
+        int index = value - input.getLower();
+        return table[index < 0 ? 0 : index >= table.length ? table.length - 1 : index];
+    }
+
+    /**
+     * Returns the input range
+     *
+     * @return {@code Range<Integer>}
+     */
+    public Range<Integer> getInputRange() {
+        return input;
+    }
+
+    /**
+     * Returns the output range
+     *
+     * @return {@code Range<Integer>}
+     */
+    public Range<Integer> getOutputRange() {
+        return output;
+    }
+
+    /**
+     * Applies the table to every channel of the image
+     *
+     * @param image
+     * @return Image
+     */
+    public Image apply(Image image) {
+        int[][][] source = image.getData();
+        int[][][] target = new int[image.getChannelCount()][image.getWidth()][image.getHeight()];
+        for (int channel = 0; channel < source.length; channel++) {
+            apply(source[channel], target[channel]);
+        }
+        return new Image(target, output);
+    }
+
+    /**
+     * Applies the table to a channel, indexed by [x][y], in parallel over the
+     * columns
+     *
+     * @param source
+     * @param target
+     */
+    public void apply(int[][] source, int[][] target) {
+        int lower = input.getLower();
+        int last = table.length - 1;
+        IntStream.range(0, source.length).parallel().forEach((x) -> {
+            int[] from = source[x];
+            int[] to = target[x];
+            for (int y = 0; y < from.length; y++) {
+                int index = from[y] - lower;
+                to[y] = table[index < 0 ? 0 : index > last ? last : index];
+            }
+        });
+    }
+
+    /**
+     * Applies the table to the mean of the channels of each pixel, truncated,
+     * writing a single channel indexed by [x][y]
+     *
+     * @param image
+     * @param target
+     */
+    public void applyToMean(Image image, int[][] target) {
+        int[][][] source = image.getData();
+        if (source.length == 1) {
+            apply(source[0], target);
+            return;
+        }
+        int channels = source.length;
+        int lower = input.getLower();
+        int last = table.length - 1;
+        IntStream.range(0, image.getWidth()).parallel().forEach((x) -> {
+            int[] to = target[x];
+            for (int y = 0; y < to.length; y++) {
+                int sum = 0;
+                for (int channel = 0; channel < channels; channel++) {
+                    sum += source[channel][x][y];
+                }
+                int index = Math.floorDiv(sum, channels) - lower;
+                to[y] = table[index < 0 ? 0 : index > last ? last : index];
+            }
+        });
+    }
+
+}
@@ -0,0 +1,93 @@
+package visnode.pdi.point;
+
+import org.paim.commons.Range;
+
+/**
+ * Operation that maps each pixel value to a new value, regardless of its
+ * position and of its neighbours
+ */
+@FunctionalInterface
+public interface PointOperation {
+
+    /**
+     * Applies the operation to a value. The result is limited to the range
+     * of the output by the {@link LookupTable}
+     *
+     * @param value
+     * @return int
+     */
+    public int apply(int value);
+
+    /**
+     * Returns the operation that applies this operation and then the next
+     *
+     * @param next
+     * @return PointOperation
+     */
+    public default PointOperation then(PointOperation next) {
+        return (value) -> next.apply(apply(value));
+    }
+
+    /**
+     * Returns an operation that adds the brightness to the value
+     *
+     * @param brightness
+     * @return PointOperation
+     */
+    public static PointOperation brightness(int brightness) {
+        return (value) -> value + brightness;
+    }
+
+    /**
+     * Returns an operation that multiplies the value by the contrast,
+     * truncating the result
+     *
+     * @param contrast
+     * @return PointOperation
+     */
+    public static PointOperation contrast(double contrast) {
+        return (value) -> (int) (value * contrast);
+    }
+
+    /**
+     * Returns an operation that inverts the value inside of the range
+     *
+     * @param range
+     * @return PointOperation
+     */
+    public static PointOperation invert(Range<Integer> range) {
+        int sum = range.getLower() + range.getHigher();
+        return (value) -> sum - value;
+    }
+
+    /**
+     * Returns an operation that applies the gamma to the value normalized
+     * inside of the range, rounding the result
+     *
+     * @param gamma
+     * @param range
+     * @return PointOperation
+     */
+    public static PointOperation gamma(double gamma, Range<Integer> range) {
+        int lower = range.getLower();
+        double size = range.getHigher() - lower;
+        if (size <= 0) {
+            return (value) -> value;
+        }
+        return (value) -> lower + (int) Math.round(size * Math.pow(Math.max(0, value - lower) / size, gamma));
+    }
+
+    /**
+     * Returns an operation that maps the values lower than the threshold to
+     * the low value, and the others to the high value
+     *
+     * @param threshold
+     * @param low
+     * @param high
+     * @return PointOperation
+     */
+    public static PointOperation threshold(int threshold, int low, int high) {
+        return (value) -> value < threshold ? low : high;
+    }
+
+}
@@ -0,0 +1,78 @@
+package visnode.pdi.process;
+
+import java.util.stream.IntStream;
+import org.paim.commons.BinaryImage;
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+import visnode.commons.Input;
+import visnode.commons.Output;
+import visnode.pdi.Process;
+import visnode.pdi.convolution.IntegralImage;
+
+/**
+ * Process for applying a local mean threshold on a image.
+ * <p>
+ * Each pixel of the first channel is compared with the mean of the square
+ * window around it, minus the offset. The means are read from an integral
+ * image, so the cost doesn't depend on the mask size.
+ */
+public class AdaptiveThresholdProcess implements Process {
+
+    /** Default mask size */
+    private static final int DEFAULT_MASK_SIZE = 15;
+    /** The image */
+    private final Image image;
+    /** Mask size */
+    private final int maskSize;
+    /** Offset subtracted from the mean */
+    private final int offset;
+    /** The result image */
+    private BinaryImage resultImage;
+
+    /**
+     * Creates a new adaptive threshold process
+     *
+     * @param image
+     * @param maskSize
+     * @param offset
+     */
+    public AdaptiveThresholdProcess(@Input("image") Image image, @Input("maskSize") Integer maskSize, @Input("offset") Integer offset) {
+        if (image == null) {
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
+        }
+        this.maskSize = maskSize == null || maskSize <= 0 ? DEFAULT_MASK_SIZE : maskSize;
+        this.offset = offset == null ? 0 : offset;
+    }
+
+    @Override
+    public void process() {
+        resultImage = ImageFactory.buildBinaryImage(image.getWidth(), image.getHeight());
+        if (image.getChannelCount() == 0) {
+            return;
+        }
+        IntegralImage integral = new IntegralImage(image);
+        int[][] data = image.getData()[0];
+        int[][] output = resultImage.getData()[0];
+        int before = maskSize / 2;
+        int after = maskSize - 1 - before;
+        IntStream.range(0, image.getWidth()).parallel().forEach((x) -> {
+            for (int y = 0; y < image.getHeight(); y++) {
+                double mean = integral.mean(0, x - before, y - before, x + after, y + after);
+                output[x][y] = data[x][y] >= mean - offset ? 1 : 0;
+            }
+        });
+    }
+
+    /**
+     * Returns the output image
+     *
+     * @return BinaryImage
+     */
+    @Output("image")
+    public BinaryImage getImage() {
+        return resultImage;
+    }
+
+}
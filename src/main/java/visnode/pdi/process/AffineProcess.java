@@ -0,0 +1,65 @@
+package visnode.pdi.process;
+
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+import visnode.commons.Angle;
+import visnode.commons.Input;
+import visnode.commons.Output;
+import visnode.pdi.geometry.AffineTransform;
+import visnode.pdi.geometry.Interpolation;
+import visnode.pdi.geometry.Resampler;
+
+/**
+ * Affine transform process
+ * <p>
+ * The image is scaled, rotated and translated with a single resampling.
+ * Following another geometric process, both transforms are combined and the
+ * original image is resampled once.
+ */
+public class AffineProcess implements visnode.pdi.Process {
+
+    /** Image */
+    private final Image image;
+    /** Transform */
+    private final AffineTransform transform;
+    /** Interpolation */
+    private final Interpolation interpolation;
+    /** Result image */
+    private Image resultImage;
+
+    /**
+     * Creates a new affine transform process
+     *
+     * @param image
+     * @param scaleX
+     * @param scaleY
+     * @param angle
+     * @param x
+     * @param y
+     * @param interpolation
+     */
+    public AffineProcess(@Input("image") Image image, @Input("scaleX") Double scaleX, @Input("scaleY") Double scaleY,
+            @Input("angle") Angle angle, @Input("x") Integer x, @Input("y") Integer y, @Input("interpolation") Interpolation interpolation) {
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
+        this.transform = AffineTransform.scale(scaleX == null ? 1 : scaleX, scaleY == null ? 1 : scaleY)
+                .then(AffineTransform.rotation(angle == null ? 0 : angle.intValue()))
+                .then(AffineTransform.translation(x == null ? 0 : x, y == null ? 0 : y));
+        this.interpolation = interpolation == null ? Interpolation.BILINEAR : interpolation;
+    }
+
+    @Override
+    public void process() {
+        resultImage = Resampler.transform(image, transform, interpolation);
+    }
+
+    /**
+     * Returns the output image
+     *
+     * @return Image
+     */
+    @Output("image")
+    public Image getImage() {
+        return resultImage;
+    }
+
+}
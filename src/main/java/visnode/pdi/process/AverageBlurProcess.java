@@ -4,32 +4,40 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.convolution.Convolution;
 
 /**
  * Process for Average blur
  */
 public class AverageBlurProcess implements visnode.pdi.Process {
 
-    /** Average blur process */
-    private final org.paim.pdi.AverageBlurProcess process;
+    /** Default mask size */
+    private static final int DEFAULT_MASK_SIZE = 3;
+    /** The image */
+    private final Image image;
+    /** Mask size */
+    private final int maskSize;
+    /** The result image */
+    private Image resultImage;
     
     /**
      * Creates a new Average blur process
      * 
      * @param image 
+     * @param maskSize 
      */
-    public AverageBlurProcess(@Input("image") Image image) {
-        Image resultImage = image;
+    public AverageBlurProcess(@Input("image") Image image, @Input("maskSize") Integer maskSize) {
         if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
         }
-        this.process = new org.paim.pdi.AverageBlurProcess(new Image(resultImage));
-        
+        this.maskSize = maskSize == null ? DEFAULT_MASK_SIZE : maskSize;
     }
 
     @Override
     public void process() {
-        process.process();
+        resultImage = Convolution.boxMean(image, maskSize);
     }
     
     /**
@@ -39,7 +47,7 @@ public class AverageBlurProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
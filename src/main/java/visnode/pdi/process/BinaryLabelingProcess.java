@@ -1,19 +1,28 @@
 package visnode.pdi.process;
 
+import java.util.List;
 import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import org.paim.pdi.ObjectList;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.binary.BitImage;
+import visnode.pdi.binary.Component;
+import visnode.pdi.binary.ComponentLabeler;
+import visnode.pdi.binary.Labeling;
 
 /**
  * Process for binary label
  */
 public class BinaryLabelingProcess implements Process {
 
-    /** binary label process */
-    private final org.paim.pdi.BinaryLabelingProcess process;
+    /** The image */
+    private final Image image;
+    /** Extracted objects */
+    private ObjectList objectList;
+    /** Components */
+    private List<Component> components;
 
     /**
      * Creates a new invert colors process
@@ -21,16 +30,18 @@ public class BinaryLabelingProcess implements Process {
      * @param image
      */
     public BinaryLabelingProcess(@Input("image") Image image) {
-        Image prcImage = image;
         if (image == null) {
-            prcImage = ImageFactory.buildEmptyImage();
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
         }
-        this.process = new org.paim.pdi.BinaryLabelingProcess(new Image(prcImage));
     }
 
     @Override
     public void process() {
-        process.process();
+        Labeling labeling = ComponentLabeler.label(BitImage.fromImage(image));
+        objectList = labeling.toObjectList();
+        components = labeling.getComponents();
     }
 
     /**
@@ -40,7 +51,17 @@ public class BinaryLabelingProcess implements Process {
      */
     @Output("objectList")
     public ObjectList getImage() {
-        return process.getExtractedObjects();
+        return objectList;
+    }
+
+    /**
+     * Returns the area, bounding box and centroid of each object
+     *
+     * @return {@code List<Component>}
+     */
+    @Output("components")
+    public List<Component> getComponents() {
+        return components;
     }
 
 }
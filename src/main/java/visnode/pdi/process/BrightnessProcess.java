@@ -5,14 +5,20 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.point.LookupTable;
+import visnode.pdi.point.PointOperation;
 
 /**
  * Process for adjusting the brightness of the image
  */
 public class BrightnessProcess implements Process {
     
-    /** Brightness process*/
-    private final org.paim.pdi.BrightnessProcess process;
+    /** Input image */
+    private final Image image;
+    /** Brightness */
+    private final int brightness;
+    /** Output image */
+    private Image output;
 
     /**
      * Creates a new brightness process
@@ -25,12 +31,13 @@ public class BrightnessProcess implements Process {
         if (image == null) {
             resultImage = ImageFactory.buildEmptyImage();
         }
-        this.process = new org.paim.pdi.BrightnessProcess(new Image(resultImage), brightness);
+        this.image = resultImage;
+        this.brightness = brightness;
     }
 
     @Override
     public void process() {
-        process.process();
+        output = LookupTable.build(image.getPixelValueRange(), PointOperation.brightness(brightness)).apply(image);
     }
 
     /**
@@ -40,7 +47,7 @@ public class BrightnessProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return output;
     }
     
 }
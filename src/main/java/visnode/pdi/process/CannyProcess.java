@@ -4,34 +4,65 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.commons.Threshold;
+import visnode.pdi.StagedProcess;
+import visnode.pdi.Stages;
+import visnode.pdi.edge.Canny;
 
 /**
  * Canny process for edge detection
+ * <p>
+ * The suppressed gradient is a stage depending on the image and the sigma, so
+ * changing only the thresholds redoes just the hysteresis. When the gradient
+ * is computed again, the buffer of the previous one is reused.
  */
-public class CannyProcess implements visnode.pdi.Process {
+public class CannyProcess implements StagedProcess {
+
+    /** Image */
+    private final Image image;
+    /** Standard deviation of the smoothing */
+    private final double sigma;
+    /** Low threshold */
+    private final int lowThreshold;
+    /** High threshold */
+    private final int highThreshold;
+    /** Stages of the run */
+    private Stages stages;
+    /** Result image */
+    private Image resultImage;
 
-    /** Canny process */
-    private final org.paim.pdi.CannyProcess process;
-    
     /**
      * Creates a new Canny process
-     * 
-     * @param image 
+     *
+     * @param image
+     * @param sigma
+     * @param lowThreshold
+     * @param highThreshold
      */
-    public CannyProcess(@Input("image") Image image) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.CannyProcess(new Image(resultImage));
-        
+    public CannyProcess(@Input("image") Image image, @Input("sigma") Double sigma,
+            @Input("lowThreshold") Threshold lowThreshold, @Input("highThreshold") Threshold highThreshold) {
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
+        this.sigma = sigma == null ? 1.4 : sigma;
+        this.lowThreshold = lowThreshold == null ? 20 : lowThreshold.intValue();
+        this.highThreshold = highThreshold == null ? 50 : highThreshold.intValue();
+        this.stages = Stages.uncached();
+    }
+
+    @Override
+    public void setStages(Stages stages) {
+        this.stages = stages;
     }
 
     @Override
     public void process() {
-        process.process();
+        float[] suppressed = stages.run("suppress", () -> {
+            return Canny.suppress(Canny.gradient(image, sigma), stages.recycle("suppress"));
+        }, "image", "sigma");
+        resultImage = stages.run("hysteresis", () -> {
+            return Canny.hysteresis(suppressed, image.getWidth(), image.getHeight(), lowThreshold, highThreshold).toImage(image);
+        }, "lowThreshold", "highThreshold");
     }
-    
+
     /**
      * Returns the output image
      *
@@ -39,7 +70,7 @@ public class CannyProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
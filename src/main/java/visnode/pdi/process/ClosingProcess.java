@@ -4,14 +4,18 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.binary.BitImage;
+import visnode.pdi.binary.Morphology;
 
 /**
  * Process for Closing
  */
 public class ClosingProcess implements visnode.pdi.Process {
 
-    /** Closing process */
-    private final org.paim.pdi.ClosingProcess process;
+    /** The image */
+    private final Image image;
+    /** The result image */
+    private Image resultImage;
     
     /**
      * Creates a new Closing process
@@ -19,17 +23,22 @@ public class ClosingProcess implements visnode.pdi.Process {
      * @param image 
      */
     public ClosingProcess(@Input("image") Image image) {
-        Image resultImage = image;
         if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
         }
-        this.process = new org.paim.pdi.ClosingProcess(new Image(resultImage));
-        
     }
 
     @Override
     public void process() {
+        if (BitImage.isBinary(image)) {
+            resultImage = Morphology.close(BitImage.fromImage(image)).toImage(image);
+            return;
+        }
+        org.paim.pdi.ClosingProcess process = new org.paim.pdi.ClosingProcess(new Image(image));
         process.process();
+        resultImage = process.getOutput();
     }
     
     /**
@@ -39,7 +48,7 @@ public class ClosingProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
@@ -5,14 +5,20 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.point.LookupTable;
+import visnode.pdi.point.PointOperation;
 
 /**
  * Process for adjusting the contrast of the image
  */
 public class ContrastProcess implements Process {
 
-    /** Contrast process */
-    private final org.paim.pdi.ContrastProcess process;
+    /** Input image */
+    private final Image image;
+    /** Contrast */
+    private final double contrast;
+    /** Output image */
+    private Image output;
     
     /**
      * Creates a new contrast process
@@ -25,12 +31,13 @@ public class ContrastProcess implements Process {
         if (image == null) {
             resultImage = ImageFactory.buildEmptyImage();
         }
-        this.process = new org.paim.pdi.ContrastProcess(new Image(resultImage), contrast);
+        this.image = resultImage;
+        this.contrast = contrast;
     }
 
     @Override
     public void process() {
-        process.process();
+        output = LookupTable.build(image.getPixelValueRange(), PointOperation.contrast(contrast)).apply(image);
     }
 
     /**
@@ -40,7 +47,7 @@ public class ContrastProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return output;
     }
     
 }
@@ -2,45 +2,59 @@ package visnode.pdi.process;
 
 import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
-import org.paim.pdi.PixelProcess;
 import visnode.application.ScriptRunner;
 import visnode.commons.ScriptValue;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.ScriptedProcess;
 
 /**
  * Dynamic pixel process
+ * <p>
+ * The rows of the image are split across worker threads, each one with its
+ * own script engine, unless the script declares {@code var sequential = true}.
  */
-public class DynamicPixelProcess extends PixelProcess<Image> implements visnode.pdi.Process {
+public class DynamicPixelProcess implements ScriptedProcess {
 
     /** The image */
+    private final Image image;
+    /** The result image */
     private final Image dynamicImage;
     /** Script runner */
     private final ScriptRunner scriptRunner;
 
     public DynamicPixelProcess(@Input("image") Image image, @Input("script") ScriptValue script) {
-        super(image);
-        Image resultImage;
         if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
+            this.image = ImageFactory.buildEmptyImage();
         } else {
-            resultImage = ImageFactory.
-                    buildEmptyImage(image);
+            this.image = image;
         }
-        this.dynamicImage = resultImage;
+        this.dynamicImage = ImageFactory.buildEmptyImage(this.image);
         this.scriptRunner = new ScriptRunner(script);
-        setFinalizer(() -> {
-            setOutput(dynamicImage);
-        });
     }
 
     @Override
-    protected void process(int channel, int x, int y, int value) {
-        Object ret = scriptRunner.invokeFunction("process", channel, x, y, value);
-        if (ret != null) {
-            int pixel = Integer.valueOf(ret.toString());
-            dynamicImage.set(channel, x, y, pixel);
+    public void setLogKey(Object key) {
+        scriptRunner.setLogKey(key);
+    }
+
+    @Override
+    public void process() {
+        int[][][] data = image.getData();
+        boolean implemented = scriptRunner.parallel(PixelFunction.class, image.getHeight(), (function, y) -> {
+            for (int channel = 0; channel < image.getChannelCount(); channel++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    double pixel = function.process(channel, x, y, data[channel][x][y]);
+                    if (!Double.isNaN(pixel)) {
+                        dynamicImage.set(channel, x, y, (int) pixel);
+                    }
+                }
+            }
+        });
+        if (!implemented) {
+            scriptRunner.logUndefined("process");
         }
+        scriptRunner.release();
     }
 
     /**
@@ -50,7 +64,26 @@ public class DynamicPixelProcess extends PixelProcess<Image> implements visnode.
      */
     @Output("image")
     public Image getImage() {
-        return super.getOutput();
+        return dynamicImage;
+    }
+
+    /**
+     * Script function called for each pixel. Returning undefined keeps the
+     * output pixel unchanged
+     */
+    public interface PixelFunction {
+
+        /**
+         * Processes a pixel
+         *
+         * @param channel
+         * @param x
+         * @param y
+         * @param value
+         * @return double
+         */
+        public double process(int channel, int x, int y, int value);
+
     }
 
 }
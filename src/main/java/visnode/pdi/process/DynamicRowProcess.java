@@ -0,0 +1,139 @@
+package visnode.pdi.process;
+
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+import visnode.application.ScriptRunner;
+import visnode.commons.Input;
+import visnode.commons.Output;
+import visnode.commons.ScriptValue;
+import visnode.pdi.ScriptedProcess;
+
+/**
+ * Dynamic row process
+ * <p>
+ * The script receives a whole row of a channel as an {@code int[]} and
+ * returns the transformed row, so the script is invoked once per row instead
+ * of once per pixel. Scripts written for the {@link DynamicPixelProcess} are
+ * also accepted, through an adapter that calls them for each pixel of the
+ * row. The rows are split across worker threads, each one with its own
+ * script engine, unless the script declares {@code var sequential = true}.
+ */
+public class DynamicRowProcess implements ScriptedProcess {
+
+    /** The image */
+    private final Image image;
+    /** The result image */
+    private final Image resultImage;
+    /** Script runner */
+    private final ScriptRunner scriptRunner;
+
+    /**
+     * Creates a new dynamic row process
+     *
+     * @param image
+     * @param script
+     */
+    public DynamicRowProcess(@Input("image") Image image, @Input("script") ScriptValue script) {
+        if (image == null) {
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
+        }
+        this.resultImage = ImageFactory.buildEmptyImage(this.image);
+        this.scriptRunner = new ScriptRunner(script);
+    }
+
+    @Override
+    public void setLogKey(Object key) {
+        scriptRunner.setLogKey(key);
+    }
+
+    @Override
+    public void process() {
+        int rows = image.getChannelCount() * image.getHeight();
+        Class<?> type = scriptRunner.implemented(RowFunction.class, DynamicPixelProcess.PixelFunction.class);
+        if (type == RowFunction.class) {
+            scriptRunner.parallel(RowFunction.class, rows, this::processRow);
+        } else if (type == DynamicPixelProcess.PixelFunction.class) {
+            scriptRunner.parallel(DynamicPixelProcess.PixelFunction.class, rows, (function, row) -> {
+                processRow(adapt(function), row);
+            });
+        } else {
+            scriptRunner.logUndefined("processRow/process");
+        }
+        scriptRunner.release();
+    }
+
+    /**
+     * Processes a row. Rows are numbered channel by channel
+     *
+     * @param function
+     * @param index
+     */
+    private void processRow(RowFunction function, int index) {
+        int width = image.getWidth();
+        int channel = index / image.getHeight();
+        int y = index % image.getHeight();
+        int[][] data = image.getData()[channel];
+        int[] row = new int[width];
+        for (int x = 0; x < width; x++) {
+            row[x] = data[x][y];
+        }
+        int[] result = function.processRow(channel, y, row);
+        if (result == null) {
+            result = row;
+        }
+        int length = Math.min(width, result.length);
+        for (int x = 0; x < length; x++) {
+            resultImage.set(channel, x, y, result[x]);
+        }
+    }
+
+    /**
+     * Adapts a pixel function to a row function
+     *
+     * @param pixelFunction
+     * @return RowFunction
+     */
+    private static RowFunction adapt(DynamicPixelProcess.PixelFunction pixelFunction) {
+        return (channel, y, row) -> {
+            int[] result = new int[row.length];
+            for (int x = 0; x < row.length; x++) {
+                double pixel = pixelFunction.process(channel, x, y, row[x]);
+                if (!Double.isNaN(pixel)) {
+                    result[x] = (int) pixel;
+                }
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Returns the output image
+     *
+     * @return Image
+     */
+    @Output("image")
+    public Image getImage() {
+        return resultImage;
+    }
+
+    /**
+     * Script function called for each row. The row may be modified in place,
+     * in which case the function may return undefined
+     */
+    public interface RowFunction {
+
+        /**
+         * Processes a row
+         *
+         * @param channel
+         * @param y
+         * @param row
+         * @return {@code int[]}
+         */
+        public int[] processRow(int channel, int y, int[] row);
+
+    }
+
+}
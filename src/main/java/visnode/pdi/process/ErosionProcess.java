@@ -4,14 +4,18 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.binary.BitImage;
+import visnode.pdi.binary.Morphology;
 
 /**
  * Process for erosion
  */
 public class ErosionProcess implements visnode.pdi.Process {
 
-    /** Erosion process */
-    private final org.paim.pdi.ErosionProcess process;
+    /** The image */
+    private final Image image;
+    /** The result image */
+    private Image resultImage;
     
     /**
      * Creates a new erosion process
@@ -19,17 +23,22 @@ public class ErosionProcess implements visnode.pdi.Process {
      * @param image 
      */
     public ErosionProcess(@Input("image") Image image) {
-        Image resultImage = image;
         if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
         }
-        this.process = new org.paim.pdi.ErosionProcess(new Image(resultImage));
-        
     }
 
     @Override
     public void process() {
+        if (BitImage.isBinary(image)) {
+            resultImage = Morphology.erode(BitImage.fromImage(image)).toImage(image);
+            return;
+        }
+        org.paim.pdi.ErosionProcess process = new org.paim.pdi.ErosionProcess(new Image(image));
         process.process();
+        resultImage = process.getOutput();
     }
     
     /**
@@ -39,7 +48,7 @@ public class ErosionProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
@@ -1,41 +1,82 @@
 package visnode.pdi.process;
 
-import org.paim.commons.Color;
+import java.awt.Color;
 import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import org.paim.commons.Point;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.binary.FloodFill;
 
 /**
  * Flood Fill Process
  */
 public class FloodFillProcess implements visnode.pdi.Process {
 
-    /** FloodFillProcess process */
-    private final org.paim.pdi.FloodFillProcess process;
-    
+    /** Image */
+    private final Image image;
+    /** Seed */
+    private final Point seed;
+    /** Replacement color */
+    private final Color replacement;
+    /** Tolerance */
+    private final int tolerance;
+    /** Connectivity */
+    private final int connectivity;
+    /** Result image */
+    private Image resultImage;
+
     /**
      * Creates a new FloodFillProcess process
-     * 
-     * @param image 
-     * @param seed 
-     * @param replacement 
+     *
+     * @param image
+     * @param seed
+     * @param replacement
+     * @param tolerance
+     * @param connectivity
      */
-    public FloodFillProcess(@Input("image") Image image, @Input("seed") Point seed, @Input("color") Color replacement) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.FloodFillProcess(new Image(resultImage), seed, replacement);
-        
+    public FloodFillProcess(@Input("image") Image image, @Input("seed") Point seed, @Input("color") Color replacement,
+            @Input("tolerance") Integer tolerance, @Input("connectivity") Integer connectivity) {
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
+        this.seed = seed;
+        this.replacement = replacement;
+        this.tolerance = tolerance == null ? 0 : tolerance;
+        this.connectivity = connectivity == null || connectivity != 8 ? 4 : 8;
     }
 
     @Override
     public void process() {
-        process.process();
+        if (seed == null || replacement == null) {
+            resultImage = new Image(image);
+            return;
+        }
+        resultImage = FloodFill.fill(image,
+                FloodFill.region(image, seed.getX(), seed.getY(), tolerance, connectivity),
+                buildColor(replacement));
     }
-    
+
+    /**
+     * Creates the color array, one value per channel of the image. Images
+     * without three channels are filled with the gray level of the color
+     *
+     * @param color
+     * @return {@code int[]}
+     */
+    private int[] buildColor(Color color) {
+        int channels = image.getChannelCount();
+        int[] values = new int[channels];
+        for (int channel = 0; channel < channels; channel++) {
+            int value;
+            if (channels == 3) {
+                value = channel == 0 ? color.getRed() : channel == 1 ? color.getGreen() : color.getBlue();
+            } else {
+                value = (color.getRed() + color.getGreen() + color.getBlue()) / 3;
+            }
+            values[channel] = Math.max(image.getPixelValueRange().getLower(), Math.min(image.getPixelValueRange().getHigher(), value));
+        }
+        return values;
+    }
+
     /**
      * Returns the output image
      *
@@ -43,7 +84,7 @@ public class FloodFillProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
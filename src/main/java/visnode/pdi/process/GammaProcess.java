@@ -0,0 +1,53 @@
+package visnode.pdi.process;
+
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+import visnode.commons.Input;
+import visnode.commons.Output;
+import visnode.pdi.Process;
+import visnode.pdi.point.LookupTable;
+import visnode.pdi.point.PointOperation;
+
+/**
+ * Process for adjusting the gamma of the image
+ */
+public class GammaProcess implements Process {
+    
+    /** Input image */
+    private final Image image;
+    /** Gamma */
+    private final double gamma;
+    /** Output image */
+    private Image output;
+
+    /**
+     * Creates a new gamma process
+     *
+     * @param image
+     * @param gamma
+     */
+    public GammaProcess(@Input("image") Image image, @Input("gamma") Double gamma) {
+        Image resultImage = image;
+        if (image == null) {
+            resultImage = ImageFactory.buildEmptyImage();
+        }
+        this.image = resultImage;
+        this.gamma = gamma;
+    }
+
+    @Override
+    public void process() {
+        output = LookupTable.build(image.getPixelValueRange(), PointOperation.gamma(gamma, image.getPixelValueRange())).apply(image);
+    }
+
+    /**
+     * Returns the output image
+     * 
+     * @return Image
+     */
+    @Output("image")
+    public Image getImage() {
+        return output;
+    }
+    
+}
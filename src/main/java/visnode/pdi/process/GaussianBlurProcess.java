@@ -5,14 +5,24 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.convolution.Convolution;
+import visnode.pdi.convolution.Kernel;
 
 /**
  * Gaussian Blur process
  */
 public class GaussianBlurProcess implements Process {
 
-    /** Gaussian Blur process */
-    private final org.paim.pdi.GaussianBlurProcess process;
+    /** Default sigma */
+    private static final double DEFAULT_SIGMA = 1.76;
+    /** Default mask size */
+    private static final int DEFAULT_MASK_SIZE = 5;
+    /** The image */
+    private final Image image;
+    /** The kernel */
+    private final Kernel kernel;
+    /** The result image */
+    private Image resultImage;
 
     /**
      * Creates a new Gaussian blur process
@@ -22,16 +32,20 @@ public class GaussianBlurProcess implements Process {
      * @param maskSize
      */
     public GaussianBlurProcess(@Input("image") Image image, @Input("sigma") Double sigma, @Input("maskSize") Integer maskSize) {
-        Image resultImage = image;
         if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
         }
-        this.process = new org.paim.pdi.GaussianBlurProcess(new Image(resultImage), sigma, maskSize);
+        this.kernel = Kernel.gaussian(
+                sigma == null ? DEFAULT_SIGMA : sigma,
+                maskSize == null ? DEFAULT_MASK_SIZE : maskSize
+        );
     }
 
     @Override
     public void process() {
-        process.process();
+        resultImage = Convolution.apply(image, kernel);
     }
 
     /**
@@ -41,7 +55,7 @@ public class GaussianBlurProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
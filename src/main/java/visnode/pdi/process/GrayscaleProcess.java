@@ -5,14 +5,17 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.point.Grayscale;
 
 /**
  * Process for converting a image to gray scale
  */
 public class GrayscaleProcess implements Process {
 
-    /** Gray scale process */
-    private final org.paim.pdi.GrayscaleProcess process;
+    /** Input image */
+    private final Image image;
+    /** Output image */
+    private Image output;
 
     /**
      * Creates a new gray scale process
@@ -24,7 +27,7 @@ public class GrayscaleProcess implements Process {
         if (image == null) {
             resultImage = ImageFactory.buildEmptyImage();
         }       
-        this.process = new org.paim.pdi.GrayscaleProcess(resultImage);
+        this.image = resultImage;
     }
 
     /**
@@ -34,11 +37,11 @@ public class GrayscaleProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return output;
     }
 
     @Override
     public void process() {
-        this.process.process();
+        this.output = Grayscale.mean(image);
     }
 }
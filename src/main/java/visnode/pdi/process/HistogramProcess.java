@@ -4,14 +4,17 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.statistics.ImageStatistics;
 
 /**
  * Histogram process 
  */
 public class HistogramProcess implements visnode.pdi.Process {
 
-    /** Histogram process */
-    private final org.paim.pdi.HistogramProcess process;
+    /** Input image */
+    private final Image image;
+    /** Statistics of the image */
+    private ImageStatistics statistics;
     
     /**
      * Creates a new Histogram process
@@ -19,17 +22,16 @@ public class HistogramProcess implements visnode.pdi.Process {
      * @param image 
      */
     public HistogramProcess(@Input("image") Image image) {
-        Image resultImage = image;
         if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
         }
-        this.process = new org.paim.pdi.HistogramProcess(new Image(resultImage));
-        
     }
 
     @Override
     public void process() {
-        process.process();
+        statistics = ImageStatistics.of(image);
     }
     
     /**
@@ -40,10 +42,10 @@ public class HistogramProcess implements visnode.pdi.Process {
      */
     @Output("valueWithLeastOccurences")
     public int getValueWithLeastOccurences() {
-        if (process.getOutput() == null) {
+        if (statistics == null || statistics.getPixelCount() == 0) {
             return 0;
         }
-        return process.getOutput().getValueWithLeastOccurences();
+        return statistics.getValueWithLeastOccurrences();
     }
 
     /**
@@ -54,10 +56,10 @@ public class HistogramProcess implements visnode.pdi.Process {
      */
     @Output("valueWithMaxOccurences")
     public int getValueWithMaxOccurences() {
-        if (process.getOutput() == null) {
+        if (statistics == null || statistics.getPixelCount() == 0) {
             return 0;
         }
-        return process.getOutput().getValueWithMaxOccurences();
+        return statistics.getValueWithMostOccurrences();
     }
     
 }
\ No newline at end of file
@@ -4,14 +4,22 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.geometry.AffineTransform;
+import visnode.pdi.geometry.Interpolation;
+import visnode.pdi.geometry.Resampler;
 
 /**
  * Horizontal mirroring image process
+ * <p>
+ * Following another geometric process, both transforms are combined and the
+ * original image is resampled once.
  */
 public class HorizontalMirroringProcess implements visnode.pdi.Process {
 
-    /** Horizontal mirroring process */
-    private final org.paim.pdi.HorizontalMirroringProcess process;
+    /** Image */
+    private final Image image;
+    /** Result image */
+    private Image resultImage;
     
     /**
      * Creates a new horizontal mirroring process
@@ -19,17 +27,12 @@ public class HorizontalMirroringProcess implements visnode.pdi.Process {
      * @param image 
      */
     public HorizontalMirroringProcess(@Input("image") Image image) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.HorizontalMirroringProcess(new Image(resultImage));
-        
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
     }
 
     @Override
     public void process() {
-        process.process();
+        resultImage = Resampler.transform(image, AffineTransform.horizontalMirroring(), Interpolation.NEAREST);
     }
     
     /**
@@ -39,7 +42,7 @@ public class HorizontalMirroringProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
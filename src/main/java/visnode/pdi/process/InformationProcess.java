@@ -5,14 +5,17 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.statistics.ImageStatistics;
 
 /**
  * Process for getting image informations
  */
 public class InformationProcess implements Process {
 
-    /** Information process */
-    private final org.paim.pdi.InformationProcess process;
+    /** Input image */
+    private final Image image;
+    /** Statistics of the image */
+    private ImageStatistics statistics;
 
     /**
      * Creates a new information process
@@ -24,22 +27,52 @@ public class InformationProcess implements Process {
         if (image == null) {
             resultImage = ImageFactory.buildEmptyImage();
         }
-        this.process = new org.paim.pdi.InformationProcess(resultImage);
+        this.image = resultImage;
     }
 
     @Override
     public void process() {
-        this.process.process();
+        this.statistics = ImageStatistics.of(image);
     }
 
     /**
-     * Returns the average
+     * Returns the average of all the channels, truncated
      *
      * @return int
      */
     @Output("average")
     public int getAverage() {
-        return process.getAverage();
+        return (int) statistics.getMean();
+    }
+
+    /**
+     * Returns the lowest value of all the channels
+     *
+     * @return int
+     */
+    @Output("minimum")
+    public int getMinimum() {
+        return statistics.getMinimum();
+    }
+
+    /**
+     * Returns the highest value of all the channels
+     *
+     * @return int
+     */
+    @Output("maximum")
+    public int getMaximum() {
+        return statistics.getMaximum();
+    }
+
+    /**
+     * Returns the variance of all the channels
+     *
+     * @return double
+     */
+    @Output("variance")
+    public double getVariance() {
+        return statistics.getVariance();
     }
 
 }
@@ -0,0 +1,48 @@
+package visnode.pdi.process;
+
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+import visnode.commons.Input;
+import visnode.commons.Output;
+import visnode.pdi.Process;
+import visnode.pdi.convolution.IntegralImage;
+
+/**
+ * Process for building the integral image of an image
+ */
+public class IntegralImageProcess implements Process {
+
+    /** The image */
+    private final Image image;
+    /** The integral image */
+    private IntegralImage integralImage;
+
+    /**
+     * Creates a new integral image process
+     *
+     * @param image
+     */
+    public IntegralImageProcess(@Input("image") Image image) {
+        if (image == null) {
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
+        }
+    }
+
+    @Override
+    public void process() {
+        integralImage = new IntegralImage(image);
+    }
+
+    /**
+     * Returns the integral image
+     *
+     * @return IntegralImage
+     */
+    @Output("integralImage")
+    public IntegralImage getIntegralImage() {
+        return integralImage;
+    }
+
+}
@@ -5,14 +5,18 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.point.LookupTable;
+import visnode.pdi.point.PointOperation;
 
 /**
  * Process for inverting the image colors
  */
 public class InvertColorProcess implements Process {
 
-    /** Invert color process */
-    private final org.paim.pdi.InvertColorProcess process;
+    /** Input image */
+    private final Image image;
+    /** Output image */
+    private Image output;
 
     /**
      * Creates a new invert colors process
@@ -24,12 +28,12 @@ public class InvertColorProcess implements Process {
         if (image == null) {
             resultImage = ImageFactory.buildEmptyImage();
         }
-        this.process = new org.paim.pdi.InvertColorProcess(new Image(resultImage));
+        this.image = resultImage;
     }
 
     @Override
     public void process() {
-        process.process();
+        output = LookupTable.build(image.getPixelValueRange(), PointOperation.invert(image.getPixelValueRange())).apply(image);
     }
     
     /**
@@ -39,7 +43,7 @@ public class InvertColorProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return output;
     }
     
 }
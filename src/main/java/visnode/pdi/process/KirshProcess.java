@@ -4,14 +4,21 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.edge.EdgeOperator;
+import visnode.pdi.edge.Gradient;
+import visnode.pdi.edge.GradientEngine;
 
 /**
  * Edge detection using the Kirsh process
  */
 public class KirshProcess implements visnode.pdi.Process {
 
-    /** Roberts process */
-    private final org.paim.pdi.KirshProcess process;
+    /** Image */
+    private final Image image;
+    /** Result image */
+    private Image resultImage;
+    /** Direction image */
+    private Image directionImage;
 
     /**
      * Creates a new Kirsh process
@@ -19,17 +26,14 @@ public class KirshProcess implements visnode.pdi.Process {
      * @param image
      */
     public KirshProcess(@Input("image") Image image) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.KirshProcess(new Image(resultImage));
-
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
     }
 
     @Override
     public void process() {
-        process.process();
+        Gradient gradient = GradientEngine.compute(image, EdgeOperator.KIRSCH, true);
+        resultImage = gradient.toImage(image.getPixelValueRange());
+        directionImage = gradient.toDirectionImage();
     }
 
     /**
@@ -39,7 +43,17 @@ public class KirshProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
+    }
+
+    /**
+     * Returns the gradient direction, in degrees
+     *
+     * @return Image
+     */
+    @Output("direction")
+    public Image getDirection() {
+        return directionImage;
     }
 
 }
@@ -4,34 +4,66 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
-import visnode.pdi.Process;
+import visnode.commons.Threshold;
+import visnode.pdi.StagedProcess;
+import visnode.pdi.Stages;
+import visnode.pdi.edge.MarrHildreth;
 
 /**
  * Marr and Hildreth process for edge detection
+ * <p>
+ * The laplacian of the gaussian is a stage depending on the image, the sigma
+ * and the mode, so changing only the threshold redoes just the zero crossings.
  */
-public class MarrHildrethProcess implements Process {
+public class MarrHildrethProcess implements StagedProcess {
+
+    /** Image */
+    private final Image image;
+    /** Standard deviation of the smoothing */
+    private final double sigma;
+    /** Threshold of the zero crossings */
+    private final int threshold;
+    /** Mode of computation of the laplacian */
+    private final MarrHildreth.Mode mode;
+    /** Stages of the run */
+    private Stages stages;
+    /** Result image */
+    private Image resultImage;
 
-    /** Marr and Hildreth process */
-    private final org.paim.pdi.MarrHildrethProcess process;
-    
     /**
      * Creates a new Marr and Hildreth process
-     * 
-     * @param image 
+     *
+     * @param image
+     * @param sigma
+     * @param threshold
+     * @param mode
      */
-    public MarrHildrethProcess(@Input("image") Image image) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.MarrHildrethProcess(new Image(resultImage));
+    public MarrHildrethProcess(@Input("image") Image image, @Input("sigma") Double sigma, @Input("threshold") Threshold threshold, @Input("mode") MarrHildreth.Mode mode) {
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
+        this.sigma = sigma == null ? 2 : sigma;
+        this.threshold = threshold == null ? 5 : threshold.intValue();
+        this.mode = mode == null ? MarrHildreth.Mode.QUALITY : mode;
+        this.stages = Stages.uncached();
+    }
+
+    @Override
+    public void setStages(Stages stages) {
+        this.stages = stages;
     }
 
     @Override
     public void process() {
-        process.process();
+        MarrHildreth.Response response = stages.run("laplacian", () -> {
+            return MarrHildreth.detect(image, sigma, threshold, mode);
+        }, "image", "sigma", "mode");
+        resultImage = stages.run("zeroCrossings", () -> {
+            if (response.getThreshold() == threshold) {
+                return response.getEdges().toImage(image);
+            }
+            return MarrHildreth.zeroCrossings(response.getLaplacian(), image.getWidth(), image.getHeight(), threshold).toImage(image);
+        }, "threshold");
     }
-    
+
     /**
      * Returns the output image
      *
@@ -39,7 +71,7 @@ public class MarrHildrethProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
@@ -1,7 +1,9 @@
 package visnode.pdi.process;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import jdk.nashorn.api.scripting.ScriptObjectMirror;
 import org.paim.commons.BinaryImage;
@@ -12,12 +14,12 @@ import visnode.application.ScriptRunner;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.commons.ScriptValue;
-import visnode.pdi.Process;
+import visnode.pdi.ScriptedProcess;
 
 /**
  * Process responsible for object extractions
  */
-public class ObjectExtractionProcess implements Process {
+public class ObjectExtractionProcess implements ScriptedProcess {
 
     /** List of objects */
     private final ObjectList objectList;
@@ -41,9 +43,19 @@ public class ObjectExtractionProcess implements Process {
         this.resultImage = ImageFactory.buildBinaryImage(1, 1);
     }
 
+    @Override
+    public void setLogKey(Object key) {
+        scriptRunner.setLogKey(key);
+    }
+
     @Override
     public void process() {
         if (objectList == null) {
+            scriptRunner.release();
+            return;
+        }
+        if (processObjects()) {
+            scriptRunner.release();
             return;
         }
         Object obj = scriptRunner.invokeFunction("process", objectList);
@@ -66,8 +78,37 @@ public class ObjectExtractionProcess implements Process {
         } else {
             objectListOut.clear();
         }
+        scriptRunner.release();
     }
     
+    /**
+     * Processes each object with the {@code processObject} script function,
+     * in parallel. An object is kept if the function returns true, replaced
+     * if it returns another object and dropped otherwise
+     *
+     * @return boolean true if the script defines the function
+     */
+    private boolean processObjects() {
+        List<ExtractedObject> objects = new ArrayList<>(objectList);
+        ExtractedObject[] results = new ExtractedObject[objects.size()];
+        boolean implemented = scriptRunner.parallel(ObjectFunction.class, objects.size(), (function, index) -> {
+            Object result = function.processObject(objects.get(index));
+            if (result instanceof ExtractedObject) {
+                results[index] = (ExtractedObject) result;
+            } else if (Boolean.TRUE.equals(result)) {
+                results[index] = objects.get(index);
+            }
+        });
+        if (!implemented) {
+            return false;
+        }
+        objectListOut = Arrays.stream(results).filter(Objects::nonNull).collect(Collectors.toList());
+        if (!objectListOut.isEmpty()) {
+            resultImage = resultFromObjects(objectListOut);
+        }
+        return true;
+    }
+
     /**
      * Creates the result from a list of objects
      * 
@@ -115,4 +156,19 @@ public class ObjectExtractionProcess implements Process {
         return objectListOut;
     }
 
+    /**
+     * Script function called for each object
+     */
+    public interface ObjectFunction {
+
+        /**
+         * Processes an object
+         *
+         * @param object
+         * @return Object
+         */
+        public Object processObject(ExtractedObject object);
+
+    }
+
 }
@@ -0,0 +1,95 @@
+package visnode.pdi.process;
+
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+import org.paim.commons.ImageFactory;
+import visnode.commons.Input;
+import visnode.commons.Output;
+import visnode.commons.ScriptValue;
+import visnode.gui.ScriptValueEditorLog;
+import visnode.pdi.ScriptedProcess;
+import visnode.pdi.formula.Formula;
+import visnode.pdi.formula.FormulaContext;
+import visnode.pdi.formula.FormulaException;
+import visnode.pdi.formula.FormulaParser;
+
+/**
+ * Pixel formula process
+ * <p>
+ * The formula is parsed once and evaluated natively for each pixel, without
+ * a script engine. The columns of the image are evaluated in parallel. Parse
+ * errors are sent to the log of the formula, leaving the output empty.
+ */
+public class PixelFormulaProcess implements ScriptedProcess {
+
+    /** The image */
+    private final Image image;
+    /** The formula */
+    private final ScriptValue formula;
+    /** The result image */
+    private final Image resultImage;
+    /** Key of the log */
+    private Object logKey;
+
+    /**
+     * Creates a new pixel formula process
+     *
+     * @param image
+     * @param formula
+     */
+    public PixelFormulaProcess(@Input("image") Image image, @Input("formula") ScriptValue formula) {
+        if (image == null) {
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
+        }
+        this.formula = formula;
+        this.resultImage = ImageFactory.buildEmptyImage(this.image);
+        this.logKey = formula != null && formula.hasValue() ? formula.getValue() : null;
+    }
+
+    @Override
+    public void setLogKey(Object key) {
+        this.logKey = key;
+    }
+
+    @Override
+    public void process() {
+        if (formula == null || !formula.hasValue()) {
+            return;
+        }
+        Formula compiled;
+        try {
+            compiled = new FormulaParser().parse(formula.getValue());
+        } catch (FormulaException e) {
+            ScriptValueEditorLog.get().next(logKey, e.getMessage() + "\n");
+            return;
+        }
+        int lower = image.getPixelValueRange().getLower();
+        int higher = image.getPixelValueRange().getHigher();
+        int[][][] data = resultImage.getData();
+        IntStream.range(0, image.getWidth()).parallel().forEach((x) -> {
+            FormulaContext context = new FormulaContext(image);
+            for (int channel = 0; channel < image.getChannelCount(); channel++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    context.set(channel, x, y);
+                    double value = compiled.evaluate(context);
+                    if (!Double.isNaN(value)) {
+                        data[channel][x][y] = (int) Math.max(lower, Math.min(higher, value));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the output image
+     *
+     * @return Image
+     */
+    @Output("image")
+    public Image getImage() {
+        return resultImage;
+    }
+
+}
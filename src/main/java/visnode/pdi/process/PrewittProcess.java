@@ -5,34 +5,38 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.edge.EdgeOperator;
+import visnode.pdi.edge.Gradient;
+import visnode.pdi.edge.GradientEngine;
 
 /**
  * Prewitt process for edge detection
  */
 public class PrewittProcess implements Process {
 
-    /** Prewitt process */
-    private final org.paim.pdi.PrewittProcess process;
-    
+    /** Image */
+    private final Image image;
+    /** Result image */
+    private Image resultImage;
+    /** Direction image */
+    private Image directionImage;
+
     /**
      * Creates a new Prewitt process
-     * 
-     * @param image 
+     *
+     * @param image
      */
     public PrewittProcess(@Input("image") Image image) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.PrewittProcess(new Image(resultImage));
-        
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
     }
 
     @Override
     public void process() {
-        process.process();
+        Gradient gradient = GradientEngine.compute(image, EdgeOperator.PREWITT, true);
+        resultImage = gradient.toImage(image.getPixelValueRange());
+        directionImage = gradient.toDirectionImage();
     }
-    
+
     /**
      * Returns the output image
      *
@@ -40,7 +44,17 @@ public class PrewittProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
+    }
+
+    /**
+     * Returns the gradient direction, in degrees
+     *
+     * @return Image
+     */
+    @Output("direction")
+    public Image getDirection() {
+        return directionImage;
     }
 
 }
@@ -1,6 +1,8 @@
 package visnode.pdi.process;
 
 import visnode.pdi.Process;
+import visnode.pdi.ScriptedProcess;
+import visnode.pdi.StagedProcess;
 import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -30,8 +32,13 @@ public class ProcessLoader {
         Set<Class<? extends Process>> classes = reflections.
                 getSubTypesOf(Process.class).stream().
                 collect(Collectors.toSet());
+        // Supertypes outside of the package aren't scanned
+        classes.addAll(reflections.getSubTypesOf(StagedProcess.class));
+        classes.addAll(reflections.getSubTypesOf(ScriptedProcess.class));
         classes.add(DynamicPixelProcess.class);
+        classes.add(DynamicRowProcess.class);
         classes.add(ObjectExtractionProcess.class);
+        classes.add(PixelFormulaProcess.class);
         classes.add(ScriptProcess.class);
         classes.add(InputProcess.class);
         return Collections.unmodifiableSet(classes);
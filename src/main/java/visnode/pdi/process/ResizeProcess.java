@@ -4,14 +4,26 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.geometry.AffineTransform;
+import visnode.pdi.geometry.Interpolation;
+import visnode.pdi.geometry.Resampler;
 
 /**
  * Resize image process
+ * <p>
+ * Following another geometric process, both transforms are combined and the
+ * original image is resampled once.
  */
 public class ResizeProcess implements visnode.pdi.Process {
 
-    /** Resize process */
-    private final org.paim.pdi.ResizeProcess process;
+    /** Image */
+    private final Image image;
+    /** Horizontal scale */
+    private final double sizeX;
+    /** Vertical scale */
+    private final double sizeY;
+    /** Result image */
+    private Image resultImage;
     
     /**
      * Creates a new resize process
@@ -21,17 +33,14 @@ public class ResizeProcess implements visnode.pdi.Process {
      * @param sizeY 
      */
     public ResizeProcess(@Input("image") Image image, @Input("sizeX") Double sizeX, @Input("sizeY") Double sizeY) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.ResizeProcess(new Image(resultImage), sizeX, sizeY);
-        
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
+        this.sizeX = sizeX == null ? 1 : sizeX;
+        this.sizeY = sizeY == null ? 1 : sizeY;
     }
 
     @Override
     public void process() {
-        process.process();
+        resultImage = Resampler.transform(image, AffineTransform.scale(sizeX, sizeY), Interpolation.NEAREST);
     }
     
     /**
@@ -41,7 +50,7 @@ public class ResizeProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
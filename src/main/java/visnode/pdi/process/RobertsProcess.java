@@ -5,34 +5,38 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.edge.EdgeOperator;
+import visnode.pdi.edge.Gradient;
+import visnode.pdi.edge.GradientEngine;
 
 /**
  * Roberts process to edge detection
  */
 public class RobertsProcess implements Process {
 
-    /** Roberts process */
-    private final org.paim.pdi.RobertsProcess process;
-    
+    /** Image */
+    private final Image image;
+    /** Result image */
+    private Image resultImage;
+    /** Direction image */
+    private Image directionImage;
+
     /**
      * Creates a new Roberts process
-     * 
-     * @param image 
+     *
+     * @param image
      */
     public RobertsProcess(@Input("image") Image image) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.RobertsProcess(new Image(resultImage));
-        
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
     }
 
     @Override
     public void process() {
-        process.process();
+        Gradient gradient = GradientEngine.compute(image, EdgeOperator.ROBERTS, true);
+        resultImage = gradient.toImage(image.getPixelValueRange());
+        directionImage = gradient.toDirectionImage();
     }
-    
+
     /**
      * Returns the output image
      *
@@ -40,7 +44,17 @@ public class RobertsProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
+    }
+
+    /**
+     * Returns the gradient direction, in degrees
+     *
+     * @return Image
+     */
+    @Output("direction")
+    public Image getDirection() {
+        return directionImage;
     }
 
 }
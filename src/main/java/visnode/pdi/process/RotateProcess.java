@@ -5,35 +5,41 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Angle;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.geometry.AffineTransform;
+import visnode.pdi.geometry.Interpolation;
+import visnode.pdi.geometry.Resampler;
 
 /**
  * Rotate image process
+ * <p>
+ * Following another geometric process, both transforms are combined and the
+ * original image is resampled once.
  */
 public class RotateProcess implements visnode.pdi.Process {
 
-    /** Rotate process */
-    private final org.paim.pdi.RotateProcess process;
-
+    /** Image */
+    private final Image image;
+    /** Angle */
+    private final int angle;
+    /** Result image */
+    private Image resultImage;
+    
     /**
      * Creates a new rotate process
-     *
-     * @param image
-     * @param angle
+     * 
+     * @param image 
+     * @param angle 
      */
     public RotateProcess(@Input("image") Image image, @Input("angle") Angle angle) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.RotateProcess(new Image(resultImage), angle.intValue());
-
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
+        this.angle = angle == null ? 0 : angle.intValue();
     }
 
     @Override
     public void process() {
-        process.process();
+        resultImage = Resampler.transform(image, AffineTransform.rotation(angle), Interpolation.NEAREST);
     }
-
+    
     /**
      * Returns the output image
      *
@@ -41,7 +47,7 @@ public class RotateProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
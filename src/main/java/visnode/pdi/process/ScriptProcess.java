@@ -5,11 +5,12 @@ import visnode.commons.DynamicValue;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.commons.ScriptValue;
+import visnode.pdi.ScriptedProcess;
 
 /**
  * Script process
  */
-public class ScriptProcess implements visnode.pdi.Process {
+public class ScriptProcess implements ScriptedProcess {
 
     /** Input value */
     private final DynamicValue input;
@@ -29,11 +30,17 @@ public class ScriptProcess implements visnode.pdi.Process {
         this.scriptRunner = new ScriptRunner(script);
     }
 
+    @Override
+    public void setLogKey(Object key) {
+        scriptRunner.setLogKey(key);
+    }
+
     @Override
     public void process() {
         if (input != null) {
             value = new DynamicValue(scriptRunner.invokeFunction("process", input.get()));
         }
+        scriptRunner.release();
     }
 
     @Output("value")
@@ -4,32 +4,75 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.StagedProcess;
+import visnode.pdi.Stages;
+import visnode.pdi.contour.EnergyField;
+import visnode.pdi.contour.Snake;
 
 /**
  * Snake process
+ * <p>
+ * The energy field is a stage depending only on the image, so changing the
+ * weights of the snake doesn't compute it again.
  */
-public class SnakeProcess implements visnode.pdi.Process {
+public class SnakeProcess implements StagedProcess {
 
-    /** Snake process */
-    private final org.paim.pdi.SnakeProcess process;
+    /** Standard deviation of the smoothing of the energy field */
+    private static final double SIGMA = 2;
+
+    /** Image */
+    private final Image image;
+    /** Maximum number of iterations */
+    private final int iterations;
+    /** Weight of the continuity */
+    private final double alpha;
+    /** Weight of the curvature */
+    private final double beta;
+    /** Weight of the external energy */
+    private final double gamma;
+    /** Weight of the pressure */
+    private final double pressure;
+    /** Stages of the run */
+    private Stages stages;
+    /** Result of the snake */
+    private Snake.Result result;
+    /** Result image */
+    private Image resultImage;
     
     /**
      * Creates a new snake process
      * 
      * @param image 
+     * @param iterations 
+     * @param alpha 
+     * @param beta 
+     * @param gamma 
+     * @param pressure 
      */
-    public SnakeProcess(@Input("image") Image image) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.SnakeProcess(new Image(resultImage), 1000, 1, 1, 1);
-        
+    public SnakeProcess(@Input("image") Image image, @Input("iterations") Integer iterations, @Input("alpha") Double alpha,
+            @Input("beta") Double beta, @Input("gamma") Double gamma, @Input("pressure") Double pressure) {
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
+        this.iterations = iterations == null ? 1000 : iterations;
+        this.alpha = alpha == null ? 1 : alpha;
+        this.beta = beta == null ? 1 : beta;
+        this.gamma = gamma == null ? 1 : gamma;
+        this.pressure = pressure == null ? 0.5 : pressure;
+        this.stages = Stages.uncached();
+    }
+
+    @Override
+    public void setStages(Stages stages) {
+        this.stages = stages;
     }
 
     @Override
     public void process() {
-        process.process();
+        EnergyField field = stages.run("energy", () -> {
+            return EnergyField.fromImage(image, SIGMA);
+        }, "image");
+        int[][] contour = Snake.initialContour(image.getWidth(), image.getHeight());
+        result = new Snake(alpha, beta, gamma, pressure, iterations).evolve(field, contour[0], contour[1]);
+        resultImage = result.toImage(image);
     }
     
     /**
@@ -39,7 +82,27 @@ public class SnakeProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
+    }
+
+    /**
+     * Returns the number of iterations
+     *
+     * @return int
+     */
+    @Output("iterations")
+    public int getIterations() {
+        return result.getIterations();
+    }
+
+    /**
+     * Returns the time until the convergence, in milliseconds
+     *
+     * @return double
+     */
+    @Output("time")
+    public double getTime() {
+        return result.getTime();
     }
 
 }
@@ -3,22 +3,30 @@ package visnode.pdi.process;
 import org.paim.commons.BinaryImage;
 import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
+import org.paim.commons.Range;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.commons.Threshold;
 import visnode.pdi.Process;
+import visnode.pdi.point.LookupTable;
+import visnode.pdi.point.PointOperation;
 
 /**
  * Process for applying a binary threshold on a image.
  * <p>
  * This process will return the lower boundary if the pixel is <b>lower than</b>
  * the threshold, and the higher boundary if the pixel is <b> higher than or 
- * equal to</b> the boundary.
+ * equal to</b> the boundary. Images with more than one channel are
+ * thresholded on the truncated mean of their channels.
  */
 public class ThresholdProcess implements Process {
 
-    /** Threshold process */
-    private final org.paim.pdi.ThresholdProcess process;
+    /** Input image */
+    private final Image image;
+    /** Threshold */
+    private final int threshold;
+    /** Output image */
+    private BinaryImage output;
 
     /**
      * Creates a new threshold process
@@ -31,7 +39,8 @@ public class ThresholdProcess implements Process {
         if (image == null) {
             resultImage = ImageFactory.buildEmptyImage();
         }        
-        this.process = new org.paim.pdi.ThresholdProcess(new Image(resultImage.getData(), resultImage.getPixelValueRange()), threshold.intValue());
+        this.image = resultImage;
+        this.threshold = threshold.intValue();
     }
 
     /**    
@@ -41,12 +50,14 @@ public class ThresholdProcess implements Process {
      */
     @Output("image")
     public BinaryImage getImage() {
-        return this.process.getOutput();
+        return this.output;
     }
 
     @Override
     public void process() {
-        this.process.process();
+        output = ImageFactory.buildBinaryImage(image.getWidth(), image.getHeight());
+        LookupTable.build(image.getPixelValueRange(), new Range<>(0, 1), PointOperation.threshold(threshold, 0, 1))
+                .applyToMean(image, output.getData()[0]);
     }
 
 }
@@ -4,14 +4,26 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.geometry.AffineTransform;
+import visnode.pdi.geometry.Interpolation;
+import visnode.pdi.geometry.Resampler;
 
 /**
  * Translate image process
+ * <p>
+ * Following another geometric process, both transforms are combined and the
+ * original image is resampled once.
  */
 public class TranslateProcess implements visnode.pdi.Process {
 
-    /** Translate process */
-    private final org.paim.pdi.TranslateProcess process;
+    /** Image */
+    private final Image image;
+    /** Horizontal translation */
+    private final int x;
+    /** Vertical translation */
+    private final int y;
+    /** Result image */
+    private Image resultImage;
     
     /**
      * Creates a new translate process
@@ -21,17 +33,14 @@ public class TranslateProcess implements visnode.pdi.Process {
      * @param y 
      */
     public TranslateProcess(@Input("image") Image image, @Input("x") Integer x, @Input("y") Integer y) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.TranslateProcess(new Image(resultImage), x, y);
-        
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
+        this.x = x == null ? 0 : x;
+        this.y = y == null ? 0 : y;
     }
 
     @Override
     public void process() {
-        process.process();
+        resultImage = Resampler.transform(image, AffineTransform.translation(x, y), Interpolation.NEAREST);
     }
     
     /**
@@ -41,7 +50,7 @@ public class TranslateProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
@@ -4,32 +4,35 @@ import org.paim.commons.Image;
 import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
+import visnode.pdi.geometry.AffineTransform;
+import visnode.pdi.geometry.Interpolation;
+import visnode.pdi.geometry.Resampler;
 
 /**
  * Vertical mirroring image process
+ * <p>
+ * Following another geometric process, both transforms are combined and the
+ * original image is resampled once.
  */
 public class VerticalMirroringProcess implements visnode.pdi.Process {
 
-    /** Vertical mirroring process */
-    private final org.paim.pdi.VerticalMirroringProcess process;
+    /** Image */
+    private final Image image;
+    /** Result image */
+    private Image resultImage;
     
     /**
-     * Creates a new horizontal mirroring process
+     * Creates a new vertical mirroring process
      * 
      * @param image 
      */
     public VerticalMirroringProcess(@Input("image") Image image) {
-        Image resultImage = image;
-        if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
-        }
-        this.process = new org.paim.pdi.VerticalMirroringProcess(new Image(resultImage));
-        
+        this.image = image == null ? ImageFactory.buildEmptyImage() : image;
     }
 
     @Override
     public void process() {
-        process.process();
+        resultImage = Resampler.transform(image, AffineTransform.verticalMirroring(), Interpolation.NEAREST);
     }
     
     /**
@@ -39,7 +42,7 @@ public class VerticalMirroringProcess implements visnode.pdi.Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
 }
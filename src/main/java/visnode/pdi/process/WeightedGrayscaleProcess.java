@@ -5,14 +5,23 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.point.Grayscale;
 
 /**
  * Process for Weighted gray scale 
  */
 public class WeightedGrayscaleProcess implements Process {
     
-    /** Weighted gray scale */
-    private final org.paim.pdi.WeightedGrayscaleProcess process;
+    /** Input image */
+    private final Image image;
+    /** Weight of the red channel */
+    private final double redWeight;
+    /** Weight of the green channel */
+    private final double greenWeight;
+    /** Weight of the blue channel */
+    private final double blueWeight;
+    /** Output image */
+    private Image output;
 
     /**
      * Creates a new Weighted gray scale process
@@ -27,12 +36,15 @@ public class WeightedGrayscaleProcess implements Process {
         if (image == null) {
             resultImage = ImageFactory.buildEmptyImage();
         }
-        this.process = new org.paim.pdi.WeightedGrayscaleProcess(new Image(resultImage), redWeight, greenWeight, blueWeight);
+        this.image = resultImage;
+        this.redWeight = redWeight;
+        this.greenWeight = greenWeight;
+        this.blueWeight = blueWeight;
     }
 
     @Override
     public void process() {
-        process.process();
+        output = Grayscale.weighted(image, redWeight, greenWeight, blueWeight);
     }
 
     /**
@@ -42,7 +54,7 @@ public class WeightedGrayscaleProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return output;
     }
     
 }
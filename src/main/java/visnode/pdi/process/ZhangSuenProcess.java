@@ -5,14 +5,18 @@ import org.paim.commons.ImageFactory;
 import visnode.commons.Input;
 import visnode.commons.Output;
 import visnode.pdi.Process;
+import visnode.pdi.binary.BitImage;
+import visnode.pdi.binary.Thinning;
 
 /**
  * Zhang Suen process for edge detection
  */
 public class ZhangSuenProcess implements Process {
 
-    /** Zhang Suen process */
-    private final org.paim.pdi.ZhangSuenProcess process;
+    /** The image */
+    private final Image image;
+    /** The result image */
+    private Image resultImage;
     
     /**
      * Creates a new Zhang Suen process
@@ -20,17 +24,22 @@ public class ZhangSuenProcess implements Process {
      * @param image 
      */
     public ZhangSuenProcess(@Input("image") Image image) {
-        Image resultImage = image;
         if (image == null) {
-            resultImage = ImageFactory.buildEmptyImage();
+            this.image = ImageFactory.buildEmptyImage();
+        } else {
+            this.image = image;
         }
-        this.process = new org.paim.pdi.ZhangSuenProcess(new Image(resultImage));
-        
     }
 
     @Override
     public void process() {
+        if (BitImage.isBinary(image)) {
+            resultImage = Thinning.zhangSuen(BitImage.fromImage(image)).toImage(image);
+            return;
+        }
+        org.paim.pdi.ZhangSuenProcess process = new org.paim.pdi.ZhangSuenProcess(new Image(image));
         process.process();
+        resultImage = process.getOutput();
     }
     
     /**
@@ -40,7 +49,7 @@ public class ZhangSuenProcess implements Process {
      */
     @Output("image")
     public Image getImage() {
-        return process.getOutput();
+        return resultImage;
     }
 
-}
\ No newline at end of file
+}
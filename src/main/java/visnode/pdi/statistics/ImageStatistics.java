@@ -0,0 +1,427 @@
+package visnode.pdi.statistics;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.stream.IntStream;
+import org.paim.commons.Image;
+
+/**
+ * Per-channel histograms, minimum, maximum, mean and variance of an image
+ * <p>
+ * Everything is computed in a single pass over the columns of the image, in
+ * parallel. Each thread accumulates its own partial histograms and sums, which
+ * are merged at the end, so there is no contention between the threads.
+ * <p>
+ * The statistics of the last images are cached by identity, so the processes
+ * consuming the same image reuse them. Images are expected not to change once
+ * their statistics have been computed, like the outputs of the nodes.
+ */
+public class ImageStatistics {
+
+    /** Number of images in the cache */
+    private static final int CACHE_SIZE = 8;
+    /** Cache of the last images, most recent first */
+    private static final LinkedList<Entry> CACHE = new LinkedList<>();
+
+    /** Lowest value of the histograms */
+    private final int lower;
+    /** Number of pixels per channel */
+    private final long pixelCount;
+    /** Histograms, indexed by [channel][value - lower] */
+    private final long[][] histograms;
+    /** Minimum of each channel */
+    private final int[] minimum;
+    /** Maximum of each channel */
+    private final int[] maximum;
+    /** Mean of each channel */
+    private final double[] mean;
+    /** Variance of each channel */
+    private final double[] variance;
+
+    /**
+     * Creates the statistics from the merged partials
+     *
+     * @param partial
+     * @param lower
+     * @param pixelCount
+     */
+    private ImageStatistics(Partial partial, int lower, long pixelCount) {
+        int channels = partial.histograms.length;
+        this.lower = lower;
+        this.pixelCount = pixelCount;
+        this.histograms = partial.histograms;
+        this.minimum = pixelCount == 0 ? new int[channels] : partial.minimum;
+        this.maximum = pixelCount == 0 ? new int[channels] : partial.maximum;
+        this.mean = new double[channels];
+        this.variance = new double[channels];
+        for (int channel = 0; channel < channels && pixelCount > 0; channel++) {
+            mean[channel] = (double) partial.sums[channel] / pixelCount;
+            variance[channel] = Math.max(0, partial.squares[channel] / pixelCount - mean[channel] * mean[channel]);
+        }
+    }
+
+    /**
+     * Returns the statistics of the image, from the cache if they have already
+     * been computed for this image instance
+     *
+     * @param image
+     * @return ImageStatistics
+     */
+    public static ImageStatistics of(Image image) {
+        synchronized (CACHE) {
+            Iterator<Entry> iterator = CACHE.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                Image cached = entry.image.get();
+                if (cached == null) {
+                    iterator.remove();
+                } else if (cached == image) {
+                    iterator.remove();
+                    CACHE.addFirst(entry);
+                    return entry.statistics;
+                }
+            }
+        }
+        ImageStatistics statistics = compute(image);
+        synchronized (CACHE) {
+            CACHE.addFirst(new Entry(image, statistics));
+            while (CACHE.size() > CACHE_SIZE) {
+                CACHE.removeLast();
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Computes the statistics of the image, without the cache. Values outside
+     * of the pixel value range are counted in the histogram at the nearest
+     * bound, but keep their value in the other statistics
+     *
+     * @param image
+     * @return ImageStatistics
+     */
+    public static ImageStatistics compute(Image image) {
+        int channels = image.getChannelCount();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int lower = image.getPixelValueRange().getLower();
+        int size = image.getPixelValueRange().getHigher() - lower + 1;
+        int[][][] data = image.getData();
+        Partial partial = IntStream.range(0, width).parallel().collect(
+                () -> new Partial(channels, size),
+                (accumulator, x) -> accumulator.accumulate(data, x, lower),
+                Partial::merge);
+        return new ImageStatistics(partial, lower, (long) width * height);
+    }
+
+    /**
+     * Returns the number of channels
+     *
+     * @return int
+     */
+    public int getChannelCount() {
+        return histograms.length;
+    }
+
+    /**
+     * Returns the number of pixels per channel
+     *
+     * @return long
+     */
+    public long getPixelCount() {
+        return pixelCount;
+    }
+
+    /**
+     * Returns the lowest value of the histograms
+     *
+     * @return int
+     */
+    public int getLower() {
+        return lower;
+    }
+
+    /**
+     * Returns the highest value of the histograms
+     *
+     * @return int
+     */
+    public int getHigher() {
+        return lower + histograms[0].length - 1;
+    }
+
+    /**
+     * Returns the number of occurrences of a value in a channel
+     *
+     * @param channel
+     * @param value
+     * @return long
+     */
+    public long getCount(int channel, int value) {
+        if (value < lower || value > getHigher()) {
+            return 0;
+        }
+        return histograms[channel][value - lower];
+    }
+
+    /**
+     * Returns the histogram of a channel, indexed by the value minus the
+     * lowest value
+     *
+     * @param channel
+     * @return {@code long[]}
+     */
+    public long[] getHistogram(int channel) {
+        return histograms[channel].clone();
+    }
+
+    /**
+     * Returns the histogram of all the channels together, indexed by the
+     * value minus the lowest value
+     *
+     * @return {@code long[]}
+     */
+    public long[] getHistogram() {
+        long[] histogram = new long[histograms[0].length];
+        for (long[] channel : histograms) {
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += channel[i];
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the minimum of a channel
+     *
+     * @param channel
+     * @return int
+     */
+    public int getMinimum(int channel) {
+        return minimum[channel];
+    }
+
+    /**
+     * Returns the minimum of all the channels
+     *
+     * @return int
+     */
+    public int getMinimum() {
+        return IntStream.of(minimum).min().orElse(0);
+    }
+
+    /**
+     * Returns the maximum of a channel
+     *
+     * @param channel
+     * @return int
+     */
+    public int getMaximum(int channel) {
+        return maximum[channel];
+    }
+
+    /**
+     * Returns the maximum of all the channels
+     *
+     * @return int
+     */
+    public int getMaximum() {
+        return IntStream.of(maximum).max().orElse(0);
+    }
+
+    /**
+     * Returns the mean of a channel
+     *
+     * @param channel
+     * @return double
+     */
+    public double getMean(int channel) {
+        return mean[channel];
+    }
+
+    /**
+     * Returns the mean of all the channels
+     *
+     * @return double
+     */
+    public double getMean() {
+        double sum = 0;
+        for (double value : mean) {
+            sum += value;
+        }
+        return mean.length == 0 ? 0 : sum / mean.length;
+    }
+
+    /**
+     * Returns the variance of a channel
+     *
+     * @param channel
+     * @return double
+     */
+    public double getVariance(int channel) {
+        return variance[channel];
+    }
+
+    /**
+     * Returns the variance of all the channels together
+     *
+     * @return double
+     */
+    public double getVariance() {
+        double total = getMean();
+        double sum = 0;
+        for (int channel = 0; channel < mean.length; channel++) {
+            double offset = mean[channel] - total;
+            sum += variance[channel] + offset * offset;
+        }
+        return mean.length == 0 ? 0 : sum / mean.length;
+    }
+
+    /**
+     * Returns the value with the least occurrences in all the channels. If
+     * multiple values have the same number of occurrences, returns the lowest
+     *
+     * @return int
+     */
+    public int getValueWithLeastOccurrences() {
+        long[] histogram = getHistogram();
+        int least = 0;
+        for (int i = 1; i < histogram.length; i++) {
+            if (histogram[i] < histogram[least]) {
+                least = i;
+            }
+        }
+        return lower + least;
+    }
+
+    /**
+     * Returns the value with the most occurrences in all the channels. If
+     * multiple values have the same number of occurrences, returns the highest
+     *
+     * @return int
+     */
+    public int getValueWithMostOccurrences() {
+        long[] histogram = getHistogram();
+        int most = 0;
+        for (int i = 1; i < histogram.length; i++) {
+            if (histogram[i] >= histogram[most]) {
+                most = i;
+            }
+        }
+        return lower + most;
+    }
+
+    /**
+     * Partial statistics accumulated by a thread
+     */
+    private static class Partial {
+
+        /** Histograms, indexed by [channel][value - lower] */
+        private final long[][] histograms;
+        /** Minimum of each channel */
+        private final int[] minimum;
+        /** Maximum of each channel */
+        private final int[] maximum;
+        /** Sum of each channel */
+        private final long[] sums;
+        /** Sum of the squares of each channel */
+        private final double[] squares;
+
+        /**
+         * Creates empty partial statistics
+         *
+         * @param channels
+         * @param size
+         */
+        public Partial(int channels, int size) {
+            this.histograms = new long[channels][size];
+            this.minimum = new int[channels];
+            this.maximum = new int[channels];
+            this.sums = new long[channels];
+            this.squares = new double[channels];
+            for (int channel = 0; channel < channels; channel++) {
+                minimum[channel] = Integer.MAX_VALUE;
+                maximum[channel] = Integer.MIN_VALUE;
+            }
+        }
+
+        /**
+         * Accumulates a column of every channel
+         *
+         * @param data
+         * @param x
+         * @param lower
+         */
+        public void accumulate(int[][][] data, int x, int lower) {
+            for (int channel = 0; channel < histograms.length; channel++) {
+                long[] histogram = histograms[channel];
+                int last = histogram.length - 1;
+                int min = minimum[channel];
+                int max = maximum[channel];
+                long sum = 0;
+                double square = 0;
+                for (int value : data[channel][x]) {
+                    int index = value - lower;
+                    histogram[index < 0 ? 0 : index > last ? last : index]++;
+                    if (value < min) {
+                        min = value;
+                    }
+                    if (value > max) {
+                        max = value;
+                    }
+                    sum += value;
+                    square += (double) value * value;
+                }
+                minimum[channel] = min;
+                maximum[channel] = max;
+                sums[channel] += sum;
+                squares[channel] += square;
+            }
+        }
+
+        /**
+         * Merges other partial statistics into these
+         *
+         * @param other
+         */
+        public void merge(Partial other) {
+            for (int channel = 0; channel < histograms.length; channel++) {
+                long[] histogram = histograms[channel];
+                long[] source = other.histograms[channel];
+                for (int i = 0; i < histogram.length; i++) {
+                    histogram[i] += source[i];
+                }
+                minimum[channel] = Math.min(minimum[channel], other.minimum[channel]);
+                maximum[channel] = Math.max(maximum[channel], other.maximum[channel]);
+                sums[channel] += other.sums[channel];
+                squares[channel] += other.squares[channel];
+            }
+        }
+
+    }
+
+    /**
+     * Entry of the cache
+     */
+    private static class Entry {
+
+        /** Image */
+        private final WeakReference<Image> image;
+        /** Statistics of the image */
+        private final ImageStatistics statistics;
+
+        /**
+         * Creates a new entry
+         *
+         * @param image
+         * @param statistics
+         */
+        public Entry(Image image, ImageStatistics statistics) {
+            this.image = new WeakReference<>(image);
+            this.statistics = statistics;
+        }
+
+    }
+
+}
@@ -0,0 +1,162 @@
+package visnode.application;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for the DICOM series indexer
+ */
+public class DicomSeriesIndexerTest {
+
+    /**
+     * Tests that the slices are ordered by location, then by instance number
+     * and then by name, with the files without these values ordered by name
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOrder() throws IOException {
+        File noHeader = createFile("g", new byte[16]);
+        File third = createFile("b", header("2", "10.5", null));
+        File second = createFile("c", header("3", "-2", null));
+        File first = createFile("d", header("1", "-2.5", null));
+        File fourth = createFile("e", header("1", null, null));
+        File fifth = createFile("f", header(null, null, null));
+        File[] expected = {first, second, third, fourth, fifth, noHeader};
+        DicomSeriesIndexer.Slice[] slices = new DicomSeriesIndexer().index(new File[] {noHeader, third, fifth, second, fourth, first});
+        assertEquals(expected.length, slices.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], slices[i].getFile());
+            assertEquals(0, slices[i].getFrame());
+        }
+    }
+
+    /**
+     * Tests that a file with multiple frames gives a slice per frame, in
+     * frame order, at the position of the file
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testFrames() throws IOException {
+        File single = createFile("a", header("1", "1", null));
+        File multi = createFile("b", header("2", "0", "3"));
+        DicomSeriesIndexer.Slice[] slices = new DicomSeriesIndexer().index(new File[] {single, multi});
+        assertEquals(4, slices.length);
+        for (int frame = 0; frame < 3; frame++) {
+            assertEquals(multi, slices[frame].getFile());
+            assertEquals(frame, slices[frame].getFrame());
+        }
+        assertEquals(single, slices[3].getFile());
+    }
+
+    /**
+     * Tests that the elements after the pixel data are not read
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStopsAtPixelData() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(header(null, null, null));
+        element(out, 0x7FE0, 0x0010, "OW", new byte[4]);
+        element(out, 0x0020, 0x1041, "DS", "-9".getBytes(StandardCharsets.US_ASCII));
+        File late = createFile("a", out.toByteArray());
+        File located = createFile("b", header(null, "0", null));
+        DicomSeriesIndexer.Slice[] slices = new DicomSeriesIndexer().index(new File[] {late, located});
+        assertEquals(located, slices[0].getFile());
+        assertEquals(late, slices[1].getFile());
+    }
+
+    /**
+     * Builds a header in explicit VR little endian
+     *
+     * @param instance
+     * @param location
+     * @param frames
+     * @return {@code byte[]}
+     * @throws IOException
+     */
+    private byte[] header(String instance, String location, String frames) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[128]);
+        out.write("DICM".getBytes(StandardCharsets.US_ASCII));
+        element(out, 0x0008, 0x0060, "CS", "CT".getBytes(StandardCharsets.US_ASCII));
+        if (instance != null) {
+            element(out, 0x0020, 0x0013, "IS", text(instance));
+        }
+        if (location != null) {
+            element(out, 0x0020, 0x1041, "DS", text(location));
+        }
+        if (frames != null) {
+            element(out, 0x0028, 0x0008, "IS", text(frames));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes an element with a short explicit VR
+     *
+     * @param out
+     * @param group
+     * @param element
+     * @param vr
+     * @param value
+     * @throws IOException
+     */
+    private void element(ByteArrayOutputStream out, int group, int element, String vr, byte[] value) throws IOException {
+        writeShort(out, group);
+        writeShort(out, element);
+        out.write(vr.getBytes(StandardCharsets.US_ASCII));
+        if (vr.equals("OW")) {
+            writeShort(out, 0);
+            writeShort(out, value.length);
+            writeShort(out, value.length >>> 16);
+        } else {
+            writeShort(out, value.length);
+        }
+        out.write(value);
+    }
+
+    /**
+     * Writes a little endian short
+     *
+     * @param out
+     * @param value
+     */
+    private void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    /**
+     * Returns a string value padded to an even length
+     *
+     * @param value
+     * @return {@code byte[]}
+     */
+    private byte[] text(String value) {
+        return (value.length() % 2 == 0 ? value : value + " ").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Creates a temporary file
+     *
+     * @param prefix
+     * @param content
+     * @return File
+     * @throws IOException
+     */
+    private File createFile(String prefix, byte[] content) throws IOException {
+        File file = File.createTempFile(prefix + "visnode", ".dcm");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+}
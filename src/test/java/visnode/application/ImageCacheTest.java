@@ -0,0 +1,116 @@
+package visnode.application;
+
+import java.io.File;
+import java.io.IOException;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the decoded image cache
+ */
+public class ImageCacheTest {
+
+    /**
+     * Tests that a cached image is returned while the file is unchanged
+     * 
+     * @throws IOException 
+     */
+    @Test
+    public void testHit() throws IOException {
+        ImageCache cache = new ImageCache(Long.MAX_VALUE);
+        File file = createTempFile();
+        Image image = createImage(2, 2);
+        assertNull(cache.get(file));
+        cache.put(file, image);
+        assertArrayEquals(image.getData(), cache.get(file).getData());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+    }
+
+    /**
+     * Tests that modifying the images put in or returned by the cache doesn't
+     * modify the cached image
+     * 
+     * @throws IOException 
+     */
+    @Test
+    public void testCopies() throws IOException {
+        ImageCache cache = new ImageCache(Long.MAX_VALUE);
+        File file = createTempFile();
+        Image image = createImage(2, 2);
+        cache.put(file, image);
+        image.set(0, 0, 0, 10);
+        Image first = cache.get(file);
+        assertNotSame(image, first);
+        assertEquals(0, first.get(0, 0, 0));
+        first.set(0, 1, 1, 20);
+        Image second = cache.get(file);
+        assertNotSame(first, second);
+        assertEquals(0, second.get(0, 1, 1));
+    }
+
+    /**
+     * Tests that modifying the file invalidates the entry
+     * 
+     * @throws IOException 
+     */
+    @Test
+    public void testModifiedFile() throws IOException {
+        ImageCache cache = new ImageCache(Long.MAX_VALUE);
+        File file = createTempFile();
+        cache.put(file, createImage(2, 2));
+        file.setLastModified(file.lastModified() - 10000);
+        assertNull(cache.get(file));
+    }
+
+    /**
+     * Tests that the least recently used entries are evicted when the weight
+     * limit is reached
+     * 
+     * @throws IOException 
+     */
+    @Test
+    public void testEviction() throws IOException {
+        // Each 2x2 single channel image weights 16 bytes
+        ImageCache cache = new ImageCache(32);
+        File first = createTempFile();
+        File second = createTempFile();
+        File third = createTempFile();
+        cache.put(first, createImage(2, 2));
+        cache.put(second, createImage(2, 2));
+        cache.get(first);
+        cache.put(third, createImage(2, 2));
+        assertEquals(2, cache.size());
+        assertEquals(32, cache.getWeight());
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+    }
+
+    /**
+     * Creates a temporary file
+     * 
+     * @return File
+     * @throws IOException 
+     */
+    private File createTempFile() throws IOException {
+        File file = File.createTempFile("visnode", ".png");
+        file.deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Creates a single channel image
+     * 
+     * @param width
+     * @param height
+     * @return Image
+     */
+    private Image createImage(int width, int height) {
+        return new Image(new int[1][width][height], new Range<>(0, 255));
+    }
+
+}
@@ -0,0 +1,150 @@
+package visnode.application;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+
+/**
+ * Unit tests for the input reader
+ */
+public class InputReaderTest {
+
+    /** Width of the test image */
+    private static final int WIDTH = 40;
+    /** Height of the test image */
+    private static final int HEIGHT = 30;
+
+    /**
+     * Tests that the maximum size subsamples the image
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMaxSize() throws IOException {
+        Image image = new InputReader(new ImageCache(Long.MAX_VALUE)).read(createFile(), DecodeOptions.full().maxSize(10));
+        assertImage(image, 10, 8, 0, 0, 4);
+    }
+
+    /**
+     * Tests that the region decodes only part of the image
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRegion() throws IOException {
+        Image image = new InputReader(new ImageCache(Long.MAX_VALUE)).read(createFile(), DecodeOptions.full().region(new Rectangle(8, 6, 12, 10)));
+        assertImage(image, 12, 10, 8, 6, 1);
+    }
+
+    /**
+     * Tests that the maximum size of a region is relative to the region
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testRegionMaxSize() throws IOException {
+        BufferedImage image = new InputReader(new ImageCache(Long.MAX_VALUE)).readBufferedImage(createFile(), DecodeOptions.full().region(new Rectangle(8, 6, 12, 10)).maxSize(6));
+        assertEquals(6, image.getWidth());
+        assertEquals(5, image.getHeight());
+        assertEquals(rgb(10, 8), image.getRGB(1, 1) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests that each decode option is cached separately
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCacheKeys() throws IOException {
+        ImageCache cache = new ImageCache(Long.MAX_VALUE);
+        InputReader reader = new InputReader(cache);
+        File file = createFile();
+        DecodeOptions small = DecodeOptions.full().maxSize(10);
+        DecodeOptions region = DecodeOptions.full().region(new Rectangle(8, 6, 12, 10));
+        reader.read(file, small);
+        reader.read(file, region);
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getMisses());
+        assertImage(reader.read(file, region), 12, 10, 8, 6, 1);
+        assertImage(reader.read(file, small), 10, 8, 0, 0, 4);
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.size());
+    }
+
+    /**
+     * Asserts the size and pixels of an image decoded from the test image
+     *
+     * @param image
+     * @param width
+     * @param height
+     * @param x0 Source position of the first pixel
+     * @param y0 Source position of the first pixel
+     * @param step Source pixels between two pixels
+     */
+    private void assertImage(Image image, int width, int height, int x0, int y0, int step) {
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                assertEquals(red(x0 + x * step), image.get(0, x, y));
+                assertEquals(green(y0 + y * step), image.get(1, x, y));
+            }
+        }
+    }
+
+    /**
+     * Creates a PNG whose pixels encode their position
+     *
+     * @return File
+     * @throws IOException
+     */
+    private File createFile() throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                image.setRGB(x, y, rgb(x, y));
+            }
+        }
+        File file = File.createTempFile("visnode", ".png");
+        file.deleteOnExit();
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+
+    /**
+     * Returns the color of a position of the test image
+     *
+     * @param x
+     * @param y
+     * @return int
+     */
+    private int rgb(int x, int y) {
+        return (red(x) << 16) | (green(y) << 8);
+    }
+
+    /**
+     * Returns the red value of a column of the test image
+     *
+     * @param x
+     * @return int
+     */
+    private int red(int x) {
+        return x * 5;
+    }
+
+    /**
+     * Returns the green value of a row of the test image
+     *
+     * @param y
+     * @return int
+     */
+    private int green(int y) {
+        return y * 5;
+    }
+
+}
@@ -0,0 +1,138 @@
+package visnode.application;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.script.Invocable;
+import javax.script.ScriptException;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the script engine pool
+ */
+public class ScriptEnginePoolTest {
+
+    /** Script that counts its calls in a global */
+    private static final String COUNTER = "var count = 0; function next() { return ++count; }";
+
+    /**
+     * Discards the engines of the previous tests
+     */
+    @Before
+    public void setUp() {
+        ScriptEnginePool.get().clear();
+    }
+
+    /**
+     * Tests that a reused engine runs the script in fresh globals
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFreshGlobals() throws Exception {
+        ScriptEnginePool pool = ScriptEnginePool.get();
+        ScriptEnginePool.PooledEngine engine = pool.acquire(COUNTER);
+        assertEquals(1, next(engine));
+        assertEquals(2, next(engine));
+        pool.release(engine);
+        long reused = pool.getReused();
+        ScriptEnginePool.PooledEngine again = pool.acquire(COUNTER);
+        assertSame(engine, again);
+        assertEquals(reused + 1, pool.getReused());
+        assertEquals(1, next(again));
+        pool.release(again);
+    }
+
+    /**
+     * Tests that only up to the maximum number of idle engines is kept for a
+     * script
+     *
+     * @throws ScriptException
+     */
+    @Test
+    public void testEnginesPerScript() throws ScriptException {
+        ScriptEnginePool pool = ScriptEnginePool.get();
+        int count = ScriptEnginePool.MAX_ENGINES_PER_SCRIPT + 2;
+        long created = pool.getCreated();
+        release(pool, acquire(pool, COUNTER, count));
+        assertEquals(created + count, pool.getCreated());
+        long reused = pool.getReused();
+        release(pool, acquire(pool, COUNTER, count));
+        assertEquals(reused + ScriptEnginePool.MAX_ENGINES_PER_SCRIPT, pool.getReused());
+        assertEquals(created + count + 2, pool.getCreated());
+    }
+
+    /**
+     * Tests that the engines of the least recently used script are discarded
+     * once the maximum number of scripts is kept
+     *
+     * @throws ScriptException
+     */
+    @Test
+    public void testScripts() throws ScriptException {
+        ScriptEnginePool pool = ScriptEnginePool.get();
+        for (int i = 0; i <= ScriptEnginePool.MAX_SCRIPTS; i++) {
+            pool.release(pool.acquire(script(i)));
+        }
+        long created = pool.getCreated();
+        long reused = pool.getReused();
+        pool.release(pool.acquire(script(ScriptEnginePool.MAX_SCRIPTS)));
+        assertEquals(created, pool.getCreated());
+        assertEquals(reused + 1, pool.getReused());
+        pool.release(pool.acquire(script(0)));
+        assertEquals(created + 1, pool.getCreated());
+        assertEquals(reused + 1, pool.getReused());
+    }
+
+    /**
+     * Calls the counter of an engine
+     *
+     * @param engine
+     * @return int
+     * @throws Exception
+     */
+    private int next(ScriptEnginePool.PooledEngine engine) throws Exception {
+        return ((Number) ((Invocable) engine.getEngine()).invokeFunction("next")).intValue();
+    }
+
+    /**
+     * Borrows engines for a script at the same time
+     *
+     * @param pool
+     * @param source
+     * @param count
+     * @return {@code List<ScriptEnginePool.PooledEngine>}
+     * @throws ScriptException
+     */
+    private List<ScriptEnginePool.PooledEngine> acquire(ScriptEnginePool pool, String source, int count) throws ScriptException {
+        List<ScriptEnginePool.PooledEngine> engines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            engines.add(pool.acquire(source));
+        }
+        return engines;
+    }
+
+    /**
+     * Gives engines back to the pool
+     *
+     * @param pool
+     * @param engines
+     */
+    private void release(ScriptEnginePool pool, List<ScriptEnginePool.PooledEngine> engines) {
+        for (ScriptEnginePool.PooledEngine engine : engines) {
+            pool.release(engine);
+        }
+    }
+
+    /**
+     * Returns a distinct script
+     *
+     * @param index
+     * @return String
+     */
+    private String script(int index) {
+        return "var index = " + index + ";";
+    }
+
+}
@@ -0,0 +1,136 @@
+package visnode.application;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import visnode.commons.ScriptValue;
+import visnode.gui.ScriptValueEditorLog;
+
+/**
+ * Unit tests for the script runner
+ */
+public class ScriptRunnerTest {
+
+    /** Number of indexes of the runs, enough for several chunks per worker */
+    private static final int COUNT = 1000;
+
+    /**
+     * Tests that every index runs once, across several chunks
+     */
+    @Test
+    public void testParallel() {
+        ScriptRunner runner = new ScriptRunner(new ScriptValue("function apply(index) { return index * 2; }"));
+        double[] results = new double[COUNT];
+        assertTrue(runner.parallel(Function.class, COUNT, (function, index) -> {
+            results[index] += function.apply(index);
+        }));
+        runner.release();
+        for (int index = 0; index < COUNT; index++) {
+            assertEquals(index * 2, results[index], 0);
+        }
+    }
+
+    /**
+     * Tests that a script declaring the sequential flag runs every index in
+     * order, keeping its globals between the calls
+     */
+    @Test
+    public void testSequential() {
+        String source = "var sequential = true; var calls = 0; function apply(index) { return calls++; }";
+        ScriptRunner runner = new ScriptRunner(new ScriptValue(source));
+        double[] results = new double[COUNT];
+        assertTrue(runner.parallel(Function.class, COUNT, (function, index) -> {
+            results[index] = function.apply(index);
+        }));
+        runner.release();
+        for (int index = 0; index < COUNT; index++) {
+            assertEquals(index, results[index], 0);
+        }
+    }
+
+    /**
+     * Tests that the output is logged in index order and that only the first
+     * error is logged
+     */
+    @Test
+    public void testLogOrder() {
+        String source = "function apply(index) {"
+                + "  if (index == 10 || index == 500) throw new Error('failed at ' + index);"
+                + "  print('<' + index + '>');"
+                + "  return index;"
+                + "}";
+        ScriptRunner runner = new ScriptRunner(new ScriptValue(source));
+        Object key = new Object();
+        runner.setLogKey(key);
+        assertTrue(runner.parallel(Function.class, COUNT, (function, index) -> {
+            function.apply(index);
+        }));
+        runner.release();
+        String log = log(key);
+        assertTrue(log.contains("failed at 10"));
+        assertFalse(log.contains("failed at 500"));
+        int last = -1;
+        for (int index = 0; index < COUNT; index++) {
+            int position = log.indexOf("<" + index + ">");
+            if (position >= 0) {
+                assertTrue(position > last);
+                last = position;
+            }
+        }
+        assertTrue(log.indexOf("<0>") >= 0);
+        assertTrue(log.indexOf("<999>") >= 0);
+    }
+
+    /**
+     * Tests that a script without the function is reported in the log
+     */
+    @Test
+    public void testUndefined() {
+        ScriptRunner runner = new ScriptRunner(new ScriptValue("function other(index) { return index; }"));
+        Object key = new Object();
+        runner.setLogKey(key);
+        assertFalse(runner.parallel(Function.class, COUNT, (function, index) -> {
+            fail("The function is not defined");
+        }));
+        runner.logUndefined("apply");
+        runner.release();
+        assertEquals("function apply is not defined\n", log(key));
+    }
+
+    /**
+     * Tests that the first implemented interface is returned
+     */
+    @Test
+    public void testImplemented() {
+        ScriptRunner runner = new ScriptRunner(new ScriptValue("function apply(index) { return index; }"));
+        assertEquals(Function.class, runner.implemented(Runnable.class, Function.class));
+        assertNull(runner.implemented(Runnable.class));
+        runner.release();
+    }
+
+    /**
+     * Returns the log of a key
+     *
+     * @param key
+     * @return String
+     */
+    private String log(Object key) {
+        ScriptValueEditorLog.get().flush();
+        return ScriptValueEditorLog.get().getText(key);
+    }
+
+    /**
+     * Script function of the tests
+     */
+    public interface Function {
+
+        /**
+         * Applies the function to an index
+         *
+         * @param index
+         * @return double
+         */
+        public double apply(int index);
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package visnode.gui;
+
+import io.reactivex.disposables.Disposable;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for the script value editor log
+ */
+public class ScriptValueEditorLogTest {
+
+    /**
+     * Tests that a subscriber gets the kept text and then the updates of its
+     * key only
+     */
+    @Test
+    public void testSubscribe() {
+        ScriptValueEditorLog log = new ScriptValueEditorLog();
+        Object node = new Object();
+        Object other = new Object();
+        log.next(node, "a");
+        log.flush();
+        StringBuilder received = new StringBuilder();
+        Disposable subscription = log.subscribe(node, received::append);
+        log.next(node, "b");
+        log.next(other, "x");
+        log.next(node, "c");
+        log.flush();
+        assertEquals("abc", received.toString());
+        subscription.dispose();
+        log.next(node, "d");
+        log.flush();
+        assertEquals("abc", received.toString());
+        assertEquals("abcd", log.getText(node));
+    }
+
+    /**
+     * Tests that keys with subscribers aren't evicted
+     */
+    @Test
+    public void testEviction() {
+        ScriptValueEditorLog log = new ScriptValueEditorLog();
+        Object node = new Object();
+        StringBuilder received = new StringBuilder();
+        Disposable subscription = log.subscribe(node, received::append);
+        Object first = new Object();
+        log.next(first, "first");
+        for (int i = 0; i < 100; i++) {
+            log.next(new Object(), "other");
+        }
+        log.next(node, "kept");
+        log.flush();
+        assertEquals("kept", received.toString());
+        assertEquals("", log.getText(first));
+        subscription.dispose();
+    }
+
+}
@@ -0,0 +1,109 @@
+package visnode.pdi;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for the stages of a staged process
+ */
+public class StagesTest {
+
+    /**
+     * Tests that stages are computed again only from the first one whose
+     * inputs changed
+     */
+    @Test
+    public void testRun() {
+        StageCache cache = new StageCache();
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        Map<String, Object> inputs = new HashMap<>();
+        inputs.put("image", "image");
+        inputs.put("sigma", 1.0);
+        inputs.put("threshold", 10);
+        assertEquals("image 1.0 10", run(cache.begin(inputs), inputs, first, second));
+        inputs.put("threshold", 20);
+        assertEquals("image 1.0 20", run(cache.begin(inputs), inputs, first, second));
+        assertEquals(1, first.get());
+        assertEquals(2, second.get());
+        assertEquals("image 1.0 20", run(cache.begin(inputs), inputs, first, second));
+        assertEquals(1, first.get());
+        assertEquals(2, second.get());
+        inputs.put("sigma", 2.0);
+        assertEquals("image 2.0 20", run(cache.begin(inputs), inputs, first, second));
+        assertEquals(2, first.get());
+        assertEquals(3, second.get());
+        run(Stages.uncached(), inputs, first, second);
+        assertEquals(3, first.get());
+        assertEquals(4, second.get());
+    }
+
+    /**
+     * Tests that a recycled result is removed from the cache
+     */
+    @Test
+    public void testRecycle() {
+        StageCache cache = new StageCache();
+        Map<String, Object> inputs = new HashMap<>();
+        inputs.put("sigma", 1.0);
+        Stages first = cache.begin(inputs);
+        int[] buffer = first.run("buffer", () -> new int[4], "sigma");
+        first.end();
+        Stages stages = cache.begin(inputs);
+        assertSame(buffer, stages.recycle("buffer"));
+        assertNull(stages.recycle("buffer"));
+        assertNull(Stages.uncached().recycle("buffer"));
+        stages.end();
+        assertFalse(buffer == cache.begin(inputs).run("buffer", () -> new int[4], "sigma"));
+    }
+
+    /**
+     * Tests that a result isn't recycled while another run of the node may
+     * still be reading it
+     */
+    @Test
+    public void testRecycleOverlappingRuns() {
+        StageCache cache = new StageCache();
+        Map<String, Object> inputs = new HashMap<>();
+        inputs.put("sigma", 1.0);
+        Stages first = cache.begin(inputs);
+        int[] buffer = first.run("buffer", () -> new int[4], "sigma");
+        Stages second = cache.begin(inputs);
+        assertNull(second.recycle("buffer"));
+        assertSame(buffer, second.run("buffer", () -> new int[4], "sigma"));
+        first.end();
+        first.end();
+        Stages third = cache.begin(inputs);
+        assertNull(third.recycle("buffer"));
+        second.end();
+        assertSame(buffer, third.recycle("buffer"));
+        third.end();
+    }
+
+    /**
+     * Runs two stages
+     *
+     * @param stages
+     * @param inputs
+     * @param first
+     * @param second
+     * @return String
+     */
+    private String run(Stages stages, Map<String, Object> inputs, AtomicInteger first, AtomicInteger second) {
+        Object image = inputs.get("image");
+        Object sigma = inputs.get("sigma");
+        Object threshold = inputs.get("threshold");
+        String smoothed = stages.run("smooth", () -> {
+            first.incrementAndGet();
+            return image + " " + sigma;
+        }, "image", "sigma");
+        return stages.run("threshold", () -> {
+            second.incrementAndGet();
+            return smoothed + " " + threshold;
+        }, "threshold");
+    }
+
+}
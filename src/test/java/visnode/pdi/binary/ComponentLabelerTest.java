@@ -0,0 +1,40 @@
+package visnode.pdi.binary;
+
+import java.awt.Rectangle;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for the connected component labeler
+ */
+public class ComponentLabelerTest {
+
+    /**
+     * Tests labels and statistics of components spanning several strips
+     */
+    @Test
+    public void testLabel() {
+        BitImage image = new BitImage(70, 100);
+        for (int y = 0; y < 100; y++) {
+            image.set(2, y, true);
+        }
+        for (int i = 0; i < 40; i++) {
+            image.set(10 + i, 20 + i, true);
+        }
+        image.set(68, 0, true);
+        Labeling labeling = ComponentLabeler.label(image);
+        assertEquals(3, labeling.getCount());
+        Component column = labeling.getComponent(1);
+        assertEquals(100, column.getArea());
+        assertEquals(new Rectangle(2, 0, 1, 100), column.getBounds());
+        assertEquals(49.5, column.getCentroidY(), 0.0001);
+        assertEquals(1, labeling.getComponent(2).getArea());
+        Component diagonal = labeling.getComponent(3);
+        assertEquals(40, diagonal.getArea());
+        assertEquals(new Rectangle(10, 20, 40, 40), diagonal.getBounds());
+        assertEquals(3, labeling.getLabel(49, 59));
+        assertEquals(0, labeling.getLabel(0, 0));
+        assertEquals(42, ComponentLabeler.label(image, 4).getCount());
+    }
+
+}
@@ -0,0 +1,38 @@
+package visnode.pdi.binary;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the scanline flood fill
+ */
+public class FloodFillTest {
+
+    /**
+     * Tests tolerance and connectivity on a region closed by a diagonal wall
+     */
+    @Test
+    public void testRegion() {
+        int[][][] data = new int[1][40][30];
+        for (int x = 0; x < 40; x++) {
+            for (int y = 0; y < 30; y++) {
+                data[0][x][y] = x + y < 20 ? 10 + (x % 3) : x + y == 20 ? 200 : 50;
+            }
+        }
+        Image image = new Image(data, new Range<>(0, 255));
+        BitImage region = FloodFill.region(image, 0, 0, 2, 4);
+        assertEquals(210, region.cardinality());
+        assertTrue(region.get(19, 0));
+        assertFalse(region.get(20, 0));
+        assertEquals(20, FloodFill.region(image, 0, 0, 0, 4).cardinality());
+        assertEquals(1, FloodFill.region(image, 20, 0, 0, 4).cardinality());
+        assertEquals(21, FloodFill.region(image, 20, 0, 0, 8).cardinality());
+        Image filled = FloodFill.fill(image, region, new int[] {255});
+        assertEquals(255, filled.get(0, 5, 5));
+        assertEquals(50, filled.get(0, 30, 20));
+        assertEquals(11, image.get(0, 1, 0));
+    }
+
+}
@@ -0,0 +1,99 @@
+package visnode.pdi.binary;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+import org.paim.pdi.ClosingProcess;
+import org.paim.pdi.DilationProcess;
+import org.paim.pdi.ErosionProcess;
+import org.paim.pdi.OpeningProcess;
+
+/**
+ * Unit tests for the bit image morphology
+ */
+public class MorphologyTest {
+
+    /**
+     * Tests erosion and dilation against a pixel by pixel implementation, on
+     * widths around the word boundaries
+     */
+    @Test
+    public void testErodeAndDilate() {
+        Random random = new Random(1);
+        for (int width : new int[] {1, 5, 63, 64, 65, 130}) {
+            BitImage image = new BitImage(width, 7);
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < 7; y++) {
+                    image.set(x, y, random.nextInt(4) != 0);
+                }
+            }
+            assertEquals(reference(image, true), Morphology.erode(image));
+            assertEquals(reference(image, false), Morphology.dilate(image));
+        }
+    }
+
+    /**
+     * Tests that the operations give the same result as the grey-level
+     * operations on a binary input, including the border
+     */
+    @Test
+    public void testGreyLevel() {
+        Random random = new Random(2);
+        int[][][] data = new int[1][70][9];
+        for (int x = 0; x < 70; x++) {
+            for (int y = 0; y < 9; y++) {
+                data[0][x][y] = random.nextInt(4) != 0 ? 255 : 0;
+            }
+        }
+        Image image = new Image(data, new Range<>(0, 255));
+        BitImage bits = BitImage.fromImage(image);
+        ErosionProcess erosion = new ErosionProcess(new Image(image));
+        erosion.process();
+        assertImageEquals(erosion.getOutput(), Morphology.erode(bits).toImage(image));
+        DilationProcess dilation = new DilationProcess(new Image(image));
+        dilation.process();
+        assertImageEquals(dilation.getOutput(), Morphology.dilate(bits).toImage(image));
+        OpeningProcess opening = new OpeningProcess(new Image(image));
+        opening.process();
+        assertImageEquals(opening.getOutput(), Morphology.open(bits).toImage(image));
+        ClosingProcess closing = new ClosingProcess(new Image(image));
+        closing.process();
+        assertImageEquals(closing.getOutput(), Morphology.close(bits).toImage(image));
+    }
+
+    /**
+     * Asserts that two images have the same pixels
+     *
+     * @param expected
+     * @param actual
+     */
+    private void assertImageEquals(Image expected, Image actual) {
+        assertArrayEquals(expected.getData(), actual.getData());
+    }
+
+    /**
+     * Erodes or dilates the image pixel by pixel, leaving the border unset
+     * 
+     * @param image
+     * @param erosion
+     * @return BitImage
+     */
+    private BitImage reference(BitImage image, boolean erosion) {
+        BitImage result = new BitImage(image);
+        for (int x = 1; x < image.getWidth() - 1; x++) {
+            for (int y = 1; y < image.getHeight() - 1; y++) {
+                boolean value = erosion;
+                for (int nx = x - 1; nx <= x + 1; nx++) {
+                    for (int ny = y - 1; ny <= y + 1; ny++) {
+                        value = erosion ? value && image.get(nx, ny) : value || image.get(nx, ny);
+                    }
+                }
+                result.set(x, y, value);
+            }
+        }
+        return result;
+    }
+
+}
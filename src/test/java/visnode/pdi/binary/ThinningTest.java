@@ -0,0 +1,119 @@
+package visnode.pdi.binary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for the bit image thinning
+ */
+public class ThinningTest {
+
+    /**
+     * Tests the thinning against a full scan implementation, on sizes around
+     * the word and strip boundaries
+     */
+    @Test
+    public void testZhangSuen() {
+        Random random = new Random(1);
+        for (int[] size : new int[][] {{1, 1}, {5, 3}, {63, 70}, {64, 129}, {130, 140}}) {
+            BitImage image = new BitImage(size[0], size[1]);
+            for (int shape = 0; shape < 12; shape++) {
+                int cx = random.nextInt(size[0]);
+                int cy = random.nextInt(size[1]);
+                int rx = 2 + random.nextInt(1 + size[0] / 4);
+                int ry = 2 + random.nextInt(1 + size[1] / 4);
+                for (int x = Math.max(0, cx - rx); x < Math.min(size[0], cx + rx); x++) {
+                    for (int y = Math.max(0, cy - ry); y < Math.min(size[1], cy + ry); y++) {
+                        image.set(x, y, true);
+                    }
+                }
+            }
+            assertEquals(reference(image), Thinning.zhangSuen(image));
+        }
+    }
+
+    /**
+     * Tests that a bar is thinned to a line
+     */
+    @Test
+    public void testBar() {
+        BitImage image = new BitImage(40, 11);
+        for (int x = 5; x < 35; x++) {
+            for (int y = 3; y < 8; y++) {
+                image.set(x, y, true);
+            }
+        }
+        BitImage skeleton = Thinning.zhangSuen(image);
+        for (int x = 10; x < 30; x++) {
+            int count = 0;
+            for (int y = 0; y < 11; y++) {
+                count += skeleton.get(x, y) ? 1 : 0;
+            }
+            assertEquals(1, count);
+        }
+    }
+
+    /**
+     * Thins the image scanning every pixel on every sub-iteration
+     *
+     * @param image
+     * @return BitImage
+     */
+    private BitImage reference(BitImage image) {
+        BitImage result = image.copy();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int step = 0; step < 2; step++) {
+                List<int[]> removals = new ArrayList<>();
+                for (int x = 0; x < result.getWidth(); x++) {
+                    for (int y = 0; y < result.getHeight(); y++) {
+                        if (!result.get(x, y)) {
+                            continue;
+                        }
+                        int[] p = {
+                            pixel(result, x, y - 1), pixel(result, x + 1, y - 1), pixel(result, x + 1, y), pixel(result, x + 1, y + 1),
+                            pixel(result, x, y + 1), pixel(result, x - 1, y + 1), pixel(result, x - 1, y), pixel(result, x - 1, y - 1)
+                        };
+                        int neighbours = 0;
+                        int transitions = 0;
+                        for (int i = 0; i < 8; i++) {
+                            neighbours += p[i];
+                            transitions += p[i] == 0 && p[(i + 1) % 8] == 1 ? 1 : 0;
+                        }
+                        boolean removable = step == 0
+                                ? p[0] * p[2] * p[4] == 0 && p[2] * p[4] * p[6] == 0
+                                : p[0] * p[2] * p[6] == 0 && p[0] * p[4] * p[6] == 0;
+                        if (neighbours >= 2 && neighbours <= 6 && transitions == 1 && removable) {
+                            removals.add(new int[] {x, y});
+                        }
+                    }
+                }
+                for (int[] removal : removals) {
+                    result.set(removal[0], removal[1], false);
+                }
+                changed |= !removals.isEmpty();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns 1 if the pixel is set, or 0 if it isn't or is outside the image
+     *
+     * @param image
+     * @param x
+     * @param y
+     * @return int
+     */
+    private int pixel(BitImage image, int x, int y) {
+        if (x < 0 || y < 0 || x >= image.getWidth() || y >= image.getHeight()) {
+            return 0;
+        }
+        return image.get(x, y) ? 1 : 0;
+    }
+
+}
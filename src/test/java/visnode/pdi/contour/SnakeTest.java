@@ -0,0 +1,41 @@
+package visnode.pdi.contour;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the snake
+ */
+public class SnakeTest {
+
+    /**
+     * Tests the convergence of the snake around a disc
+     */
+    @Test
+    public void testEvolve() {
+        int[][][] data = new int[1][120][80];
+        for (int x = 0; x < 120; x++) {
+            for (int y = 0; y < 80; y++) {
+                data[0][x][y] = (x - 60) * (x - 60) + (y - 40) * (y - 40) < 25 * 25 ? 200 : 30;
+            }
+        }
+        Image image = new Image(data, new Range<>(0, 255));
+        EnergyField field = EnergyField.fromImage(image, 2);
+        assertEquals(1, field.get(5, 5), 0.0001);
+        int[][] contour = Snake.initialContour(120, 80);
+        assertEquals(0, contour[0].length % 2);
+        Snake.Result result = new Snake(1, 1, 1, 0.5, 1000).evolve(field, contour[0], contour[1]);
+        assertTrue(result.isConverged());
+        assertTrue(result.getIterations() < 1000);
+        for (int i = 0; i < result.getXs().length; i++) {
+            double distance = Math.hypot(result.getXs()[i] - 60, result.getYs()[i] - 40);
+            assertEquals(25, distance, 3);
+        }
+        Image drawn = result.toImage(image);
+        assertEquals(255, drawn.get(0, result.getXs()[0], result.getYs()[0]));
+        assertEquals(30, drawn.get(0, 5, 5));
+    }
+
+}
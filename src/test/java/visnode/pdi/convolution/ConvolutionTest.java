@@ -0,0 +1,139 @@
+package visnode.pdi.convolution;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the convolution engine
+ */
+public class ConvolutionTest {
+
+    /**
+     * Tests the detection of separable kernels
+     */
+    @Test
+    public void testSeparable() {
+        assertTrue(Kernel.gaussian(1.76, 5).isSeparable());
+        assertTrue(Kernel.average(3).isSeparable());
+        assertFalse(new Kernel(new double[][] {{0, 1, 0}, {1, -4, 1}, {0, 1, 0}}).isSeparable());
+    }
+
+    /**
+     * Tests separable and non-separable kernels against a pixel by pixel
+     * implementation
+     */
+    @Test
+    public void testApply() {
+        Image image = createImage(70, 9);
+        Kernel[] kernels = {
+            Kernel.gaussian(2.5, 7),
+            Kernel.average(3),
+            new Kernel(new double[][] {{1, 2, 1}, {2, 8, 2}, {1, 2, 3}})
+        };
+        for (Kernel kernel : kernels) {
+            Image result = Convolution.apply(image, kernel);
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    assertEquals(reference(image, kernel, x, y), result.get(0, x, y), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that a gaussian without a positive sigma is the identity
+     */
+    @Test
+    public void testGaussianWithoutSigma() {
+        Image image = createImage(12, 9);
+        for (double sigma : new double[] {0, -1}) {
+            Image result = Convolution.apply(image, Kernel.gaussian(sigma, 5));
+            assertArrayEquals(image.getData(), result.getData());
+        }
+    }
+
+    /**
+     * Tests that the integral image box mean matches the averaging kernel,
+     * including windows larger than the image
+     */
+    @Test
+    public void testBoxMean() {
+        Image image = createImage(40, 9);
+        for (int size : new int[] {1, 3, 4, 11}) {
+            Image expected = Convolution.apply(image, Kernel.average(size));
+            Image result = Convolution.boxMean(image, size);
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    assertEquals(expected.get(0, x, y), result.get(0, x, y), 1);
+                }
+            }
+        }
+        IntegralImage integral = new IntegralImage(image);
+        assertEquals(image.get(0, 3, 4), integral.sum(0, 3, 4, 3, 4));
+        assertEquals(image.get(0, 0, 0) + image.get(0, 1, 0), integral.sum(0, 0, 0, 1, 0));
+        assertSame(image, Convolution.boxMean(image, 0));
+    }
+
+    /**
+     * Tests that windows partially or completely outside the integral image
+     * sum the nearest border pixels
+     */
+    @Test
+    public void testIntegralBorders() {
+        Image image = createImage(7, 5);
+        IntegralImage integral = new IntegralImage(image);
+        int[][] windows = {{-3, -2, 2, 1}, {4, 3, 9, 8}, {-4, -4, 10, 9}, {-5, 1, -2, 3}, {8, 6, 9, 7}, {2, -3, 4, 6}};
+        for (int[] window : windows) {
+            long expected = 0;
+            for (int x = window[0]; x <= window[2]; x++) {
+                for (int y = window[1]; y <= window[3]; y++) {
+                    expected += image.get(0, image.limitX(x), image.limitY(y));
+                }
+            }
+            assertEquals(expected, integral.sum(0, window[0], window[1], window[2], window[3]));
+        }
+    }
+
+    /**
+     * Convolves one pixel
+     *
+     * @param image
+     * @param kernel
+     * @param x
+     * @param y
+     * @return int
+     */
+    private int reference(Image image, Kernel kernel, int x, int y) {
+        double sum = 0;
+        for (int i = 0; i < kernel.getWidth(); i++) {
+            for (int j = 0; j < kernel.getHeight(); j++) {
+                int px = image.limitX(x + i - kernel.getWidth() / 2);
+                int py = image.limitY(y + j - kernel.getHeight() / 2);
+                sum += kernel.getWeights()[i][j] * image.get(0, px, py);
+            }
+        }
+        return (int) Math.max(0, Math.min(255, Math.round(sum)));
+    }
+
+    /**
+     * Creates a random image
+     *
+     * @param width
+     * @param height
+     * @return Image
+     */
+    private Image createImage(int width, int height) {
+        Random random = new Random(1);
+        int[][][] data = new int[1][width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                data[0][x][y] = random.nextInt(256);
+            }
+        }
+        return new Image(data, new Range<>(0, 255));
+    }
+
+}
@@ -0,0 +1,108 @@
+package visnode.pdi.convolution;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the sliding histogram filters
+ */
+public class HistogramFilterTest {
+
+    /**
+     * Tests the median and the mode against sorting and counting each window
+     */
+    @Test
+    public void testMedianAndMode() {
+        assertFilters(createImage(80, 12, 30, 255));
+    }
+
+    /**
+     * Tests the median and the mode of an image whose pixel value range is
+     * too wide for the histograms
+     */
+    @Test
+    public void testWideRange() {
+        Image image = createImage(80, 12, 500, 4095);
+        assertFalse(HistogramFilter.supports(image));
+        assertFilters(image);
+    }
+
+    /**
+     * Asserts the median and the mode of an image with multiple sizes
+     *
+     * @param image
+     */
+    private void assertFilters(Image image) {
+        for (int size : new int[] {1, 3, 4, 7}) {
+            Image median = HistogramFilter.median(image, size);
+            Image mode = HistogramFilter.mode(image, size);
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    int[] window = window(image, x, y, size);
+                    Map<Integer, Integer> counts = new TreeMap<>();
+                    for (int value : window) {
+                        counts.merge(value, 1, Integer::sum);
+                    }
+                    int expectedMode = image.get(0, x, y);
+                    int expectedCount = 1;
+                    for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                        if (entry.getValue() > expectedCount) {
+                            expectedMode = entry.getKey();
+                            expectedCount = entry.getValue();
+                        }
+                    }
+                    Arrays.sort(window);
+                    assertEquals(window[(window.length - 1) / 2], median.get(0, x, y));
+                    assertEquals(expectedMode, mode.get(0, x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a random image with few distinct values
+     *
+     * @param width
+     * @param height
+     * @param step
+     * @param higher
+     * @return Image
+     */
+    private Image createImage(int width, int height, int step, int higher) {
+        Random random = new Random(1);
+        int[][][] data = new int[1][width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                data[0][x][y] = random.nextInt(8) * step;
+            }
+        }
+        return new Image(data, new Range<>(0, higher));
+    }
+
+    /**
+     * Returns the pixels of the window around a pixel
+     *
+     * @param image
+     * @param x
+     * @param y
+     * @param size
+     * @return int[]
+     */
+    private int[] window(Image image, int x, int y, int size) {
+        int[] window = new int[size * size];
+        int index = 0;
+        for (int i = -(size / 2); i < size - size / 2; i++) {
+            for (int j = -(size / 2); j < size - size / 2; j++) {
+                window[index++] = image.get(0, image.limitX(x + i), image.limitY(y + j));
+            }
+        }
+        return window;
+    }
+
+}
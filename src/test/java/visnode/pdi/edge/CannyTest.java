@@ -0,0 +1,51 @@
+package visnode.pdi.edge;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+import visnode.pdi.binary.BitImage;
+
+/**
+ * Unit tests for the Canny edge detector
+ */
+public class CannyTest {
+
+    /**
+     * Tests thin edges around a square, the hysteresis on a kept gradient and
+     * the reuse of its buffer
+     */
+    @Test
+    public void testDetect() {
+        int[][][] data = new int[1][40][40];
+        for (int x = 10; x < 30; x++) {
+            for (int y = 10; y < 30; y++) {
+                data[0][x][y] = x < 20 ? 200 : 60;
+            }
+        }
+        Image image = new Image(data, new Range<>(0, 255));
+        float[] suppressed = Canny.suppress(Canny.gradient(image, 1), null);
+        BitImage edges = Canny.hysteresis(suppressed, 40, 40, 40, 100);
+        assertFalse(edges.get(20, 5));
+        assertFalse(edges.get(15, 20));
+        for (int y = 12; y < 28; y++) {
+            int count = 0;
+            for (int x = 0; x < 14; x++) {
+                count += edges.get(x, y) ? 1 : 0;
+            }
+            assertEquals(1, count);
+        }
+        BitImage strong = Canny.hysteresis(suppressed, 40, 40, 400, 400);
+        assertTrue(strong.cardinality() < edges.cardinality());
+        for (int x = 0; x < 40; x++) {
+            for (int y = 0; y < 40; y++) {
+                assertTrue(!strong.get(x, y) || edges.get(x, y));
+            }
+        }
+        assertEquals(edges, Canny.hysteresis(suppressed, 40, 40, 40, 100));
+        float[] reused = Canny.suppress(Canny.gradient(image, 1), suppressed);
+        assertSame(suppressed, reused);
+        assertEquals(edges, Canny.hysteresis(reused, 40, 40, 40, 100));
+    }
+
+}
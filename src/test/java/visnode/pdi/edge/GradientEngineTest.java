@@ -0,0 +1,87 @@
+package visnode.pdi.edge;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the gradient engine
+ */
+public class GradientEngineTest {
+
+    /**
+     * Tests the magnitudes against a direct application of the masks
+     */
+    @Test
+    public void testMagnitude() {
+        Image image = random(37, 29);
+        for (EdgeOperator operator : new EdgeOperator[] {EdgeOperator.SOBEL, EdgeOperator.ROBERTS, EdgeOperator.KIRSCH}) {
+            Image result = GradientEngine.compute(image, operator).toImage(image.getPixelValueRange());
+            double[][] masks = operator.getMasks();
+            for (int x = 0; x < 37; x++) {
+                for (int y = 0; y < 29; y++) {
+                    int expected = 0;
+                    if (x > 0 && y > 0 && x < 36 && y < 28) {
+                        double[] responses = new double[masks.length];
+                        for (int i = 0; i < masks.length; i++) {
+                            for (int j = 0; j < 9; j++) {
+                                responses[i] += masks[i][j] * image.get(0, x + j / 3 - 1, y + j % 3 - 1);
+                            }
+                        }
+                        double value = 0;
+                        if (operator == EdgeOperator.KIRSCH) {
+                            for (double response : responses) {
+                                value = Math.max(value, response * 256 / 3840);
+                            }
+                        } else {
+                            value = Math.sqrt(responses[0] * responses[0] + responses[1] * responses[1]);
+                        }
+                        expected = (int) Math.min(255, Math.floor(value));
+                    }
+                    assertEquals(operator + " " + x + "," + y, expected, result.get(0, x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the direction of a ramp growing to the right and down
+     */
+    @Test
+    public void testDirection() {
+        int[][][] data = new int[1][10][10];
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                data[0][x][y] = 10 * x + 10 * y;
+            }
+        }
+        Image image = new Image(data, new Range<>(0, 255));
+        for (EdgeOperator operator : EdgeOperator.values()) {
+            Gradient gradient = GradientEngine.compute(image, operator, true);
+            assertEquals(operator.toString(), 45, gradient.getDirection(0, 5, 5), 0.001);
+            assertTrue(gradient.getMagnitude(0, 5, 5) > 0);
+        }
+        assertFalse(GradientEngine.compute(image, EdgeOperator.SOBEL).hasDirection());
+    }
+
+    /**
+     * Builds a random image
+     *
+     * @param width
+     * @param height
+     * @return Image
+     */
+    private static Image random(int width, int height) {
+        Random random = new Random(3);
+        int[][][] data = new int[1][width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                data[0][x][y] = random.nextInt(256);
+            }
+        }
+        return new Image(data, new Range<>(0, 255));
+    }
+
+}
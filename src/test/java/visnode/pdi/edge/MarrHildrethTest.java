@@ -0,0 +1,108 @@
+package visnode.pdi.edge;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+import visnode.pdi.binary.BitImage;
+
+/**
+ * Unit tests for the Marr and Hildreth edge detector
+ */
+public class MarrHildrethTest {
+
+    /**
+     * Tests thin edges around a square, and the zero crossings of a reused
+     * laplacian
+     */
+    @Test
+    public void testDetect() {
+        int[][][] data = new int[1][150][40];
+        for (int x = 60; x < 90; x++) {
+            for (int y = 10; y < 30; y++) {
+                data[0][x][y] = 200;
+            }
+        }
+        Image image = new Image(data, new Range<>(0, 255));
+        MarrHildreth.Response response = MarrHildreth.detect(image, 2, 5, MarrHildreth.Mode.QUALITY);
+        BitImage edges = response.getEdges();
+        assertFalse(edges.get(75, 20));
+        assertFalse(edges.get(20, 20));
+        for (int y = 14; y < 26; y++) {
+            int count = 0;
+            for (int x = 50; x < 75; x++) {
+                count += edges.get(x, y) ? 1 : 0;
+            }
+            assertEquals(1, count);
+        }
+        assertEquals(edges, MarrHildreth.zeroCrossings(response.getLaplacian(), 150, 40, 5));
+        assertTrue(MarrHildreth.zeroCrossings(response.getLaplacian(), 150, 40, 500).cardinality() < edges.cardinality());
+    }
+
+    /**
+     * Tests the tolerance of the speed mode
+     */
+    @Test
+    public void testSpeedTolerance() {
+        int[][][] data = new int[1][200][150];
+        for (int x = 0; x < 200; x++) {
+            for (int y = 0; y < 150; y++) {
+                int[][] circles = {{50, 50, 30, 220}, {140, 60, 40, 90}, {100, 110, 25, 160}};
+                data[0][x][y] = 40;
+                for (int[] circle : circles) {
+                    if ((x - circle[0]) * (x - circle[0]) + (y - circle[1]) * (y - circle[1]) < circle[2] * circle[2]) {
+                        data[0][x][y] = circle[3];
+                    }
+                }
+            }
+        }
+        Image image = new Image(data, new Range<>(0, 255));
+        MarrHildreth.Response exactResponse = MarrHildreth.detect(image, 4, 5, MarrHildreth.Mode.QUALITY);
+        MarrHildreth.Response approximatedResponse = MarrHildreth.detect(image, 4, 5, MarrHildreth.Mode.SPEED);
+        assertTrue(correlation(exactResponse.getLaplacian()[0], approximatedResponse.getLaplacian()[0]) >= 0.99);
+        BitImage exact = exactResponse.getEdges();
+        BitImage approximated = approximatedResponse.getEdges();
+        assertTrue(approximated.cardinality() > 0);
+        int near = 0;
+        for (int x = 1; x < 199; x++) {
+            for (int y = 1; y < 149; y++) {
+                if (approximated.get(x, y) && (exact.get(x - 1, y) || exact.get(x, y) || exact.get(x + 1, y)
+                        || exact.get(x, y - 1) || exact.get(x, y + 1) || exact.get(x - 1, y - 1)
+                        || exact.get(x - 1, y + 1) || exact.get(x + 1, y - 1) || exact.get(x + 1, y + 1))) {
+                    near++;
+                }
+            }
+        }
+        assertTrue(near >= 0.95 * approximated.cardinality());
+    }
+
+    /**
+     * Returns the Pearson correlation of two series
+     *
+     * @param first
+     * @param second
+     * @return double
+     */
+    private double correlation(float[] first, float[] second) {
+        double meanFirst = 0;
+        double meanSecond = 0;
+        for (int i = 0; i < first.length; i++) {
+            meanFirst += first[i];
+            meanSecond += second[i];
+        }
+        meanFirst /= first.length;
+        meanSecond /= second.length;
+        double covariance = 0;
+        double varianceFirst = 0;
+        double varianceSecond = 0;
+        for (int i = 0; i < first.length; i++) {
+            double a = first[i] - meanFirst;
+            double b = second[i] - meanSecond;
+            covariance += a * b;
+            varianceFirst += a * a;
+            varianceSecond += b * b;
+        }
+        return covariance / Math.sqrt(varianceFirst * varianceSecond);
+    }
+
+}
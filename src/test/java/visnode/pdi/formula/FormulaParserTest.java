@@ -0,0 +1,84 @@
+package visnode.pdi.formula;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the pixel formula parser
+ */
+public class FormulaParserTest {
+
+    /**
+     * Tests operator precedence and associativity
+     * 
+     * @throws FormulaException 
+     */
+    @Test
+    public void testPrecedence() throws FormulaException {
+        assertEquals(7, evaluate("1 + 2 * 3"), 0.0001);
+        assertEquals(9, evaluate("(1 + 2) * 3"), 0.0001);
+        assertEquals(512, evaluate("2 ^ 3 ^ 2"), 0.0001);
+        assertEquals(-4, evaluate("-2 ^ 2"), 0.0001);
+        assertEquals(1, evaluate("10 - 4 - 5"), 0.0001);
+        assertEquals(3, evaluate("1 < 2 && !(3 == 4) ? 3 : 4"), 0.0001);
+    }
+
+    /**
+     * Tests variables and functions
+     * 
+     * @throws FormulaException 
+     */
+    @Test
+    public void testVariablesAndFunctions() throws FormulaException {
+        Image image = new Image(new int[][][] {{{10, 20}}, {{30, 40}}}, new Range<>(0, 255));
+        FormulaContext context = new FormulaContext(image);
+        context.set(1, 0, 1);
+        FormulaParser parser = new FormulaParser();
+        assertEquals(40, parser.parse("value").evaluate(context), 0.0001);
+        assertEquals(20, parser.parse("r").evaluate(context), 0.0001);
+        assertEquals(40, parser.parse("b").evaluate(context), 0.0001);
+        assertEquals(255, parser.parse("max").evaluate(context), 0.0001);
+        assertEquals(20, parser.parse("min(r, g)").evaluate(context), 0.0001);
+        assertEquals(100, parser.parse("clamp(value * 10, min, 100)").evaluate(context), 0.0001);
+    }
+
+    /**
+     * Tests that invalid formulas are rejected
+     */
+    @Test
+    public void testErrors() {
+        assertError("1 +");
+        assertError("foo");
+        assertError("sqrt(1, 2)");
+        assertError("(1 + 2");
+        assertError("1 2");
+    }
+
+    /**
+     * Evaluates a constant formula
+     * 
+     * @param source
+     * @return double
+     * @throws FormulaException 
+     */
+    private double evaluate(String source) throws FormulaException {
+        return new FormulaParser().parse(source).evaluate(null);
+    }
+
+    /**
+     * Asserts that the formula is rejected
+     * 
+     * @param source 
+     */
+    private void assertError(String source) {
+        try {
+            new FormulaParser().parse(source);
+            fail("Expected error on " + source);
+        } catch (FormulaException e) {
+            // Expected
+        }
+    }
+
+}
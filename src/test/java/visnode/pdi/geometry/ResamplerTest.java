@@ -0,0 +1,121 @@
+package visnode.pdi.geometry;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the resampling of images by affine transforms
+ */
+public class ResamplerTest {
+
+    /**
+     * Tests the mirroring, translation and rotation of the nearest pixels
+     */
+    @Test
+    public void testNearest() {
+        Image image = buildImage(7, 7);
+        Image horizontal = Resampler.transform(image, AffineTransform.horizontalMirroring(), Interpolation.NEAREST);
+        Image translated = Resampler.transform(image, AffineTransform.translation(3, 2), Interpolation.NEAREST);
+        Image rotated = Resampler.transform(image, AffineTransform.rotation(90), Interpolation.NEAREST);
+        for (int x = 0; x < 7; x++) {
+            for (int y = 0; y < 7; y++) {
+                assertEquals(image.get(0, 6 - x, y), horizontal.get(0, x, y));
+                assertEquals(x < 3 || y < 2 ? 0 : image.get(0, x - 3, y - 2), translated.get(0, x, y));
+                assertEquals(image.get(0, y, 6 - x), rotated.get(0, x, y));
+            }
+        }
+    }
+
+    /**
+     * Tests that chained transforms resample the original image once, cut
+     * off by the canvas of the intermediate image
+     */
+    @Test
+    public void testChain() {
+        Image image = buildImage(40, 30);
+        Image rotated = Resampler.transform(image, AffineTransform.rotation(30), Interpolation.NEAREST);
+        Image back = Resampler.transform(rotated, AffineTransform.rotation(-30), Interpolation.NEAREST);
+        Image separately = Resampler.transform(new Image(rotated), AffineTransform.rotation(-30), Interpolation.NEAREST);
+        double cos = Math.cos(Math.toRadians(-30));
+        double sin = Math.sin(Math.toRadians(-30));
+        int lost = 0;
+        for (int x = 0; x < 40; x++) {
+            for (int y = 0; y < 30; y++) {
+                double canvasX = cos * (x - 19.5) + sin * (y - 14.5) + 19.5;
+                double canvasY = -sin * (x - 19.5) + cos * (y - 14.5) + 14.5;
+                boolean inside = canvasX >= -0.5 && canvasX < 39.5 && canvasY >= -0.5 && canvasY < 29.5;
+                assertEquals(inside ? image.get(0, x, y) : 0, back.get(0, x, y));
+                lost += inside && image.get(0, x, y) != separately.get(0, x, y) ? 1 : 0;
+            }
+        }
+        assertTrue(lost > 0);
+        Image mirrored = Resampler.transform(Resampler.transform(image, AffineTransform.verticalMirroring(), Interpolation.NEAREST),
+                AffineTransform.verticalMirroring(), Interpolation.NEAREST);
+        assertTrue(mirrored instanceof TransformedImage);
+        assertSame(image, ((TransformedImage) mirrored).getSource());
+    }
+
+    /**
+     * Tests that the pixels cut off by an intermediate image stay cut off
+     */
+    @Test
+    public void testClip() {
+        Image image = buildImage(20, 10);
+        Image translated = Resampler.transform(image, AffineTransform.translation(5, 0), Interpolation.NEAREST);
+        Image back = Resampler.transform(translated, AffineTransform.translation(-5, 0), Interpolation.NEAREST);
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 10; y++) {
+                assertEquals(x < 15 ? image.get(0, x, y) : 0, back.get(0, x, y));
+            }
+        }
+        Image enlarged = Resampler.transform(image, AffineTransform.scale(2, 2), Interpolation.NEAREST);
+        Image reduced = Resampler.transform(enlarged, AffineTransform.scale(0.5, 0.5), Interpolation.NEAREST);
+        Image separately = Resampler.transform(new Image(enlarged), AffineTransform.scale(0.5, 0.5), Interpolation.NEAREST);
+        Image rotated = Resampler.transform(enlarged, AffineTransform.rotation(10), Interpolation.BILINEAR);
+        Image rotatedSeparately = Resampler.transform(new Image(enlarged), AffineTransform.rotation(10), Interpolation.BILINEAR);
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 10; y++) {
+                assertEquals(separately.get(0, x, y) == 0, reduced.get(0, x, y) == 0);
+                assertEquals(rotatedSeparately.get(0, x, y) == 0, rotated.get(0, x, y) == 0);
+            }
+        }
+    }
+
+    /**
+     * Tests the bilinear interpolation of a scaled gradient
+     */
+    @Test
+    public void testBilinear() {
+        int[][][] data = new int[1][9][3];
+        for (int x = 0; x < 9; x++) {
+            for (int y = 0; y < 3; y++) {
+                data[0][x][y] = x * 10;
+            }
+        }
+        Image image = new Image(data, new Range<>(0, 255));
+        Image scaled = Resampler.transform(image, AffineTransform.scale(2, 1), Interpolation.BILINEAR);
+        assertEquals(40, scaled.get(0, 4, 1));
+        assertEquals(45, scaled.get(0, 5, 1));
+        assertEquals(35, scaled.get(0, 3, 1));
+    }
+
+    /**
+     * Builds an image with a different value on each pixel
+     *
+     * @param width
+     * @param height
+     * @return Image
+     */
+    private Image buildImage(int width, int height) {
+        int[][][] data = new int[1][width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                data[0][x][y] = 1 + (x * height + y) % 250;
+            }
+        }
+        return new Image(data, new Range<>(0, 255));
+    }
+
+}
@@ -0,0 +1,81 @@
+package visnode.pdi.point;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the integer grayscale conversion
+ */
+public class GrayscaleTest {
+
+    /**
+     * Tests that the mean is exact on 8 and 16 bit images
+     */
+    @Test
+    public void testMean() {
+        for (int higher : new int[] {255, 65535}) {
+            Image image = random(new Range<>(0, higher), 3);
+            Image result = Grayscale.mean(image);
+            assertEquals(1, result.getChannelCount());
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    int sum = image.get(0, x, y) + image.get(1, x, y) + image.get(2, x, y);
+                    assertEquals(sum / 3, result.get(0, x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the weighted sum is within 1 of the floating point one, and
+     * exact on gray pixels
+     */
+    @Test
+    public void testWeighted() {
+        Range<Integer> range = new Range<>(0, 65535);
+        Image image = random(range, 3);
+        double[][] weights = {{0.299, 0.587, 0.114}, {1.0 / 3, 1.0 / 3, 1.0 / 3}, {0.2126, 0.7152, 0.0722}};
+        for (double[] weight : weights) {
+            Image result = Grayscale.weighted(image, weight[0], weight[1], weight[2]);
+            assertEquals(1, result.getChannelCount());
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    double sum = image.get(0, x, y) * weight[0] + image.get(1, x, y) * weight[1] + image.get(2, x, y) * weight[2];
+                    assertTrue(Math.abs((int) sum - result.get(0, x, y)) <= 1);
+                }
+            }
+        }
+        int[][][] data = new int[3][256][1];
+        for (int x = 0; x < 256; x++) {
+            data[0][x][0] = data[1][x][0] = data[2][x][0] = x;
+        }
+        Image gray = Grayscale.weighted(new Image(data, new Range<>(0, 255)), 1.0 / 3, 1.0 / 3, 1.0 / 3);
+        for (int x = 0; x < 256; x++) {
+            assertEquals(x, gray.get(0, x, 0));
+        }
+    }
+
+    /**
+     * Creates a random image
+     *
+     * @param range
+     * @param channels
+     * @return Image
+     */
+    private Image random(Range<Integer> range, int channels) {
+        Random random = new Random(1);
+        int[][][] data = new int[channels][90][40];
+        for (int channel = 0; channel < channels; channel++) {
+            for (int x = 0; x < 90; x++) {
+                for (int y = 0; y < 40; y++) {
+                    data[channel][x][y] = random.nextInt(range.getHigher() + 1);
+                }
+            }
+        }
+        return new Image(data, range);
+    }
+
+}
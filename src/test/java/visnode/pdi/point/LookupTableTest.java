@@ -0,0 +1,95 @@
+package visnode.pdi.point;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the lookup tables
+ */
+public class LookupTableTest {
+
+    /**
+     * Tests the table against applying the operation to each pixel
+     */
+    @Test
+    public void testApply() {
+        Range<Integer> range = new Range<>(0, 255);
+        Image image = random(range);
+        PointOperation operation = PointOperation.contrast(1.7);
+        Image result = LookupTable.build(range, operation).apply(image);
+        for (int channel = 0; channel < 3; channel++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    int expected = Math.min(255, (int) (image.get(channel, x, y) * 1.7));
+                    assertEquals(expected, result.get(channel, x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that a composed table gives the same result as applying each
+     * table in sequence
+     */
+    @Test
+    public void testCompose() {
+        Range<Integer> range = new Range<>(0, 255);
+        Image image = random(range);
+        LookupTable brightness = LookupTable.build(range, PointOperation.brightness(90));
+        LookupTable gamma = LookupTable.build(range, PointOperation.gamma(0.5, range));
+        LookupTable invert = LookupTable.build(range, PointOperation.invert(range));
+        Image sequence = invert.apply(gamma.apply(brightness.apply(image)));
+        Image composed = brightness.then(gamma).then(PointOperation.invert(range)).apply(image);
+        for (int channel = 0; channel < 3; channel++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    assertEquals(sequence.get(channel, x, y), composed.get(channel, x, y));
+                }
+            }
+        }
+        assertEquals(0, invert.get(255));
+        assertEquals(255, gamma.get(255));
+        assertEquals(128, gamma.get(64));
+    }
+
+    /**
+     * Tests the threshold on the mean of the channels
+     */
+    @Test
+    public void testApplyToMean() {
+        Range<Integer> range = new Range<>(0, 255);
+        Image image = random(range);
+        LookupTable threshold = LookupTable.build(range, new Range<>(0, 1), PointOperation.threshold(100, 0, 1));
+        int[][] target = new int[image.getWidth()][image.getHeight()];
+        threshold.applyToMean(image, target);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                int mean = (image.get(0, x, y) + image.get(1, x, y) + image.get(2, x, y)) / 3;
+                assertEquals(mean >= 100 ? 1 : 0, target[x][y]);
+            }
+        }
+    }
+
+    /**
+     * Creates a random RGB image
+     *
+     * @param range
+     * @return Image
+     */
+    private Image random(Range<Integer> range) {
+        Random random = new Random(1);
+        int[][][] data = new int[3][70][30];
+        for (int channel = 0; channel < 3; channel++) {
+            for (int x = 0; x < 70; x++) {
+                for (int y = 0; y < 30; y++) {
+                    data[channel][x][y] = random.nextInt(256);
+                }
+            }
+        }
+        return new Image(data, range);
+    }
+
+}
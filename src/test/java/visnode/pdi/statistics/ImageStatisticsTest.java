@@ -0,0 +1,86 @@
+package visnode.pdi.statistics;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.paim.commons.Image;
+import org.paim.commons.Range;
+
+/**
+ * Unit tests for the image statistics
+ */
+public class ImageStatisticsTest {
+
+    /**
+     * Tests the statistics against a sequential count of each channel
+     */
+    @Test
+    public void testCompute() {
+        Random random = new Random(1);
+        int width = 300;
+        int height = 40;
+        int[][][] data = new int[3][width][height];
+        for (int channel = 0; channel < 3; channel++) {
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    data[channel][x][y] = random.nextInt(200) + channel * 20;
+                }
+            }
+        }
+        ImageStatistics statistics = ImageStatistics.compute(new Image(data, new Range<>(0, 255)));
+        long[] total = new long[256];
+        for (int channel = 0; channel < 3; channel++) {
+            long[] histogram = new long[256];
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            double sum = 0;
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    int value = data[channel][x][y];
+                    histogram[value]++;
+                    total[value]++;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                    sum += value;
+                }
+            }
+            double mean = sum / (width * height);
+            double variance = 0;
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    variance += (data[channel][x][y] - mean) * (data[channel][x][y] - mean);
+                }
+            }
+            variance /= width * height;
+            for (int value = 0; value < 256; value++) {
+                assertEquals(histogram[value], statistics.getCount(channel, value));
+            }
+            assertEquals(min, statistics.getMinimum(channel));
+            assertEquals(max, statistics.getMaximum(channel));
+            assertEquals(mean, statistics.getMean(channel), 1e-9);
+            assertEquals(variance, statistics.getVariance(channel), 1e-6);
+        }
+        int most = 0;
+        for (int value = 0; value < 256; value++) {
+            if (total[value] >= total[most]) {
+                most = value;
+            }
+        }
+        assertEquals(most, statistics.getValueWithMostOccurrences());
+        assertEquals(240, statistics.getValueWithLeastOccurrences());
+    }
+
+    /**
+     * Tests that the statistics are cached per image instance
+     */
+    @Test
+    public void testCache() {
+        Image image = new Image(new int[1][4][4], new Range<>(0, 255));
+        ImageStatistics statistics = ImageStatistics.of(image);
+        assertSame(statistics, ImageStatistics.of(image));
+        assertFalse(statistics == ImageStatistics.of(new Image(image)));
+        assertEquals(16, statistics.getCount(0, 0));
+        assertEquals(0, statistics.getVariance(), 0);
+    }
+
+}